@@ -5,7 +5,6 @@ import com.dango.aicodegenerate.model.message.ToolRequestMessage;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,12 +16,16 @@ import java.util.List;
  *
  * <h2>工作原理</h2>
  * <ol>
- *   <li>累积 arguments delta 片段</li>
+ *   <li>逐字符增量扫描每个 delta，只处理新到达的字符，不回扫、不复制已处理内容</li>
  *   <li>状态机：INIT -> PARSING_TRIGGER_PARAM -> DONE</li>
  *   <li>解析 triggerParam（如 relativeFilePath）完成后发送 TOOL_REQUEST</li>
-   *   <li>处理 JSON 转义字符</li>
+ *   <li>处理 JSON 转义字符</li>
+ *   <li>进入 DONE 后不再缓存任何数据，后续 delta（如几十 KB 的 content）直接忽略</li>
  * </ol>
  *
+ * <p>单次 process 的开销只与该 delta 长度相关，与已累计的参数长度无关，
+ * 见测试目录下的 ToolArgumentsExtractorBenchmark。
+ *
  * <h2>使用说明</h2>
  * 此类通常不需要直接使用，由 StreamingResponseProcessor 自动创建和管理。
  *
@@ -56,27 +59,41 @@ public class ToolArgumentsExtractor {
         DONE                    // 完成
     }
 
+    /**
+     * INIT 状态内的子阶段：匹配键名 -> 寻找冒号 -> 寻找值的起始引号
+     */
+    private enum KeyPhase {
+        MATCH_KEY,
+        SEEK_COLON,
+        SEEK_VALUE_QUOTE
+    }
+
     private final String toolCallId;
     private final String toolName;
     private final String triggerParam;
     private final String action;
 
+    // 待匹配的键（带引号），如 "relativeFilePath"
+    private final String searchKey;
+
     @Getter
     private State state = State.INIT;
 
-    // 累积的原始 JSON 字符串
-    private final StringBuilder rawBuffer = new StringBuilder();
+    private KeyPhase keyPhase = KeyPhase.MATCH_KEY;
+
+    // searchKey 已匹配的字符数
+    private int matchedKeyChars = 0;
 
-    // 当前解析位置
-    private int parsePosition = 0;
+    // 触发参数的原始值（未 unescape），只在 PARSING_TRIGGER_PARAM 状态下增长
+    private final StringBuilder valueBuffer = new StringBuilder();
+
+    // 上一个字符是否为转义符 '\'
+    private boolean escaping = false;
 
     // 触发参数值
     @Getter
     private String triggerParamValue;
 
-    // 是否已发送 TOOL_REQUEST
-    private boolean toolRequestSent = false;
-
     /**
      * 构造函数
      *
@@ -95,6 +112,7 @@ public class ToolArgumentsExtractor {
         this.toolName = toolName;
         this.triggerParam = triggerParam;
         this.action = action;
+        this.searchKey = triggerParam == null ? null : "\"" + triggerParam + "\"";
     }
 
     /**
@@ -104,100 +122,68 @@ public class ToolArgumentsExtractor {
      * @return 需要发送的消息列表（可能为空）
      */
     public List<StreamMessage> process(String delta) {
-        List<StreamMessage> messages = new ArrayList<>();
-
-        if (delta == null || delta.isEmpty() || triggerParam == null) {
-            return messages;
+        if (delta == null || delta.isEmpty() || triggerParam == null || state == State.DONE) {
+            return List.of();
         }
 
-        // 累积原始数据
-        rawBuffer.append(delta);
-        String raw = rawBuffer.toString();
-
-        // 根据状态处理
-        switch (state) {
-            case INIT -> processInit(raw, messages);
-            case PARSING_TRIGGER_PARAM -> processTriggerParam(raw, messages);
-            case DONE -> { /* 已完成，不再处理 */ }
+        int length = delta.length();
+        for (int pos = 0; pos < length; pos++) {
+            char c = delta.charAt(pos);
+            if (state == State.INIT) {
+                scanKey(c);
+            } else if (scanValue(c)) {
+                triggerParamValue = unescape(valueBuffer.toString());
+                valueBuffer.setLength(0);
+                valueBuffer.trimToSize();
+                state = State.DONE;
+                return List.of(new ToolRequestMessage(toolCallId, toolName, triggerParamValue, action, null));
+            }
         }
-
-        return messages;
+        return List.of();
     }
 
     /**
      * 初始状态：寻找触发参数的开始
      */
-    private void processInit(String raw, List<StreamMessage> messages) {
-        String searchKey = "\"" + triggerParam + "\"";
-
-        int keyIndex = raw.indexOf(searchKey, parsePosition);
-        if (keyIndex == -1) {
-            return;
-        }
-
-        int colonIndex = raw.indexOf(':', keyIndex + searchKey.length());
-        if (colonIndex == -1) {
-            return;
-        }
-
-        int valueStart = raw.indexOf('"', colonIndex + 1);
-        if (valueStart == -1) {
-            return;
-        }
-
-        state = State.PARSING_TRIGGER_PARAM;
-        parsePosition = valueStart + 1;
-        processTriggerParam(raw, messages);
-    }
-
-    /**
-     * 解析触发参数值
-     */
-    private void processTriggerParam(String raw, List<StreamMessage> messages) {
-        int endQuote = findStringEnd(raw, parsePosition);
-        if (endQuote == -1) {
-            return;
-        }
-
-        String rawValue = raw.substring(parsePosition, endQuote);
-        triggerParamValue = unescape(rawValue);
-
-        if (!toolRequestSent) {
-            messages.add(new ToolRequestMessage(toolCallId, toolName, triggerParamValue, action, null));
-            toolRequestSent = true;
+    private void scanKey(char c) {
+        switch (keyPhase) {
+            case MATCH_KEY -> {
+                if (c == searchKey.charAt(matchedKeyChars)) {
+                    matchedKeyChars++;
+                    if (matchedKeyChars == searchKey.length()) {
+                        keyPhase = KeyPhase.SEEK_COLON;
+                    }
+                } else {
+                    // 键名本身不含引号，失配时只有当前字符是引号才可能是新一轮匹配的开头
+                    matchedKeyChars = c == '"' ? 1 : 0;
+                }
+            }
+            case SEEK_COLON -> {
+                if (c == ':') {
+                    keyPhase = KeyPhase.SEEK_VALUE_QUOTE;
+                }
+            }
+            case SEEK_VALUE_QUOTE -> {
+                if (c == '"') {
+                    state = State.PARSING_TRIGGER_PARAM;
+                }
+            }
         }
-
-        state = State.DONE;
     }
 
     /**
-     * 查找 JSON 字符串的结束引号位置（处理转义）
+     * 解析触发参数值，遇到未转义的结束引号时返回 true
      */
-    private int findStringEnd(String raw, int start) {
-        int pos = start;
-        while (pos < raw.length()) {
-            char c = raw.charAt(pos);
-            if (c == '"') {
-                return pos;
-            }
-            if (c == '\\') {
-                if (pos + 1 >= raw.length()) {
-                    return -1;
-                }
-                char next = raw.charAt(pos + 1);
-                if (next == 'u') {
-                    if (pos + 5 >= raw.length()) {
-                        return -1;
-                    }
-                    pos += 6;
-                } else {
-                    pos += 2;
-                }
-            } else {
-                pos++;
-            }
+    private boolean scanValue(char c) {
+        if (escaping) {
+            escaping = false;
+        } else if (c == '\\') {
+            escaping = true;
+        } else if (c == '"') {
+            return true;
         }
-        return -1;
+        valueBuffer.append(c);
+        return false;
     }
 
     /**
@@ -248,13 +234,6 @@ public class ToolArgumentsExtractor {
         return result.toString();
     }
 
-    /**
-     * 获取完整的累积 JSON
-     */
-    public String getRawArguments() {
-        return rawBuffer.toString();
-    }
-
     /**
      * 是否已完成解析
      */
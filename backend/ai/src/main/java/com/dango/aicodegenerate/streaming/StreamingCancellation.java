@@ -0,0 +1,56 @@
+package com.dango.aicodegenerate.streaming;
+
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import reactor.core.publisher.FluxSink;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TokenStream 取消桥接
+ *
+ * <h2>功能说明</h2>
+ * 下游取消订阅（如节点超时）时取消底层模型流，而不是让 TokenStream 在后台继续生成到结束。
+ * LangChain4j 只在 partial 回调中暴露 {@link StreamingHandle}，
+ * 因此取消发生在首个 token 之前时先记下标记，拿到句柄后立即取消。
+ */
+public final class StreamingCancellation {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicReference<StreamingHandle> handle = new AtomicReference<>();
+
+    private StreamingCancellation() {
+    }
+
+    /**
+     * 绑定到 FluxSink：订阅被取消时取消底层模型流
+     */
+    public static StreamingCancellation bindTo(FluxSink<?> sink) {
+        StreamingCancellation cancellation = new StreamingCancellation();
+        sink.onCancel(cancellation::cancel);
+        return cancellation;
+    }
+
+    /**
+     * 在 partial 回调中登记句柄
+     *
+     * @return 订阅已被取消（调用方应丢弃本次回调内容）
+     */
+    public boolean register(StreamingHandle streamingHandle) {
+        handle.set(streamingHandle);
+        if (cancelled.get()) {
+            streamingHandle.cancel();
+            return true;
+        }
+        return false;
+    }
+
+    private void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            StreamingHandle streamingHandle = handle.get();
+            if (streamingHandle != null) {
+                streamingHandle.cancel();
+            }
+        }
+    }
+}
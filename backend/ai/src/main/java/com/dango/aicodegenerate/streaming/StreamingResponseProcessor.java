@@ -16,6 +16,7 @@ import reactor.core.publisher.Flux;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 流式响应处理器
@@ -85,10 +86,16 @@ public class StreamingResponseProcessor {
     public Flux<StreamMessage> process(TokenStream tokenStream) {
         return Flux.create(sink -> {
             Map<String, ToolArgumentsExtractor> extractors = new ConcurrentHashMap<>();
+            AtomicBoolean partialEmitted = new AtomicBoolean(false);
+            StreamingCancellation cancellation = StreamingCancellation.bindTo(sink);
 
             tokenStream
-                .onPartialResponse(partialResponse -> {
-                    sink.next(new AiResponseMessage(partialResponse));
+                .onPartialResponseWithContext((partialResponse, context) -> {
+                    if (cancellation.register(context.streamingHandle())) {
+                        return;
+                    }
+                    partialEmitted.set(true);
+                    sink.next(new AiResponseMessage(partialResponse.text()));
                 })
                 .onPartialToolCall(partialToolCall -> {
                     if (toolConfig == null) {
@@ -115,6 +122,13 @@ public class StreamingResponseProcessor {
                     sink.next(new ToolExecutedMessage(toolExecution));
                 })
                 .onCompleteResponse(response -> {
+                    // 部分模型/网关不下发 partial 文本，只在完成时给出整段回复，此时回填一次
+                    if (!partialEmitted.get()) {
+                        String text = completeText(response);
+                        if (text != null && !text.isEmpty()) {
+                            sink.next(new AiResponseMessage(text));
+                        }
+                    }
                     sink.complete();
                 })
                 .onError(error -> {
@@ -124,6 +138,13 @@ public class StreamingResponseProcessor {
         });
     }
 
+    private static String completeText(ChatResponse response) {
+        if (response == null || response.aiMessage() == null) {
+            return null;
+        }
+        return response.aiMessage().text();
+    }
+
     /**
      * 处理并转换为 JSON 字符串流（便捷方法）
      *
@@ -5,5 +5,7 @@ import tailwindcss from '@tailwindcss/vite'
 // https://vite.dev/config/
 export default defineConfig({
   base: './',
+  // 构建服务通过 CODEGEN_VITE_CACHE_DIR 指定每个应用独立的缓存目录（node_modules 为共享软链，不能放缓存）
+  cacheDir: process.env.CODEGEN_VITE_CACHE_DIR || './.vite-cache',
   plugins: [react(), tailwindcss()],
 })
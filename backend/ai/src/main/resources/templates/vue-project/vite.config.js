@@ -5,7 +5,8 @@ import tailwindcss from '@tailwindcss/vite'
 
 export default defineConfig({
   base: './',
-  cacheDir: './.vite-cache',
+  // 构建服务通过 CODEGEN_VITE_CACHE_DIR 指定每个应用独立的缓存目录（node_modules 为共享软链，不能放缓存）
+  cacheDir: process.env.CODEGEN_VITE_CACHE_DIR || './.vite-cache',
   plugins: [vue(), tailwindcss()],
   resolve: {
     alias: {
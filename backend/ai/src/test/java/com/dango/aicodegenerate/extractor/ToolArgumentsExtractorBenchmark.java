@@ -0,0 +1,95 @@
+package com.dango.aicodegenerate.extractor;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ToolArgumentsExtractor 微基准
+ *
+ * <p>模拟 writeFile 调用以小 delta 流式下发 arguments，content 长度从 1KB 到 256KB。
+ * 关注次级指标 perDelta:deltas，即单个 delta 的平均耗时：线性实现下各规模应基本持平；
+ * 旧实现每个 delta 都会 toString 整个缓冲区，该值随参数长度线性增长（整体平方级）。
+ *
+ * <p>运行方式：在 IDE 中直接运行 main，或
+ * {@code mvn -pl ai test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.dango.aicodegenerate.extractor.ToolArgumentsExtractorBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ToolArgumentsExtractorBenchmark {
+
+    private static final int DELTA_SIZE = 8;
+
+    /**
+     * content 参数长度（字符数）
+     */
+    @Param({"1024", "16384", "262144"})
+    private int contentLength;
+
+    /**
+     * 触发参数在 content 之前（常见情况）还是之后（需要扫描完整 content）
+     */
+    @Param({"true", "false"})
+    private boolean triggerFirst;
+
+    private List<String> deltas;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String content = "<template>\\n  <div class=\\\"app\\\">hello</div>\\n</template>\\n".repeat(
+                contentLength / 60 + 1).substring(0, contentLength);
+        String path = "\"relativeFilePath\":\"src/pages/Home.vue\"";
+        String body = "\"content\":\"" + content + "\"";
+        String arguments = "{" + (triggerFirst ? path + "," + body : body + "," + path) + "}";
+        deltas = new ArrayList<>(arguments.length() / DELTA_SIZE + 1);
+        for (int i = 0; i < arguments.length(); i += DELTA_SIZE) {
+            deltas.add(arguments.substring(i, Math.min(arguments.length(), i + DELTA_SIZE)));
+        }
+    }
+
+    /**
+     * 完整消费一次工具参数流。
+     */
+    @Benchmark
+    public void perDelta(Blackhole blackhole, DeltaCounter counter) {
+        ToolArgumentsExtractor extractor = new ToolArgumentsExtractor(
+                "tool-1", "writeFile", "relativeFilePath", "write");
+        for (String delta : deltas) {
+            blackhole.consume(extractor.process(delta));
+        }
+        counter.deltas += deltas.size();
+    }
+
+    /**
+     * 以 delta 为单位计数的辅助计数器，JMH 会把它作为每次调用处理的操作数输出。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class DeltaCounter {
+        public long deltas;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            deltas = 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ToolArgumentsExtractorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.dango.aicodegenerate.extractor;
+
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import com.dango.aicodegenerate.model.message.ToolRequestMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolArgumentsExtractor 单元测试
+ */
+class ToolArgumentsExtractorTest {
+
+    private static final String ARGUMENTS =
+            "{\"content\":\"<div>\\\"relativeFilePath\\\"</div>\",\"relativeFilePath\" : \"src/\\u0041pp\\\\\\\"x.vue\"}";
+
+    @Test
+    void testTriggerParamSplitAcrossAnyDeltaBoundary() {
+        for (int step = 1; step <= 8; step++) {
+            ToolArgumentsExtractor extractor = newExtractor();
+            List<StreamMessage> messages = new ArrayList<>();
+            for (int i = 0; i < ARGUMENTS.length(); i += step) {
+                messages.addAll(extractor.process(ARGUMENTS.substring(i, Math.min(ARGUMENTS.length(), i + step))));
+            }
+
+            assertEquals(1, messages.size(), "step=" + step);
+            ToolRequestMessage message = assertInstanceOf(ToolRequestMessage.class, messages.get(0));
+            assertEquals("src/App\\\"x.vue", message.getFilePath());
+            assertEquals("write", message.getAction());
+            assertTrue(extractor.isDone());
+        }
+    }
+
+    @Test
+    void testIgnoreDeltasAfterDone() {
+        ToolArgumentsExtractor extractor = newExtractor();
+
+        List<StreamMessage> first = extractor.process("{\"relativeFilePath\":\"a.vue\",\"content\":\"");
+        List<StreamMessage> rest = extractor.process("\"relativeFilePath\":\"b.vue\"");
+
+        assertEquals(1, first.size());
+        assertTrue(rest.isEmpty());
+        assertEquals("a.vue", extractor.getTriggerParamValue());
+    }
+
+    @Test
+    void testNoTriggerParam() {
+        ToolArgumentsExtractor extractor = new ToolArgumentsExtractor("tool-1", "readFile", null, "read");
+
+        assertTrue(extractor.process("{\"relativeFilePath\":\"a.vue\"}").isEmpty());
+        assertEquals(ToolArgumentsExtractor.State.INIT, extractor.getState());
+    }
+
+    private static ToolArgumentsExtractor newExtractor() {
+        return new ToolArgumentsExtractor("tool-1", "writeFile", "relativeFilePath", "write");
+    }
+}
@@ -2,8 +2,11 @@ package com.dango.dangoaicodeapp.application.service;
 
 import com.dango.dangoaicodeapp.domain.app.valueobject.ElementInfo;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * 代码生成 应用服务层。
  *
@@ -22,6 +25,15 @@ public interface CodeGenApplicationService {
      */
     boolean startBackgroundGeneration(Long appId, String message, ElementInfo elementInfo, long userId);
 
+    /**
+     * 从检查点恢复中断的生成任务（如实例重启），只重新执行最后完成节点之后的部分
+     *
+     * @param appId  应用 ID
+     * @param userId 用户 ID
+     * @return 是否成功启动
+     */
+    boolean resumeInterruptedGeneration(Long appId, long userId);
+
     /**
      * 从 Redis Stream 消费并返回 Flux（用于 SSE 推送）
      *
@@ -36,4 +48,12 @@ public interface CodeGenApplicationService {
      * 查询生成任务状态。
      */
     GenerationTaskSnapshot getGenerationStatus(Long appId, long userId);
+
+    /**
+     * 查询工作流执行时间线（执行中及最近结束的），供管理员分析各节点耗时
+     *
+     * @param appId 应用 ID，为空时返回全部应用
+     * @return 时间线列表，执行中的在前
+     */
+    List<WorkflowTimeline> listWorkflowTimelines(Long appId);
 }
@@ -2,6 +2,7 @@ package com.dango.dangoaicodeapp.application.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.application.service.AppApplicationService;
 import com.dango.dangoaicodeapp.application.service.ChatHistoryService;
 import com.dango.dangoaicodeapp.application.service.CodeGenApplicationService;
@@ -10,12 +11,19 @@ import com.dango.dangoaicodeapp.domain.app.repository.AppRepository;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.app.valueobject.ElementInfo;
 import com.dango.dangoaicodeapp.domain.codegen.handler.StreamHandlerExecutor;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationReplyBuffer;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationSession;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowProfilerPort;
 import com.dango.dangoaicodeapp.domain.codegen.service.GenerationSessionDomainService;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowCheckpointer;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.command.RunWorkflowCommand;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import com.dango.dangoaicodeapp.infrastructure.config.AppProperties;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
 import com.dango.dangoaicodecommon.exception.BusinessException;
 import com.dango.dangoaicodecommon.exception.ErrorCode;
 import com.dango.dangoaicodecommon.exception.ThrowUtils;
@@ -28,13 +36,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -64,9 +72,24 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
     @Resource
     private AppProperties appProperties;
 
+    @Resource
+    private CodeGenStreamProperties codeGenStreamProperties;
+
     @Resource
     private CodeGenWorkflowExecutor codeGenWorkflowExecutor;
 
+    @Resource
+    private GenerationStreamFanout generationStreamFanout;
+
+    @Resource
+    private WorkflowCheckpointer workflowCheckpointer;
+
+    @Resource
+    private CodeGenWorkflowProperties codeGenWorkflowProperties;
+
+    @Resource
+    private WorkflowProfilerPort workflowProfilerPort;
+
     @DubboReference
     private SupabaseService supabaseService;
 
@@ -77,8 +100,53 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
         App app = loadAndCheckOwnership(appId, message, userId);
         saveUserMessageSafely(appId, userId, message);
         GenerationSession generationSession = generationSessionDomainService.startSession(appId, userId);
+        return launchGeneration(generationSession,
+                () -> buildRunCommand(app, message, appId, elementInfo, userId), appId, userId);
+    }
+
+    @Override
+    public boolean resumeInterruptedGeneration(Long appId, long userId) {
+        loadOwnedApp(appId, userId);
+        String checkpointKey = checkpointKeyOf(appId, userId);
+        WorkflowContext checkpoint = workflowCheckpointer.load(checkpointKey).orElse(null);
+        ThrowUtils.throwIf(checkpoint == null, ErrorCode.NOT_FOUND_ERROR, "没有可恢复的生成任务");
+        // 原始提示词已在首次生成时落库，恢复只重新开一条 AI 回复
+        GenerationSession generationSession = generationSessionDomainService.startSession(appId, userId);
+        log.info("从检查点恢复生成任务: appId={}, userId={}, completedNodes={}",
+                appId, userId, checkpoint.getCompletedNodeVisits());
+        return launchGeneration(generationSession, () -> RunWorkflowCommand.builder()
+                .originalPrompt(checkpoint.getOriginalPrompt())
+                .appId(appId)
+                .elementInfo(checkpoint.getElementInfo())
+                .databaseEnabled(checkpoint.isDatabaseEnabled())
+                .databaseSchema(checkpoint.getDatabaseSchema())
+                .generationType(checkpoint.getGenerationType())
+                .checkpointKey(checkpointKey)
+                .resumeContext(checkpoint)
+                .build(), appId, userId);
+    }
+
+    @Override
+    public Flux<String> consumeGenerationStream(Long appId, long userId, String afterId) {
+        // 同一节点上同一生成流的多个订阅共用一个读取循环，按各自游标分发
+        return generationStreamFanout.subscribe(appId, userId, afterId)
+                .map(this::toStreamPayload);
+    }
+
+    @Override
+    public GenerationTaskSnapshot getGenerationStatus(Long appId, long userId) {
+        return generationSessionDomainService.getTaskSnapshot(appId, userId);
+    }
+
+    @Override
+    public List<WorkflowTimeline> listWorkflowTimelines(Long appId) {
+        return workflowProfilerPort.recentTimelines(appId);
+    }
+
+    private boolean launchGeneration(
+            GenerationSession generationSession, Supplier<RunWorkflowCommand> commandSupplier, Long appId, long userId) {
         try {
-            Flux<String> processedStream = buildProcessedStream(app, message, appId, elementInfo, userId);
+            Flux<GenerationStreamChunk> processedStream = buildProcessedStream(commandSupplier.get(), appId, userId);
             subscribeGenerationStream(processedStream, generationSession, appId, userId);
             return true;
         } catch (Exception e) {
@@ -92,58 +160,13 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
         }
     }
 
-    @Override
-    public Flux<String> consumeGenerationStream(Long appId, long userId, String afterId) {
-        return Flux.<String>create(sink -> {
-            Schedulers.boundedElastic().schedule(() -> {
-                String lastId = afterId != null ? afterId : "0";
-                try {
-                    while (!sink.isCancelled()) {
-                        // 非阻塞读取已有消息
-                        var records = generationSessionDomainService.readStreamChunks(appId, userId, lastId, 100);
-                        lastId = emitStreamRecords(records, lastId, sink);
-                        if (sink.isCancelled()) {
-                            return;
-                        }
-
-                        GenerationTaskSnapshot taskSnapshot = generationSessionDomainService.getTaskSnapshot(appId, userId);
-                        if (taskSnapshot.isTerminal() && records.isEmpty()) {
-                            sink.complete();
-                            return;
-                        }
-                        if (taskSnapshot.isNone()) {
-                            sink.complete();
-                            return;
-                        }
-
-                        // 没有新消息时短暂休眠，避免空转（不使用 XREAD BLOCK，防止阻塞共享连接）
-                        if (records.isEmpty()) {
-                            Thread.sleep(200);
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    if (!sink.isCancelled()) {
-                        sink.complete();
-                    }
-                } catch (Exception e) {
-                    if (!sink.isCancelled()) {
-                        log.error("消费 Stream 异常: {}", e.getMessage());
-                        sink.error(e);
-                    }
-                }
-            });
-        });
-    }
-
-    @Override
-    public GenerationTaskSnapshot getGenerationStatus(Long appId, long userId) {
-        return generationSessionDomainService.getTaskSnapshot(appId, userId);
+    private App loadAndCheckOwnership(Long appId, String message, long userId) {
+        ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
+        return loadOwnedApp(appId, userId);
     }
 
-    private App loadAndCheckOwnership(Long appId, String message, long userId) {
+    private App loadOwnedApp(Long appId, long userId) {
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
-        ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
         App app = appRepository.findById(appId).orElse(null);
         ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
         if (!app.getUserId().equals(userId)) {
@@ -160,7 +183,7 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
         }
     }
 
-    private Flux<String> buildProcessedStream(
+    private RunWorkflowCommand buildRunCommand(
             App app, String message, Long appId, ElementInfo elementInfo, long userId) {
         CodeGenTypeEnum codeGenTypeEnum = CodeGenTypeEnum.getEnumByValue(app.getCodeGenType());
         if (codeGenTypeEnum == null) {
@@ -169,54 +192,49 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
 
         boolean databaseEnabled = Boolean.TRUE.equals(app.getHasDatabase());
         String databaseSchema = loadDatabaseSchema(appId, databaseEnabled);
-        MonitorContext monitorContext = buildMonitorContext(appId, userId);
 
-        RunWorkflowCommand command = RunWorkflowCommand.builder()
+        return RunWorkflowCommand.builder()
                 .originalPrompt(message)
                 .appId(appId)
                 .elementInfo(elementInfo)
                 .databaseEnabled(databaseEnabled)
                 .databaseSchema(databaseSchema)
                 .generationType(codeGenTypeEnum)
+                .checkpointKey(checkpointKeyOf(appId, userId))
                 .build();
+    }
 
-        Flux<String> codeStream = codeGenWorkflowExecutor.executeWithFlux(command, monitorContext);
+    private Flux<GenerationStreamChunk> buildProcessedStream(RunWorkflowCommand command, Long appId, long userId) {
+        MonitorContext monitorContext = buildMonitorContext(appId, userId);
+        Flux<StreamMessage> codeStream = codeGenWorkflowExecutor.executeWithFlux(command, monitorContext);
         return streamHandlerExecutor.doExecute(codeStream);
     }
 
+    /**
+     * 检查点按 appId + userId 标识，与生成任务一一对应；关闭检查点时返回 null。
+     */
+    private String checkpointKeyOf(Long appId, long userId) {
+        return codeGenWorkflowProperties.isCheckpointEnabled() ? appId + ":" + userId : null;
+    }
+
     private void subscribeGenerationStream(
-            Flux<String> processedStream, GenerationSession session, Long appId, long userId) {
+            Flux<GenerationStreamChunk> processedStream, GenerationSession session, Long appId, long userId) {
         // 统一订阅收口：onNext/onComplete/onError 都走领域服务，
         // 保证“任务状态 + 聊天消息状态”的一致性规则不会散落在多个分支里。
-        StringBuilder fullContentBuilder = new StringBuilder();
+        // AI 回复只在内存保留未落库的窗口，长回复按阈值/间隔分段追加到 chat_history。
+        GenerationReplyBuffer replyBuffer = newReplyBuffer();
         processedStream
                 .subscribeOn(Schedulers.boundedElastic())
                 .timeout(Duration.ofMinutes(5))
-                .doOnNext(chunk -> appendChunk(session, chunk, fullContentBuilder))
-                .doOnComplete(() -> completeSession(session, fullContentBuilder.toString(), appId, userId))
-                .doOnError(error -> failSession(session, error, fullContentBuilder.toString(), appId, userId))
+                .doOnNext(chunk -> appendChunk(session, chunk, replyBuffer))
+                .doOnComplete(() -> completeSession(session, replyBuffer, appId, userId))
+                .doOnError(error -> failSession(session, error, replyBuffer, appId, userId))
                 .subscribe();
     }
 
-    private String emitStreamRecords(
-            List<GenerationStreamChunk> records, String lastId, FluxSink<String> sink) {
-        // 抽成独立方法：把“遍历、取消检查、游标推进”封装成一个原子步骤，
-        // 让 consume 主循环只表达控制流（读流 -> 判状态 -> sleep）。
-        String nextLastId = lastId;
-        for (GenerationStreamChunk record : records) {
-            if (sink.isCancelled()) {
-                return nextLastId;
-            }
-            sink.next(toStreamPayload(record));
-            if (record.id() != null) {
-                nextLastId = record.id();
-            }
-        }
-        return nextLastId;
-    }
-
     private String toStreamPayload(GenerationStreamChunk record) {
-        // 序列化集中在一处，避免不同调用点出现字段不一致（d/msgType）的问题。
+        // SSE 出口是整条链路中唯一的 JSON 序列化点（Redis 出口直接写 d/msgType 字段），
+        // 集中在一处也避免不同调用点出现字段不一致的问题。
         HashMap<String, String> msg = new HashMap<>();
         msg.put("d", record.content());
         if (record.msgType() != null) {
@@ -225,28 +243,48 @@ public class CodeGenApplicationServiceImpl implements CodeGenApplicationService
         return JSONUtil.toJsonStr(msg);
     }
 
-    private void appendChunk(GenerationSession session, String chunk, StringBuilder fullContentBuilder) {
-        cn.hutool.json.JSONObject jsonObj = JSONUtil.parseObj(chunk);
-        String content = jsonObj.getStr("d", "");
-        String msgType = jsonObj.getStr("msgType");
-        if (!"log".equals(msgType)) {
-            fullContentBuilder.append(content);
+    private GenerationReplyBuffer newReplyBuffer() {
+        if (!codeGenStreamProperties.isHistoryCheckpointEnabled()) {
+            return GenerationReplyBuffer.unbounded();
+        }
+        return new GenerationReplyBuffer(codeGenStreamProperties.getHistoryCheckpointChars(),
+                codeGenStreamProperties.getHistoryCheckpointInterval());
+    }
+
+    private void appendChunk(GenerationSession session, GenerationStreamChunk chunk, GenerationReplyBuffer replyBuffer) {
+        generationSessionDomainService.appendChunk(session, chunk.content(), chunk.msgType());
+        if ("log".equals(chunk.msgType())) {
+            return;
+        }
+        replyBuffer.append(chunk.content());
+        if (replyBuffer.isCheckpointDue()) {
+            checkpointReplySafely(session, replyBuffer);
+        }
+    }
+
+    private void checkpointReplySafely(GenerationSession session, GenerationReplyBuffer replyBuffer) {
+        try {
+            generationSessionDomainService.checkpointReply(session, replyBuffer.pendingContent());
+            replyBuffer.checkpointed();
+        } catch (Exception e) {
+            // 分段落库失败不影响生成，内容留在窗口中，下个间隔或会话收口时再写入
+            replyBuffer.postponeCheckpoint();
+            log.warn("AI 回复分段落库失败: chatHistoryId={}, error={}", session.chatHistoryId(), e.getMessage());
         }
-        generationSessionDomainService.appendChunk(session, content, msgType);
     }
 
-    private void completeSession(GenerationSession session, String fullContent, Long appId, long userId) {
-        generationSessionDomainService.completeSession(session, fullContent);
+    private void completeSession(GenerationSession session, GenerationReplyBuffer replyBuffer, Long appId, long userId) {
+        generationSessionDomainService.completeSession(session, replyBuffer.pendingContent());
         MonitorContextHolder.clearContext();
         log.info("后台生成任务完成: appId={}, userId={}", appId, userId);
         triggerAppScreenshotSafely(appId);
     }
 
     private void failSession(
-            GenerationSession session, Throwable throwable, String partialContent, Long appId, long userId) {
+            GenerationSession session, Throwable throwable, GenerationReplyBuffer replyBuffer, Long appId, long userId) {
         log.error("后台生成任务失败: appId={}, userId={}, error={}", appId, userId, throwable.getMessage());
-        if (StrUtil.isNotBlank(partialContent)) {
-            generationSessionDomainService.failSession(session, partialContent);
+        if (replyBuffer.hasContent()) {
+            generationSessionDomainService.failSession(session, replyBuffer.pendingContent());
         } else {
             generationSessionDomainService.failSession(session, throwable);
         }
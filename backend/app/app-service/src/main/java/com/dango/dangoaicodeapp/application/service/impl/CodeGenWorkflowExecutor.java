@@ -1,13 +1,20 @@
 package com.dango.dangoaicodeapp.application.service.impl;
 
-import cn.hutool.json.JSONUtil;
 import com.dango.aicodegenerate.model.message.AiResponseMessage;
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowStreamPort;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.CodeGenWorkflow;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.ScaffoldPrefetcher;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowCheckpointer;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowTimeoutException;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.command.RunWorkflowCommand;
+import com.dango.dangoaicodeapp.infrastructure.monitor.WorkflowProfiler;
+import com.dango.dangoaicodeapp.infrastructure.workflow.WorkflowAdmissionQueue;
+import com.dango.dangoaicodecommon.exception.BusinessException;
+import com.dango.dangoaicodecommon.exception.ErrorCode;
 import com.dango.dangoaicodecommon.monitor.MonitorContext;
 import com.dango.dangoaicodecommon.monitor.MonitorContextHolder;
-import com.dango.dangoaicodecommon.trace.TracedVirtualThread;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -15,7 +22,7 @@ import reactor.core.publisher.Flux;
 
 /**
  * 工作流运行时编排器。
- * 负责流式 sink 生命周期与监控上下文管理，领域层只处理业务编排。
+ * 负责准入排队、流式 sink 生命周期与监控上下文管理，领域层只处理业务编排。
  */
 @Slf4j
 @Component
@@ -24,31 +31,119 @@ public class CodeGenWorkflowExecutor {
 
     private final CodeGenWorkflow codeGenWorkflow;
     private final WorkflowStreamPort workflowStreamPort;
+    private final WorkflowCheckpointer workflowCheckpointer;
+    private final ScaffoldPrefetcher scaffoldPrefetcher;
+    private final WorkflowDeadlines workflowDeadlines;
+    private final WorkflowAdmissionQueue workflowAdmissionQueue;
+    private final WorkflowProfiler workflowProfiler;
 
-    public Flux<String> executeWithFlux(RunWorkflowCommand command, MonitorContext monitorContext) {
-        return Flux.create(sink -> {
+    public Flux<StreamMessage> executeWithFlux(RunWorkflowCommand command, MonitorContext monitorContext) {
+        return Flux.<StreamMessage>create(sink -> {
             String executionId = command.appId() + "_" + System.currentTimeMillis();
             workflowStreamPort.register(executionId, sink);
+            workflowProfiler.startRun(executionId, command.appId(), command.generationType().getValue());
 
-            TracedVirtualThread.start(() -> {
-                try {
-                    if (monitorContext != null) {
-                        MonitorContextHolder.setContext(monitorContext);
-                    }
-
-                    RunWorkflowCommand executableCommand = command.withWorkflowExecutionId(executionId);
-                    sink.next(JSONUtil.toJsonStr(new AiResponseMessage("[工作流] 开始处理请求...\n")));
-                    codeGenWorkflow.run(executableCommand);
-                    sink.next(JSONUtil.toJsonStr(new AiResponseMessage("[工作流] 全部流程执行完成！\n")));
-                    sink.complete();
-                } catch (Exception e) {
-                    log.error("工作流执行失败: {}", e.getMessage(), e);
-                    sink.error(e);
-                } finally {
-                    MonitorContextHolder.clearContext();
-                    workflowStreamPort.unregister(executionId);
+            // 经准入队列执行：槽位已满时排队，排队位置作为日志帧推送到同一条生成流
+            WorkflowAdmissionQueue.Ticket ticket = workflowAdmissionQueue.submit(userIdOf(monitorContext),
+                    () -> runWorkflow(command, executionId, monitorContext),
+                    new WorkflowAdmissionQueue.Listener() {
+                        @Override
+                        public void onQueued(int position) {
+                            workflowStreamPort.emit(executionId, queueMessage(
+                                    String.format("[排队] 当前生成任务较多，已排在第 %d 位，请稍候...\n", position)));
+                        }
+
+                        @Override
+                        public void onRejected(String reason) {
+                            workflowStreamPort.error(executionId,
+                                    new BusinessException(ErrorCode.TOO_MANY_REQUEST, reason));
+                            releaseExecution(executionId, WorkflowProfiler.STATUS_REJECTED);
+                        }
+                    });
+            // 排队期间订阅被取消：让出队列位置，工作流不会再执行
+            sink.onDispose(() -> {
+                if (ticket.cancel()) {
+                    releaseExecution(executionId, WorkflowProfiler.STATUS_CANCELLED);
                 }
             });
         });
     }
+
+    private void runWorkflow(RunWorkflowCommand command, String executionId, MonitorContext monitorContext) {
+        workflowProfiler.runAdmitted(executionId);
+        String status = WorkflowProfiler.STATUS_FAILED;
+        try {
+            if (monitorContext != null) {
+                MonitorContextHolder.setContext(monitorContext);
+            }
+
+            // 运行时限从真正开始执行时起算，恢复运行同样重新计时
+            RunWorkflowCommand executableCommand = command.withWorkflowExecutionId(executionId)
+                    .toBuilder()
+                    .runDeadline(workflowDeadlines.runDeadlineFromNow())
+                    .build();
+            if (!command.isResume()) {
+                // 新的运行不能沿用上一次中断留下的检查点
+                workflowCheckpointer.discard(command.checkpointKey());
+            }
+            // 统一经由有界输出通道发送与收口，保证与节点消息的顺序一致
+            workflowStreamPort.emit(executionId, new AiResponseMessage(command.isResume()
+                    ? "[工作流] 从检查点恢复执行...\n"
+                    : "[工作流] 开始处理请求...\n"));
+            codeGenWorkflow.run(executableCommand);
+            // 正常结束才丢弃检查点，异常结束保留以便从最后完成的节点恢复
+            workflowCheckpointer.discard(command.checkpointKey());
+            workflowStreamPort.emit(executionId, new AiResponseMessage("[工作流] 全部流程执行完成！\n"));
+            workflowStreamPort.complete(executionId);
+            status = WorkflowProfiler.STATUS_COMPLETED;
+        } catch (Exception e) {
+            WorkflowTimeoutException timeout = findTimeout(e);
+            if (timeout != null) {
+                // 超时作为可识别的错误收口：先给出明确原因，再以该异常结束流，生成任务随之释放
+                log.warn("工作流执行超时: executionId={}, node={}, scope={}",
+                        executionId, timeout.getNodeId(), timeout.getScope());
+                workflowStreamPort.emit(executionId, new AiResponseMessage(
+                        "[工作流] " + timeout.getMessage() + "\n"));
+                workflowStreamPort.error(executionId, timeout);
+                status = WorkflowProfiler.STATUS_TIMEOUT;
+                return;
+            }
+            log.error("工作流执行失败: {}", e.getMessage(), e);
+            workflowStreamPort.error(executionId, e);
+        } finally {
+            MonitorContextHolder.clearContext();
+            releaseExecution(executionId, status);
+        }
+    }
+
+    private void releaseExecution(String executionId, String status) {
+        workflowProfiler.finishRun(executionId, status);
+        scaffoldPrefetcher.release(executionId);
+        workflowStreamPort.unregister(executionId);
+    }
+
+    private static AiResponseMessage queueMessage(String text) {
+        AiResponseMessage message = new AiResponseMessage(text);
+        message.setMsgType("log");
+        return message;
+    }
+
+    private static String userIdOf(MonitorContext monitorContext) {
+        return monitorContext != null ? monitorContext.getUserId() : null;
+    }
+
+    /**
+     * 图执行框架会把节点异常包装一到多层，沿 cause 链查找超时异常。
+     */
+    private static WorkflowTimeoutException findTimeout(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof WorkflowTimeoutException timeout) {
+                return timeout;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,356 @@
+package com.dango.dangoaicodeapp.application.service.impl;
+
+import com.dango.dangoaicodeapp.domain.app.entity.App;
+import com.dango.dangoaicodeapp.domain.app.repository.AppRepository;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
+import com.dango.dangoaicodeapp.domain.codegen.service.GenerationSessionDomainService;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import com.dango.dangoaicodeapp.infrastructure.monitor.StreamLatencyMetrics;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成流的本地共享读取器。
+ *
+ * 同一节点上对同一个生成流（appId + userId）的多个 SSE 订阅（多标签页、反复重连）
+ * 共用一个 Redis 读取循环，读到的记录按各订阅者自己的游标分发，
+ * Redis 读压力与活跃生成数相关，而不是与打开的浏览器标签数相关。
+ *
+ * 读取器按订阅者引用计数，最后一个订阅者离开或任务结束时停止并移除。
+ * 读取器在内存中保留最近若干条记录作为窗口，游标落在窗口之前的新订阅者
+ * 先自行从 Redis 追赶（压缩流让追赶只需少量读取），追上窗口后再并入共享分发。
+ * 读取器追上流尾后，按 Stream ID 中的写入时间记录每条记录的推送延迟。
+ */
+@Slf4j
+@Component
+public class GenerationStreamFanout {
+
+    private static final int READ_BATCH_SIZE = 100;
+
+    @Resource
+    private GenerationSessionDomainService generationSessionDomainService;
+
+    @Resource
+    private CodeGenStreamProperties codeGenStreamProperties;
+
+    @Resource
+    private AppRepository appRepository;
+
+    @Resource
+    private StreamLatencyMetrics streamLatencyMetrics;
+
+    /**
+     * 活跃读取器，创建/移除在该 map 的监视器内完成；
+     * 订阅者挂载与窗口回放只持有对应读取器自己的锁，慢订阅者不会阻塞其他流的订阅与退订。
+     */
+    private final Map<String, SharedReader> readers = new HashMap<>();
+
+    /**
+     * 订阅生成流，从 afterId 之后开始下发。
+     */
+    public Flux<GenerationStreamChunk> subscribe(Long appId, long userId, String afterId) {
+        return Flux.create(sink -> {
+            StreamSubscriber subscriber = new StreamSubscriber(
+                    readerKey(appId, userId), sink, afterId != null ? afterId : "0");
+            sink.onDispose(() -> leave(subscriber));
+            Schedulers.boundedElastic().schedule(() -> join(appId, userId, subscriber));
+        });
+    }
+
+    /**
+     * 当前活跃的读取器数量。
+     */
+    int activeReaderCount() {
+        synchronized (readers) {
+            return readers.size();
+        }
+    }
+
+    private void join(Long appId, long userId, StreamSubscriber subscriber) {
+        try {
+            while (!subscriber.sink.isCancelled()) {
+                SharedReader reader;
+                boolean created = false;
+                synchronized (readers) {
+                    reader = readers.get(subscriber.readerKey);
+                    if (reader == null) {
+                        // 新读取器以首个订阅者的游标为起点，首个订阅者总能直接挂载
+                        reader = new SharedReader(subscriber.readerKey, appId, userId, subscriber.cursor);
+                        readers.put(subscriber.readerKey, reader);
+                        created = true;
+                    }
+                }
+                if (reader.tryAttach(subscriber, false)) {
+                    if (created) {
+                        Schedulers.boundedElastic().schedule(reader::run);
+                    }
+                    return;
+                }
+                if (created) {
+                    // 挂载前已被其他订阅者的退订关闭并移除，重新查找或创建
+                    continue;
+                }
+                // 游标早于共享窗口：自行追赶一页后重试挂载
+                List<GenerationStreamChunk> records = generationSessionDomainService.readStreamChunks(
+                        appId, userId, subscriber.cursor, READ_BATCH_SIZE);
+                if (records.isEmpty()) {
+                    // 窗口之前已无可读记录（流被重建等），直接从窗口起点挂载
+                    SharedReader current;
+                    synchronized (readers) {
+                        current = readers.get(subscriber.readerKey);
+                    }
+                    if (current != null && current.tryAttach(subscriber, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                subscriber.deliver(records);
+            }
+        } catch (Exception e) {
+            if (!subscriber.sink.isCancelled()) {
+                log.error("生成流订阅追赶失败: key={}, error={}", subscriber.readerKey, e.getMessage());
+                subscriber.sink.error(e);
+            }
+        }
+    }
+
+    private void leave(StreamSubscriber subscriber) {
+        synchronized (readers) {
+            SharedReader reader = readers.get(subscriber.readerKey);
+            if (reader != null && reader.detach(subscriber)) {
+                readers.remove(subscriber.readerKey, reader);
+            }
+        }
+    }
+
+    private static String readerKey(Long appId, long userId) {
+        return appId + ":" + userId;
+    }
+
+    /**
+     * 比较两个 Redis Stream ID（ms-seq），缺省序号按 0 处理。
+     */
+    static int compareIds(String left, String right) {
+        long[] l = parseId(left);
+        long[] r = parseId(right);
+        int byMillis = Long.compare(l[0], r[0]);
+        return byMillis != 0 ? byMillis : Long.compare(l[1], r[1]);
+    }
+
+    /**
+     * Redis Stream ID 的毫秒部分即记录写入时间。
+     */
+    private static long idMillis(String id) {
+        return parseId(id)[0];
+    }
+
+    private static long[] parseId(String id) {
+        if (id == null || id.isEmpty()) {
+            return new long[]{0, 0};
+        }
+        int dash = id.indexOf('-');
+        try {
+            if (dash < 0) {
+                return new long[]{Long.parseLong(id), 0};
+            }
+            return new long[]{Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1))};
+        } catch (NumberFormatException e) {
+            return new long[]{0, 0};
+        }
+    }
+
+    /**
+     * 单个 SSE 订阅者及其游标。
+     */
+    private static final class StreamSubscriber {
+        private final String readerKey;
+        private final FluxSink<GenerationStreamChunk> sink;
+        private volatile String cursor;
+
+        private StreamSubscriber(String readerKey, FluxSink<GenerationStreamChunk> sink, String cursor) {
+            this.readerKey = readerKey;
+            this.sink = sink;
+            this.cursor = cursor;
+        }
+
+        /**
+         * 下发游标之后的记录并推进游标。
+         */
+        private void deliver(List<GenerationStreamChunk> records) {
+            for (GenerationStreamChunk record : records) {
+                if (sink.isCancelled()) {
+                    return;
+                }
+                if (record.id() != null && compareIds(record.id(), cursor) <= 0) {
+                    continue;
+                }
+                sink.next(record);
+                if (record.id() != null) {
+                    cursor = record.id();
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个生成流的共享读取循环。
+     */
+    private final class SharedReader {
+        private final String key;
+        private final Long appId;
+        private final long userId;
+        private final List<StreamSubscriber> subscribers = new ArrayList<>();
+        private final ArrayDeque<GenerationStreamChunk> window = new ArrayDeque<>();
+        // 窗口第一条记录之前的游标，游标不早于它的订阅者可直接从窗口补齐
+        private String windowStart;
+        private String cursor;
+        private volatile boolean closed;
+        // 读到过一次空页后才算在线跟随，之前读到的是历史回放，不计推送延迟
+        private boolean live;
+        private String codeGenType;
+
+        private SharedReader(String key, Long appId, long userId, String startId) {
+            this.key = key;
+            this.appId = appId;
+            this.userId = userId;
+            this.windowStart = startId;
+            this.cursor = startId;
+        }
+
+        private synchronized boolean tryAttach(StreamSubscriber subscriber, boolean force) {
+            if (closed) {
+                return false;
+            }
+            if (!force && compareIds(subscriber.cursor, windowStart) < 0) {
+                return false;
+            }
+            subscriber.deliver(List.copyOf(window));
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        /**
+         * 移除订阅者，返回是否已无订阅者（此时读取器关闭）。
+         */
+        private synchronized boolean detach(StreamSubscriber subscriber) {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                closed = true;
+                return true;
+            }
+            return false;
+        }
+
+        private void run() {
+            Duration idleCheckInterval = codeGenStreamProperties.getIdleCheckInterval();
+            codeGenType = resolveCodeGenType();
+            // 先订阅再读流：订阅之后的追加都会推进通知版本，不会漏掉“读空后、等待前”写入的记录。
+            try (GenerationStreamPort.Watcher watcher = generationSessionDomainService.watchStream(appId, userId)) {
+                while (!closed) {
+                    List<GenerationStreamChunk> records = generationSessionDomainService.readStreamChunks(
+                            appId, userId, cursor, READ_BATCH_SIZE);
+                    if (!records.isEmpty()) {
+                        publish(records);
+                        continue;
+                    }
+
+                    live = true;
+                    GenerationTaskSnapshot taskSnapshot = generationSessionDomainService.getTaskSnapshot(appId, userId);
+                    if (taskSnapshot.isTerminal() || taskSnapshot.isNone()) {
+                        finish(null);
+                        return;
+                    }
+
+                    // 等待本节点追加/收口通知；超时仅作为跨节点写入的兜底检查
+                    watcher.await(idleCheckInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(null);
+            } catch (Exception e) {
+                log.error("消费 Stream 异常: key={}, error={}", key, e.getMessage());
+                finish(e);
+            }
+        }
+
+        private synchronized void publish(List<GenerationStreamChunk> records) {
+            int windowLimit = Math.max(1, codeGenStreamProperties.getFanoutWindowRecords());
+            for (GenerationStreamChunk record : records) {
+                window.addLast(record);
+                if (record.id() != null) {
+                    cursor = record.id();
+                }
+            }
+            while (window.size() > windowLimit) {
+                GenerationStreamChunk evicted = window.pollFirst();
+                if (evicted.id() != null) {
+                    windowStart = evicted.id();
+                }
+            }
+            for (StreamSubscriber subscriber : subscribers) {
+                subscriber.deliver(records);
+            }
+            if (live) {
+                recordDeliveryDelay(records);
+            }
+        }
+
+        private void recordDeliveryDelay(List<GenerationStreamChunk> records) {
+            long now = System.currentTimeMillis();
+            for (GenerationStreamChunk record : records) {
+                if (record.id() != null) {
+                    streamLatencyMetrics.recordDeliveryDelay(codeGenType, Duration.ofMillis(now - idMillis(record.id())));
+                }
+            }
+        }
+
+        private String resolveCodeGenType() {
+            try {
+                return appRepository.findById(appId).map(App::getCodeGenType).orElse(null);
+            } catch (Exception e) {
+                // 只用于指标标签，查询失败不影响推送
+                log.warn("查询应用生成类型失败: appId={}, error={}", appId, e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * 任务结束或读取失败：先从注册表移除，再收口当前订阅者，之后的订阅会创建新的读取器。
+         */
+        private void finish(Exception error) {
+            List<StreamSubscriber> toFinish;
+            synchronized (readers) {
+                readers.remove(key, this);
+                synchronized (this) {
+                    closed = true;
+                    toFinish = new ArrayList<>(subscribers);
+                    subscribers.clear();
+                    window.clear();
+                }
+            }
+            for (StreamSubscriber subscriber : toFinish) {
+                if (subscriber.sink.isCancelled()) {
+                    continue;
+                }
+                if (error != null) {
+                    subscriber.sink.error(error);
+                } else {
+                    subscriber.sink.complete();
+                }
+            }
+        }
+    }
+}
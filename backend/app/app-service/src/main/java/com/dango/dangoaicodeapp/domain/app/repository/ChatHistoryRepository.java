@@ -19,4 +19,5 @@ public interface ChatHistoryRepository {
     boolean removeByQuery(QueryWrapper queryWrapper);
     List<ChatHistory> findAll(QueryWrapper queryWrapper);
     boolean updateById(ChatHistory chatHistory);
+    boolean appendMessage(Long id, String segment, String status);
 }
@@ -65,9 +65,9 @@ public class AppDomainService {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "应用代码不存在，请先生成代码");
         }
 
-        // 执行 Vue 项目构建
-        boolean buildSuccess = vueProjectBuilder.buildProject(sourceDirPath);
-        ThrowUtils.throwIf(!buildSuccess, ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请检查代码和依赖");
+        // 执行 Vue 项目构建（源码自上次构建后未变化时直接复用 dist）
+        VueProjectBuilder.BuildResult buildResult = vueProjectBuilder.buildProjectWithResult(sourceDirPath);
+        ThrowUtils.throwIf(!buildResult.isSuccess(), ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请检查代码和依赖");
 
         // 检查 dist 目录是否存在
         File distDir = new File(sourceDirPath, "dist");
@@ -75,7 +75,8 @@ public class AppDomainService {
 
         // 将 dist 目录作为部署源
         sourceDir = distDir;
-        log.info("Vue 项目构建成功，将部署 dist 目录: {}", distDir.getAbsolutePath());
+        log.info("Vue 项目{}，将部署 dist 目录: {}", buildResult.isReused() ? "源码未变化" : "构建成功",
+                distDir.getAbsolutePath());
 
         // 复制文件到部署目录
         String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
@@ -0,0 +1,52 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+
+import java.util.regex.Pattern;
+
+/**
+ * 构建错误指纹：对构建错误摘要做归一化后取哈希，用于识别构建-修复循环中重复出现的同一错误。
+ * 归一化去掉终端颜色码、项目绝对路径、数字（行列号、耗时、时间戳）与多余空白，
+ * 只保留错误类型、相对文件路径与错误描述。
+ *
+ * @author dango
+ */
+public final class BuildErrorFingerprint {
+
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;\\d]*[A-Za-z]");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private BuildErrorFingerprint() {
+    }
+
+    /**
+     * 计算错误指纹
+     *
+     * @param errorSummary 构建错误摘要
+     * @param projectDir   项目目录，错误中的绝对路径会被替换为相对路径
+     * @return 指纹；错误摘要为空时返回 null
+     */
+    public static String of(String errorSummary, String projectDir) {
+        String normalized = normalize(errorSummary, projectDir);
+        if (StrUtil.isBlank(normalized)) {
+            return null;
+        }
+        return SecureUtil.sha256(normalized).substring(0, FINGERPRINT_LENGTH);
+    }
+
+    static String normalize(String errorSummary, String projectDir) {
+        if (StrUtil.isBlank(errorSummary)) {
+            return "";
+        }
+        String text = ANSI_ESCAPE.matcher(errorSummary).replaceAll("").replace('\\', '/');
+        if (StrUtil.isNotBlank(projectDir)) {
+            text = text.replace(StrUtil.removeSuffix(projectDir.replace('\\', '/'), "/") + "/", "");
+        }
+        text = DIGITS.matcher(text).replaceAll("#");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+}
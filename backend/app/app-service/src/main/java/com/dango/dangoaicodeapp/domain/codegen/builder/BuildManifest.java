@@ -0,0 +1,178 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 构建清单：记录最近一次成功构建时项目源码的内容哈希。
+ * 清单文件与 dist 同级存放，源码哈希一致且 dist 仍在时可直接复用上次构建产物。
+ * 最近一次成功构建的完成时间另存一个文件，构建开始时不会被作废，供预检查判断哪些源码在此后改动过。
+ *
+ * @author dango
+ */
+@Slf4j
+public final class BuildManifest {
+
+    public static final String MANIFEST_FILE_NAME = ".build-manifest.json";
+
+    public static final String LAST_BUILT_AT_FILE_NAME = ".last-built-at";
+
+    /**
+     * 任意层级下都不参与哈希的目录（依赖与工具缓存）
+     */
+    private static final Set<String> EXCLUDED_DIRS = Set.of("node_modules", ".git");
+
+    /**
+     * 仅项目根目录下不参与哈希的条目（构建产物、项目内 Vite 缓存与清单本身）
+     */
+    private static final Set<String> EXCLUDED_ROOT_ENTRIES = Set.of("dist", ".vite-cache", MANIFEST_FILE_NAME, LAST_BUILT_AT_FILE_NAME);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private BuildManifest() {
+    }
+
+    /**
+     * 计算项目源码哈希：按相对路径排序后依次摘要路径与文件内容，路径统一使用 / 分隔
+     */
+    public static String computeSourceHash(Path projectDir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(projectDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(projectDir)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String name = dir.getFileName().toString();
+                if (EXCLUDED_DIRS.contains(name) || isExcludedRootEntry(projectDir, dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !isExcludedRootEntry(projectDir, file)) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        List<String> relativePaths = new ArrayList<>(files.size());
+        for (Path file : files) {
+            relativePaths.add(projectDir.relativize(file).toString().replace('\\', '/'));
+        }
+        relativePaths.sort(String::compareTo);
+
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (String relativePath : relativePaths) {
+            digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = Files.newInputStream(projectDir.resolve(relativePath))) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            digest.update((byte) 0);
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 读取清单中记录的源码哈希，清单不存在或无法解析时返回 null
+     */
+    public static String readRecordedHash(Path projectDir) {
+        JSONObject json = readManifest(projectDir);
+        String hash = json != null ? json.getStr("sourceHash") : null;
+        return StrUtil.isBlank(hash) ? null : hash;
+    }
+
+    /**
+     * 读取最近一次成功构建的完成时间（毫秒），从未成功构建或无法解析时返回 0。
+     * 与清单不同，该时间在后续构建开始时保留，构建失败后仍指向上一次成功的构建
+     */
+    public static long readLastBuiltAt(Path projectDir) {
+        Path file = projectDir.resolve(LAST_BUILT_AT_FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (Exception e) {
+            log.warn("读取最近构建时间失败，按未构建处理: {}, 错误: {}", file, e.getMessage());
+            return 0L;
+        }
+    }
+
+    private static JSONObject readManifest(Path projectDir) {
+        Path manifest = projectDir.resolve(MANIFEST_FILE_NAME);
+        if (!Files.isRegularFile(manifest)) {
+            return null;
+        }
+        try {
+            return JSONUtil.parseObj(Files.readString(manifest, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("读取构建清单失败，按未构建处理: {}, 错误: {}", manifest, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 构建成功后记录源码哈希
+     */
+    public static void record(Path projectDir, String sourceHash) {
+        long builtAt = System.currentTimeMillis();
+        JSONObject json = new JSONObject();
+        json.set("sourceHash", sourceHash);
+        json.set("builtAt", builtAt);
+        try {
+            Files.writeString(projectDir.resolve(MANIFEST_FILE_NAME), json.toString(), StandardCharsets.UTF_8);
+            Files.writeString(projectDir.resolve(LAST_BUILT_AT_FILE_NAME), String.valueOf(builtAt), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("写入构建清单失败，下次将重新构建: {}, 错误: {}", projectDir, e.getMessage());
+        }
+    }
+
+    /**
+     * 构建开始前作废清单：构建中途失败时 dist 可能已被清空，不能再被复用；最近成功构建时间保留
+     */
+    public static void invalidate(Path projectDir) {
+        try {
+            Files.deleteIfExists(projectDir.resolve(MANIFEST_FILE_NAME));
+        } catch (IOException e) {
+            log.warn("删除构建清单失败: {}, 错误: {}", projectDir, e.getMessage());
+        }
+    }
+
+    private static boolean isExcludedRootEntry(Path projectDir, Path path) {
+        return projectDir.equals(path.getParent()) && EXCLUDED_ROOT_ENTRIES.contains(path.getFileName().toString());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodecommon.trace.TracedVirtualThread;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 项目构建调度器。
+ *
+ * 工作流构建检查、部署、上传导入与异步构建都经由这里执行构建：
+ * <ul>
+ *   <li>同一项目目录同一时间只有一个构建在执行，避免并发写 dist</li>
+ *   <li>同一项目尚未开始的构建请求合并为一次构建，共享同一个结果；
+ *       构建进行中到达的请求排在其后重新构建一次（源码可能已在构建开始后变化）</li>
+ *   <li>全局并发构建数受 codegen.build.max-concurrent-builds 限制，超出的构建排队等待</li>
+ * </ul>
+ * 导出排队数、执行中数量、排队等待时长与合并次数指标。
+ * 构建前的语法预检查只读源码，不经由这里调度，见 {@link ProjectPrechecker}。
+ *
+ * @author dango
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectBuildScheduler {
+
+    private final ProjectBuildSettings projectBuildSettings;
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    /**
+     * 按项目目录记录当前构建与排在其后的构建
+     */
+    private final Map<String, ProjectSlot> slots = new HashMap<>();
+    private int queued;
+    private int running;
+
+    private Semaphore permits;
+    private Timer waitTimer;
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, projectBuildSettings.getMaxConcurrentBuilds()), true);
+        Gauge.builder("codegen_build_queue_depth", this, scheduler -> scheduler.snapshotQueued())
+                .description("等待执行的项目构建数")
+                .register(meterRegistry);
+        Gauge.builder("codegen_build_running", this, scheduler -> scheduler.snapshotRunning())
+                .description("正在执行的项目构建数")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("codegen_build_wait_seconds")
+                .description("项目构建从提交到开始执行的等待时长")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("codegen_build_coalesced_total")
+                .description("与同一项目的待执行构建合并的请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交项目构建
+     *
+     * @param projectPath 项目根目录，作为合并与互斥的键
+     * @param build       实际执行构建的逻辑
+     * @return 构建结果；与其他请求合并时返回同一个 future
+     */
+    public CompletableFuture<VueProjectBuilder.BuildResult> submit(String projectPath,
+                                                                   Supplier<VueProjectBuilder.BuildResult> build) {
+        String key = Path.of(projectPath).toAbsolutePath().normalize().toString();
+        BuildJob job;
+        synchronized (lock) {
+            ProjectSlot slot = slots.computeIfAbsent(key, k -> new ProjectSlot());
+            BuildJob waiting = slot.pending != null ? slot.pending
+                    : slot.current != null && !slot.current.started ? slot.current : null;
+            if (waiting != null) {
+                coalescedCounter.increment();
+                log.info("项目已有待执行的构建，合并请求: {}", key);
+                return waiting.future;
+            }
+            // 在提交线程上捕获 trace 上下文，构建日志仍归属原请求
+            job = new BuildJob(key, TracedVirtualThread.wrapSupplier(build));
+            queued++;
+            if (slot.current != null) {
+                slot.pending = job;
+                log.info("项目正在构建，本次请求排在其后: {}", key);
+                return job.future;
+            }
+            slot.current = job;
+        }
+        start(job);
+        return job.future;
+    }
+
+    private void start(BuildJob job) {
+        Thread.ofVirtual().name("project-build").start(() -> run(job));
+    }
+
+    private void run(BuildJob job) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, false);
+            job.future.completeExceptionally(e);
+            return;
+        }
+        try {
+            synchronized (lock) {
+                job.started = true;
+                queued--;
+                running++;
+            }
+            waitTimer.record(System.nanoTime() - job.submittedNanos, TimeUnit.NANOSECONDS);
+            job.future.complete(job.build.get());
+        } catch (Throwable e) {
+            log.error("项目构建异常: {}, 错误: {}", job.key, e.getMessage(), e);
+            job.future.completeExceptionally(e);
+        } finally {
+            permits.release();
+            finish(job, true);
+        }
+    }
+
+    /**
+     * 当前构建结束后启动排在其后的构建
+     */
+    private void finish(BuildJob job, boolean started) {
+        BuildJob next;
+        synchronized (lock) {
+            if (started) {
+                running--;
+            } else {
+                queued--;
+            }
+            ProjectSlot slot = slots.get(job.key);
+            next = slot.pending;
+            slot.current = next;
+            slot.pending = null;
+            if (next == null) {
+                slots.remove(job.key);
+            }
+        }
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    private int snapshotQueued() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    private int snapshotRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * 单个项目的构建状态，字段在调度锁内访问
+     */
+    private static final class ProjectSlot {
+        private BuildJob current;
+        private BuildJob pending;
+    }
+
+    private static final class BuildJob {
+        private final String key;
+        private final Supplier<VueProjectBuilder.BuildResult> build;
+        private final CompletableFuture<VueProjectBuilder.BuildResult> future = new CompletableFuture<>();
+        private final long submittedNanos = System.nanoTime();
+        private boolean started;
+
+        private BuildJob(String key, Supplier<VueProjectBuilder.BuildResult> build) {
+            this.key = key;
+            this.build = build;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 项目构建设置。
+ * 构建调度、常驻构建进程、预检查与缓存目录只依赖这里的取值，由基础设施层的配置绑定实现。
+ *
+ * @author dango
+ */
+public interface ProjectBuildSettings {
+
+    int getMaxConcurrentBuilds();
+
+    Duration getMaxWait();
+
+    boolean isWorkerEnabled();
+
+    int getWorkerPoolSize();
+
+    int getWorkerMaxBuilds();
+
+    Duration getWorkerAcquireTimeout();
+
+    Duration getWorkerRetryBackoff();
+
+    boolean isPrecheckEnabled();
+
+    Duration getPrecheckTimeout();
+
+    boolean isCacheEnabled();
+
+    String getCacheRoot();
+
+    DataSize getCacheDiskBudget();
+}
@@ -0,0 +1,128 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 构建预检查。
+ * 完整的 npm run build 要打包整个项目，错误只能从 stderr 末尾截取；
+ * 这里先把自上次成功构建后改动过的源码交给常驻构建进程解析/转译，并检查相对导入是否存在，
+ * 毫秒级返回带文件与行列号的错误。预检查通过或不可用时仍执行完整构建。
+ * <p>
+ * 预检查不经过 {@link ProjectBuildScheduler}：它只读源码、不写 dist，与同项目的构建互不影响；
+ * 占用的常驻进程数受进程池大小限制，且只在 2 秒内能拿到空闲进程时执行，从不排在构建之后等待。
+ * 若经由调度器，会与同项目的待执行构建合并成一个结果，并占用一次完整构建的并发名额。
+ *
+ * @author dango
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectPrechecker {
+
+    private static final Set<String> CHECKED_EXTENSIONS = Set.of(".vue", ".js", ".jsx", ".ts", ".tsx", ".mjs");
+
+    /**
+     * 单次预检查的文件数上限，超出时只检查最近改动的文件
+     */
+    static final int MAX_CHECKED_FILES = 200;
+
+    private final ProjectBuildSettings projectBuildSettings;
+    private final ViteBuildWorkerPool viteBuildWorkerPool;
+
+    /**
+     * 预检查项目改动过的源码
+     *
+     * @param projectPath 项目根目录
+     * @return 预检查结果；无依赖、无改动或常驻构建进程不可用时返回未检查的结果
+     */
+    public ProjectPrecheckResult precheck(String projectPath) {
+        File projectDir = new File(projectPath);
+        if (!projectBuildSettings.isPrecheckEnabled() || !new File(projectDir, "node_modules").exists()) {
+            return ProjectPrecheckResult.skipped();
+        }
+        Path projectRoot = projectDir.toPath();
+        List<String> files;
+        try {
+            files = collectChangedFiles(projectRoot, BuildManifest.readLastBuiltAt(projectRoot));
+        } catch (IOException e) {
+            log.warn("收集预检查文件失败，跳过预检查: {}, 错误: {}", projectPath, e.getMessage());
+            return ProjectPrecheckResult.skipped();
+        }
+        if (files.isEmpty()) {
+            return ProjectPrecheckResult.skipped();
+        }
+
+        long start = System.currentTimeMillis();
+        List<String> errors = viteBuildWorkerPool.precheck(projectDir, files, projectBuildSettings.getPrecheckTimeout());
+        if (errors == null) {
+            return ProjectPrecheckResult.skipped();
+        }
+        log.info("预检查完成: {} 个文件, {} 个错误, 耗时 {}ms", files.size(), errors.size(),
+                System.currentTimeMillis() - start);
+        return new ProjectPrecheckResult(true, files.size(), errors);
+    }
+
+    /**
+     * 收集 src 下修改时间不早于 since 的源码文件（相对路径，/ 分隔），超出上限时保留最近改动的
+     */
+    static List<String> collectChangedFiles(Path projectDir, long since) throws IOException {
+        Path srcDir = projectDir.resolve("src");
+        if (!Files.isDirectory(srcDir)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(srcDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return "node_modules".equals(dir.getFileName().toString())
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && isCheckedFile(file)
+                        && attrs.lastModifiedTime().toMillis() >= since) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (files.size() > MAX_CHECKED_FILES) {
+            files.sort(Comparator.comparingLong(ProjectPrechecker::lastModified).reversed());
+            files.subList(MAX_CHECKED_FILES, files.size()).clear();
+        }
+        return files.stream()
+                .map(file -> projectDir.relativize(file).toString().replace('\\', '/'))
+                .sorted()
+                .toList();
+    }
+
+    private static boolean isCheckedFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && CHECKED_EXTENSIONS.contains(name.substring(dot));
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
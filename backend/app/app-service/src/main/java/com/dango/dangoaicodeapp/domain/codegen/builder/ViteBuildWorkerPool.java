@@ -0,0 +1,433 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 常驻 Vite 构建进程池。
+ * 每次 npm run build 都要重新付出 npm CLI、Node 启动与 Vite 配置/插件加载的开销，
+ * 这里保留若干个常驻 Node 进程，通过 stdin/stdout 逐个接收构建任务并在进程内调用 Vite build API。
+ * 进程崩溃或超时只影响当前构建，进程执行一定次数后回收重建；任何不可用的情况都返回 null，由调用方回退到 npm run build。
+ *
+ * @author dango
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViteBuildWorkerPool {
+
+    private static final String WORKER_SCRIPT = "build-worker/vite-build-worker.mjs";
+    private static final String RESULT_PREFIX = "@@BUILD_RESULT@@ ";
+    private static final String EOF_MARKER = "@@EOF@@";
+    private static final String PLAIN_VITE_BUILD = "vite build";
+    private static final int MAX_OUTPUT_CHARS = 64 * 1024;
+    /**
+     * 预检查只在能很快拿到进程时执行，不为它等待正在进行的构建
+     */
+    private static final Duration PRECHECK_ACQUIRE_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ProjectBuildSettings projectBuildSettings;
+
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final Set<Worker> allWorkers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    private volatile Path workerScript;
+    private volatile long unavailableUntil;
+
+    /**
+     * 使用常驻进程构建项目
+     *
+     * @param projectDir     项目目录（需已安装依赖）
+     * @param timeoutSeconds 构建超时（秒）
+     * @param cacheDir       应用独立的 Vite 缓存目录，为空时使用项目配置
+     * @return 构建结果；进程池不可用或项目不适用时返回 null
+     */
+    public VueProjectBuilder.BuildResult build(File projectDir, int timeoutSeconds, Path cacheDir) {
+        if (!projectBuildSettings.isWorkerEnabled() || System.currentTimeMillis() < unavailableUntil
+                || !usesPlainViteBuild(projectDir)) {
+            return null;
+        }
+        Worker worker = acquire(projectBuildSettings.getWorkerAcquireTimeout());
+        if (worker == null) {
+            return null;
+        }
+        boolean reusable = false;
+        try {
+            String jobId = IdUtil.fastSimpleUUID();
+            worker.startJob();
+            worker.send(new JSONObject()
+                    .set("id", jobId)
+                    .set("projectDir", projectDir.getAbsolutePath())
+                    .set("cacheDir", cacheDir != null ? cacheDir.toString() : null)
+                    .toString());
+
+            String line = worker.awaitResult(timeoutSeconds);
+            if (line == null) {
+                // 超时的构建可能仍在占用进程，直接销毁，不影响其他构建
+                log.error("常驻构建超时（{}秒），销毁构建进程: {}", timeoutSeconds, projectDir);
+                return VueProjectBuilder.BuildResult.failure("命令执行超时（" + timeoutSeconds + "秒）",
+                        "命令执行超时: vite build");
+            }
+            if (EOF_MARKER.equals(line)) {
+                log.warn("构建进程意外退出，改用 npm run build: {}", projectDir);
+                if (worker.builds == 0) {
+                    // 新进程第一次构建就退出，多半是 node 不可用，暂停使用一段时间
+                    unavailableUntil = System.currentTimeMillis() + projectBuildSettings.getWorkerRetryBackoff().toMillis();
+                }
+                return null;
+            }
+            JSONObject result = JSONUtil.parseObj(line);
+            if (!jobId.equals(result.getStr("id"))) {
+                log.warn("构建进程返回的任务 ID 不匹配，改用 npm run build: {}", projectDir);
+                return null;
+            }
+            reusable = true;
+            if (result.getBool("success", false)) {
+                VueProjectBuilder.BuildResult success = VueProjectBuilder.BuildResult.success();
+                success.setStdout(worker.output());
+                return success;
+            }
+            if ("worker".equals(result.getStr("kind"))) {
+                log.warn("常驻构建进程无法处理该项目，改用 npm run build: {}, 原因: {}",
+                        projectDir, result.getStr("error"));
+                return null;
+            }
+            String stderr = worker.output() + result.getStr("error", "");
+            log.error("常驻构建失败: {}", projectDir);
+            return VueProjectBuilder.BuildResult.failure(stderr, VueProjectBuilder.extractErrorSummary(stderr));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return VueProjectBuilder.BuildResult.failure("构建被中断", "构建被中断");
+        } catch (Exception e) {
+            log.warn("常驻构建异常，改用 npm run build: {}, 错误: {}", projectDir, e.getMessage());
+            return null;
+        } finally {
+            release(worker, reusable, true);
+        }
+    }
+
+    /**
+     * 使用常驻进程对给定文件做语法预检查：只解析/转译文件并检查相对导入，不打包
+     *
+     * @param projectDir 项目目录（需已安装依赖）
+     * @param files      相对项目目录的文件路径
+     * @param timeout    预检查超时
+     * @return 结构化错误，为空表示通过；进程池不可用、超时或项目不适用时返回 null
+     */
+    public List<String> precheck(File projectDir, List<String> files, Duration timeout) {
+        if (!projectBuildSettings.isWorkerEnabled() || System.currentTimeMillis() < unavailableUntil) {
+            return null;
+        }
+        Worker worker = acquire(PRECHECK_ACQUIRE_TIMEOUT);
+        if (worker == null) {
+            return null;
+        }
+        boolean reusable = false;
+        try {
+            String jobId = IdUtil.fastSimpleUUID();
+            worker.startJob();
+            worker.send(new JSONObject()
+                    .set("id", jobId)
+                    .set("type", "check")
+                    .set("projectDir", projectDir.getAbsolutePath())
+                    .set("files", files)
+                    .toString());
+
+            String line = worker.awaitResult((int) Math.max(1, timeout.toSeconds()));
+            if (line == null || EOF_MARKER.equals(line)) {
+                log.warn("预检查{}，跳过预检查: {}", line == null ? "超时" : "进程意外退出", projectDir);
+                return null;
+            }
+            JSONObject result = JSONUtil.parseObj(line);
+            if (!jobId.equals(result.getStr("id"))) {
+                log.warn("构建进程返回的任务 ID 不匹配，跳过预检查: {}", projectDir);
+                return null;
+            }
+            reusable = true;
+            if (!"check".equals(result.getStr("kind"))) {
+                log.warn("构建进程无法执行预检查: {}, 原因: {}", projectDir, result.getStr("error"));
+                return null;
+            }
+            List<String> errors = new ArrayList<>();
+            JSONArray items = result.getJSONArray("errors");
+            for (int i = 0; items != null && i < items.size(); i++) {
+                errors.add(formatCheckError(items.getJSONObject(i)));
+            }
+            return errors;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.warn("预检查异常，跳过预检查: {}, 错误: {}", projectDir, e.getMessage());
+            return null;
+        } finally {
+            // 预检查只解析少量文件，不计入进程的构建次数
+            release(worker, reusable, false);
+        }
+    }
+
+    /**
+     * 格式化为 “文件:行:列 错误信息”，有源码片段时附在下一行
+     */
+    static String formatCheckError(JSONObject error) {
+        StringBuilder text = new StringBuilder(error.getStr("file", ""));
+        Integer line = error.getInt("line");
+        if (line != null) {
+            text.append(':').append(line).append(':').append(error.getInt("column", 1));
+        }
+        text.append(' ').append(error.getStr("message", ""));
+        String frame = error.getStr("frame");
+        if (frame != null && !frame.isBlank()) {
+            text.append('\n').append("  ").append(frame.strip());
+        }
+        return text.toString();
+    }
+
+    /**
+     * 只有 build 脚本就是 vite build 的项目才能在进程内等价执行
+     */
+    private boolean usesPlainViteBuild(File projectDir) {
+        try {
+            JSONObject packageJson = JSONUtil.parseObj(
+                    Files.readString(projectDir.toPath().resolve("package.json"), StandardCharsets.UTF_8));
+            JSONObject scripts = packageJson.getJSONObject("scripts");
+            return scripts != null && PLAIN_VITE_BUILD.equals(scripts.getStr("build", "").trim());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private Worker acquire(Duration acquireTimeout) {
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        try {
+            while (true) {
+                Worker worker = pollAlive();
+                if (worker != null) {
+                    return worker;
+                }
+                if (workerCount.incrementAndGet() <= projectBuildSettings.getWorkerPoolSize()) {
+                    return startWorker();
+                }
+                workerCount.decrementAndGet();
+
+                long remaining = deadline - System.nanoTime();
+                worker = remaining > 0 ? idleWorkers.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (worker == null) {
+                    log.info("等待空闲构建进程超时（{}）", acquireTimeout);
+                    return null;
+                }
+                if (worker.isAlive()) {
+                    return worker;
+                }
+                discard(worker);
+            }
+        } catch (IOException e) {
+            workerCount.decrementAndGet();
+            unavailableUntil = System.currentTimeMillis() + projectBuildSettings.getWorkerRetryBackoff().toMillis();
+            log.warn("启动常驻构建进程失败，{} 内改用 npm run build: {}",
+                    projectBuildSettings.getWorkerRetryBackoff(), e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private Worker pollAlive() {
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            if (worker.isAlive()) {
+                return worker;
+            }
+            discard(worker);
+        }
+        return null;
+    }
+
+    private void release(Worker worker, boolean reusable, boolean countAsBuild) {
+        if (countAsBuild) {
+            worker.builds++;
+        }
+        if (reusable && worker.isAlive() && worker.builds < projectBuildSettings.getWorkerMaxBuilds()) {
+            idleWorkers.offer(worker);
+            return;
+        }
+        if (reusable && worker.isAlive()) {
+            log.info("构建进程已执行 {} 次构建，回收重建", worker.builds);
+        }
+        discard(worker);
+    }
+
+    private void discard(Worker worker) {
+        if (allWorkers.remove(worker)) {
+            workerCount.decrementAndGet();
+        }
+        worker.destroy();
+    }
+
+    private Worker startWorker() throws IOException {
+        Worker worker = new Worker(new ProcessBuilder(
+                List.of("nice", "-n", "10", "node", resolveWorkerScript().toString())).start());
+        allWorkers.add(worker);
+        log.info("常驻构建进程已启动，当前进程数: {}", workerCount.get());
+        return worker;
+    }
+
+    /**
+     * 构建脚本打包在 classpath 中，首次使用时释放到临时目录
+     */
+    private Path resolveWorkerScript() throws IOException {
+        Path script = workerScript;
+        if (script != null && Files.isRegularFile(script)) {
+            return script;
+        }
+        synchronized (this) {
+            if (workerScript == null || !Files.isRegularFile(workerScript)) {
+                Path dir = Files.createTempDirectory("vite-build-worker");
+                Path target = dir.resolve("vite-build-worker.mjs");
+                try (InputStream in = new ClassPathResource(WORKER_SCRIPT).getInputStream()) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                workerScript = target;
+            }
+            return workerScript;
+        }
+    }
+
+    /**
+     * 指定构建脚本，测试中替换为模拟构建进程
+     */
+    void setWorkerScript(Path workerScript) {
+        this.workerScript = workerScript;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        allWorkers.forEach(Worker::destroy);
+        allWorkers.clear();
+        idleWorkers.clear();
+    }
+
+    /**
+     * 单个常驻构建进程。stdout 中带前缀的行是构建结果，其余 stdout/stderr 输出作为当前构建的日志。
+     */
+    private static final class Worker {
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        private final StringBuffer output = new StringBuffer();
+        private int builds;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            Thread.ofVirtual().name("vite-worker-stdout").start(() -> pump(process.getInputStream(), true));
+            Thread.ofVirtual().name("vite-worker-stderr").start(() -> pump(process.getErrorStream(), false));
+        }
+
+        private void pump(InputStream in, boolean protocol) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (protocol && line.startsWith(RESULT_PREFIX)) {
+                        results.offer(line.substring(RESULT_PREFIX.length()));
+                    } else {
+                        appendOutput(line);
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("读取构建进程输出结束: {}", e.getMessage());
+            }
+            if (protocol) {
+                results.offer(EOF_MARKER);
+            }
+        }
+
+        private void appendOutput(String line) {
+            synchronized (output) {
+                output.append(line).append('\n');
+                if (output.length() > MAX_OUTPUT_CHARS) {
+                    output.delete(0, output.length() - MAX_OUTPUT_CHARS);
+                }
+            }
+        }
+
+        private void startJob() {
+            synchronized (output) {
+                output.setLength(0);
+            }
+            results.clear();
+        }
+
+        /**
+         * 等待构建结果；进程已退出且没有结果时返回 EOF 标记，超时返回 null
+         */
+        private String awaitResult(int timeoutSeconds) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                String line = results.poll(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+                if (line != null) {
+                    return line;
+                }
+                if (!process.isAlive()) {
+                    // 退出前输出的结果可能还在读取中，稍等输出读取线程
+                    line = results.poll(1, TimeUnit.SECONDS);
+                    return line != null ? line : EOF_MARKER;
+                }
+            }
+        }
+
+        private String output() {
+            synchronized (output) {
+                return output.toString();
+            }
+        }
+
+        private void send(String job) throws IOException {
+            stdin.write(job);
+            stdin.newLine();
+            stdin.flush();
+        }
+
+        private boolean isAlive() {
+            return process.isAlive();
+        }
+
+        private void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 应用级持久 Vite 缓存目录。
+ * 项目的 node_modules 是指向共享预构建目录的软链，Vite 默认的 node_modules/.vite 缓存会被所有应用共用；
+ * 这里为每个应用在代码输出目录之外分配独立的缓存目录，并按最近使用时间在磁盘预算内淘汰。
+ *
+ * @author dango
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViteCacheDirectories {
+
+    /**
+     * 模板 vite.config.js 读取该环境变量作为 cacheDir
+     */
+    public static final String CACHE_DIR_ENV = "CODEGEN_VITE_CACHE_DIR";
+
+    /**
+     * 最近使用时间标记文件，目录本身的修改时间会随缓存内容变化，不能代表使用时间
+     */
+    private static final String LAST_USED_MARKER = ".last-used";
+
+    /**
+     * 待删除目录的名称前缀。淘汰时先在锁内改名，再在锁外删除，改名后的目录不会再被任何构建使用
+     */
+    private static final String TOMBSTONE_PREFIX = ".evicting-";
+
+    private static final long EVICT_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private final ProjectBuildSettings projectBuildSettings;
+
+    private final Object lock = new Object();
+    /**
+     * 正在构建的缓存目录及其使用计数，淘汰时跳过；与淘汰时的改名在同一把锁内进行
+     */
+    private final Map<Path, Integer> inUse = new HashMap<>();
+
+    /**
+     * 取得项目的缓存目录并标记为使用中，构建结束后必须调用 release
+     *
+     * @return 缓存目录；未启用或创建失败时返回 null
+     */
+    public Path acquire(File projectDir) {
+        if (!projectBuildSettings.isCacheEnabled()) {
+            return null;
+        }
+        Path cacheDir = Path.of(projectBuildSettings.getCacheRoot(), projectDir.getName())
+                .toAbsolutePath().normalize();
+        synchronized (lock) {
+            inUse.merge(cacheDir, 1, Integer::sum);
+        }
+        try {
+            Files.createDirectories(cacheDir);
+            Path marker = cacheDir.resolve(LAST_USED_MARKER);
+            if (Files.notExists(marker)) {
+                Files.createFile(marker);
+            }
+            Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+            return cacheDir;
+        } catch (IOException e) {
+            release(cacheDir);
+            log.warn("创建 Vite 缓存目录失败，本次构建使用项目内缓存: {}, 错误: {}", cacheDir, e.getMessage());
+            return null;
+        }
+    }
+
+    public void release(Path cacheDir) {
+        if (cacheDir != null) {
+            synchronized (lock) {
+                inUse.computeIfPresent(cacheDir, (dir, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * 总占用超过磁盘预算时，从最久未使用的应用缓存开始删除，直到回到预算以内
+     */
+    @Scheduled(fixedDelay = EVICT_INTERVAL_MILLIS, initialDelay = EVICT_INTERVAL_MILLIS)
+    public void evictOverBudget() {
+        Path root = Path.of(projectBuildSettings.getCacheRoot());
+        if (!projectBuildSettings.isCacheEnabled() || !Files.isDirectory(root)) {
+            return;
+        }
+        List<CacheEntry> entries = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                if (dir.getFileName().toString().startsWith(TOMBSTONE_PREFIX)) {
+                    // 上次淘汰未删完的目录
+                    deleteDirectory(dir);
+                    continue;
+                }
+                entries.add(new CacheEntry(dir.toAbsolutePath().normalize(), lastUsed(dir), sizeOf(dir)));
+            }
+        } catch (IOException e) {
+            log.warn("扫描 Vite 缓存目录失败: {}, 错误: {}", root, e.getMessage());
+            return;
+        }
+
+        long budget = projectBuildSettings.getCacheDiskBudget().toBytes();
+        long total = entries.stream().mapToLong(CacheEntry::size).sum();
+        if (total <= budget) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(CacheEntry::lastUsed));
+        int evicted = 0;
+        for (CacheEntry entry : entries) {
+            if (total <= budget) {
+                break;
+            }
+            Path tombstone = retire(entry.dir());
+            if (tombstone == null) {
+                continue;
+            }
+            total -= entry.size();
+            evicted++;
+            deleteDirectory(tombstone);
+        }
+        log.info("Vite 缓存超出磁盘预算，淘汰 {} 个应用缓存，当前占用 {} MB", evicted, total / (1024 * 1024));
+    }
+
+    /**
+     * 目录未在使用时改名为待删除目录；此后 acquire 会重新创建一个空的缓存目录，不会拿到正在删除的目录
+     *
+     * @return 改名后的目录；使用中或改名失败时返回 null
+     */
+    private Path retire(Path dir) {
+        synchronized (lock) {
+            if (inUse.containsKey(dir)) {
+                return null;
+            }
+            Path tombstone = dir.resolveSibling(TOMBSTONE_PREFIX + dir.getFileName() + "-" + UUID.randomUUID());
+            try {
+                return Files.move(dir, tombstone, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("淘汰 Vite 缓存目录失败: {}, 错误: {}", dir, e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    private static long lastUsed(Path dir) {
+        try {
+            Path marker = dir.resolve(LAST_USED_MARKER);
+            return Files.getLastModifiedTime(Files.exists(marker) ? marker : dir).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long sizeOf(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.mapToLong(path -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    return attrs.isRegularFile() ? attrs.size() : 0L;
+                } catch (IOException e) {
+                    return 0L;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteDirectory(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.debug("删除缓存文件失败: {}", path);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("删除 Vite 缓存目录失败: {}, 错误: {}", dir, e.getMessage());
+        }
+    }
+
+    private record CacheEntry(Path dir, long lastUsed, long size) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.dango.dangoaicodeapp.domain.codegen.builder;
 
 import cn.hutool.core.util.RuntimeUtil;
+import jakarta.annotation.Resource;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,7 +12,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author dango
@@ -24,6 +31,23 @@ public class VueProjectBuilder {
 
     private static final int ERROR_SUMMARY_MAX_LENGTH = 2000;
 
+    /**
+     * 构建超时 3 分钟
+     */
+    private static final int NPM_BUILD_TIMEOUT_SECONDS = 180;
+
+    @Resource
+    private ViteBuildWorkerPool viteBuildWorkerPool;
+
+    @Resource
+    private ViteCacheDirectories viteCacheDirectories;
+
+    @Resource
+    private ProjectBuildScheduler projectBuildScheduler;
+
+    @Resource
+    private ProjectBuildSettings projectBuildSettings;
+
     /**
      * 构建结果，包含 stdout/stderr 和错误摘要
      */
@@ -35,13 +59,21 @@ public class VueProjectBuilder {
         private String stdout;
         private String stderr;
         private String errorSummary;
+        /**
+         * 源码未变化，直接复用了上次构建的 dist
+         */
+        private boolean reused;
 
         public static BuildResult success() {
-            return new BuildResult(true, "", "", "");
+            return new BuildResult(true, "", "", "", false);
+        }
+
+        public static BuildResult reusedDist() {
+            return new BuildResult(true, "", "", "", true);
         }
 
         public static BuildResult failure(String stderr, String errorSummary) {
-            return new BuildResult(false, "", stderr, errorSummary);
+            return new BuildResult(false, "", stderr, errorSummary, false);
         }
     }
 
@@ -54,10 +86,20 @@ public class VueProjectBuilder {
      * @return 构建结果
      */
     private BuildResult executeCommand(File workingDir, String command, int timeoutSeconds) {
+        return executeCommand(workingDir, command, timeoutSeconds, Map.of());
+    }
+
+    /**
+     * 执行命令并捕获 stdout/stderr
+     *
+     * @param extraEnv 在当前进程环境变量基础上追加的环境变量
+     */
+    private BuildResult executeCommand(File workingDir, String command, int timeoutSeconds,
+                                       Map<String, String> extraEnv) {
         try {
             log.info("在目录 {} 中执行命令: {}", workingDir.getAbsolutePath(), command);
             Process process = RuntimeUtil.exec(
-                    null,
+                    toEnvp(extraEnv),
                     workingDir,
                     command.split("\\s+")
             );
@@ -127,7 +169,7 @@ public class VueProjectBuilder {
     /**
      * 从 stderr 中提取错误摘要（取最后 2000 个字符，Vite 错误信息通常在末尾）
      */
-    private String extractErrorSummary(String stderr) {
+    static String extractErrorSummary(String stderr) {
         if (stderr == null || stderr.isBlank()) {
             return "未知错误";
         }
@@ -149,17 +191,64 @@ public class VueProjectBuilder {
      * 执行 npm run build 命令
      */
     private BuildResult executeNpmBuild(File projectDir) {
-        log.info("执行 npm run build...");
-        return executeCommand(projectDir, "nice -n 10 npm run build", 180); // 3分钟超时，nice降低CPU优先级
+        // 每个应用使用独立的持久缓存目录，修复/修改后的重复构建可复用上次的缓存
+        Path cacheDir = viteCacheDirectories.acquire(projectDir);
+        try {
+            // 优先交给常驻构建进程，省去每次拉起 npm/Node 与加载 Vite 配置的开销
+            BuildResult workerResult = viteBuildWorkerPool.build(projectDir, NPM_BUILD_TIMEOUT_SECONDS, cacheDir);
+            if (workerResult != null) {
+                return workerResult;
+            }
+            log.info("执行 npm run build...");
+            Map<String, String> env = cacheDir != null
+                    ? Map.of(ViteCacheDirectories.CACHE_DIR_ENV, cacheDir.toString())
+                    : Map.of();
+            return executeCommand(projectDir, "nice -n 10 npm run build", NPM_BUILD_TIMEOUT_SECONDS, env); // nice降低CPU优先级
+        } finally {
+            viteCacheDirectories.release(cacheDir);
+        }
+    }
+
+    /**
+     * 追加环境变量时需要带上当前进程的全部环境变量，否则子进程会丢失 PATH 等配置；无追加时返回 null 直接继承
+     */
+    private static String[] toEnvp(Map<String, String> extraEnv) {
+        if (extraEnv.isEmpty()) {
+            return null;
+        }
+        Map<String, String> env = new HashMap<>(System.getenv());
+        env.putAll(extraEnv);
+        return env.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
     }
 
     /**
-     * 构建 Vue 项目并返回详细结果
+     * 构建 Vue 项目并返回详细结果。
+     * 经由构建调度器执行：同一项目的并发请求合并为一次构建，全局并发构建数受限。
+     * 最多等待 codegen.build.max-wait，超时返回失败结果；构建 future 可能与其他请求共享，不取消。
      *
      * @param projectPath 项目根目录路径
      * @return 构建结果（包含 stdout/stderr/errorSummary）
      */
     public BuildResult buildProjectWithResult(String projectPath) {
+        Duration maxWait = projectBuildSettings.getMaxWait();
+        try {
+            return projectBuildScheduler.submit(projectPath, () -> doBuildProject(projectPath))
+                    .get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.error("等待构建结果超时（{}）: {}", maxWait, projectPath);
+            return BuildResult.failure("", "等待构建结果超时（" + maxWait.toSeconds() + "秒）");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BuildResult.failure("", "构建被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return BuildResult.failure(String.valueOf(cause.getMessage()), "构建异常: " + cause.getMessage());
+        }
+    }
+
+    private BuildResult doBuildProject(String projectPath) {
         File projectDir = new File(projectPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) {
             log.error("项目目录不存在: {}", projectPath);
@@ -171,6 +260,17 @@ public class VueProjectBuilder {
             log.error("package.json 文件不存在: {}", packageJson.getAbsolutePath());
             return BuildResult.failure("", "package.json 文件不存在");
         }
+
+        // 源码哈希与上次成功构建一致且 dist 仍在时，跳过 npm run build
+        Path projectRoot = projectDir.toPath();
+        String sourceHash = computeSourceHash(projectRoot);
+        File distDir = new File(projectDir, "dist");
+        if (sourceHash != null && distDir.isDirectory()
+                && sourceHash.equals(BuildManifest.readRecordedHash(projectRoot))) {
+            log.info("源码未变化，复用上次构建产物: {}", distDir.getAbsolutePath());
+            return BuildResult.reusedDist();
+        }
+        BuildManifest.invalidate(projectRoot);
         log.info("开始构建 Vue 项目: {}", projectPath);
 
         // 检测 node_modules 是否已存在（可能通过 symlink 预构建）
@@ -196,16 +296,30 @@ public class VueProjectBuilder {
         }
 
         // 验证 dist 目录是否生成
-        File distDir = new File(projectDir, "dist");
         if (!distDir.exists()) {
             log.error("构建完成但 dist 目录未生成: {}", distDir.getAbsolutePath());
             return BuildResult.failure("", "构建完成但 dist 目录未生成");
         }
 
+        if (sourceHash != null) {
+            BuildManifest.record(projectRoot, sourceHash);
+        }
         log.info("Vue 项目构建成功，dist 目录: {}", distDir.getAbsolutePath());
         return BuildResult.success();
     }
 
+    /**
+     * 计算源码哈希，失败时返回 null（本次照常构建且不记录清单）
+     */
+    private String computeSourceHash(Path projectRoot) {
+        try {
+            return BuildManifest.computeSourceHash(projectRoot);
+        } catch (Exception e) {
+            log.warn("计算源码哈希失败，将执行完整构建: {}, 错误: {}", projectRoot, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 构建 Vue 项目
      *
@@ -222,14 +336,8 @@ public class VueProjectBuilder {
      * @param projectPath 项目路径
      */
     public void buildProjectAsync(String projectPath) {
-        // 在单独的线程中执行构建，避免阻塞主流程
-        Thread.ofVirtual().name("vue-builder-" + System.currentTimeMillis()).start(() -> {
-            try {
-                buildProject(projectPath);
-            } catch (Exception e) {
-                log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage(), e);
-            }
-        });
+        // 交给构建调度器执行，不阻塞主流程；构建异常由调度器记录
+        projectBuildScheduler.submit(projectPath, () -> doBuildProject(projectPath));
     }
 
 }
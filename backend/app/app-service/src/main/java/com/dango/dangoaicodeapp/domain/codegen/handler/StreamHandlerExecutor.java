@@ -1,6 +1,7 @@
 package com.dango.dangoaicodeapp.domain.codegen.handler;
 
-
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -20,7 +21,7 @@ public class StreamHandlerExecutor {
     /**
      * 处理流式消息（不保存到 chatHistory，由调用方自行保存）
      */
-    public Flux<String> doExecute(Flux<String> originFlux) {
+    public Flux<GenerationStreamChunk> doExecute(Flux<StreamMessage> originFlux) {
         return jsonMessageStreamHandler.handleWithoutSave(originFlux);
     }
 }
@@ -0,0 +1,89 @@
+package com.dango.dangoaicodeapp.domain.codegen.model;
+
+import java.time.Duration;
+
+/**
+ * 生成中 AI 回复的落库窗口。
+ *
+ * 只缓存“上次落库之后”产出的内容，达到字符阈值或时间间隔后由调用方取出分段落库，
+ * 使单个生成会话的堆内存占用与窗口大小相关，而不是与整段回复长度相关。
+ * 由单个订阅链路串行访问，不做并发控制。
+ */
+public class GenerationReplyBuffer {
+
+    private final StringBuilder pending = new StringBuilder();
+    private final int checkpointChars;
+    private final long checkpointIntervalMillis;
+    private long lastCheckpointAt;
+    private long persistedChars;
+    /**
+     * 窗口中是否有非空白内容，追加时更新，避免判断时复制整个窗口
+     */
+    private boolean pendingHasText;
+
+    /**
+     * @param checkpointChars    窗口字符数上限，达到后应落库
+     * @param checkpointInterval 两次落库的最长间隔，为 null 时只按字符数落库
+     */
+    public GenerationReplyBuffer(int checkpointChars, Duration checkpointInterval) {
+        this.checkpointChars = checkpointChars;
+        this.checkpointIntervalMillis = checkpointInterval == null ? Long.MAX_VALUE : checkpointInterval.toMillis();
+        this.lastCheckpointAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 不分段落库的窗口：所有内容留到会话收口时一次写入。
+     */
+    public static GenerationReplyBuffer unbounded() {
+        return new GenerationReplyBuffer(Integer.MAX_VALUE, null);
+    }
+
+    public void append(String content) {
+        if (content != null) {
+            pending.append(content);
+            pendingHasText = pendingHasText || !content.isBlank();
+        }
+    }
+
+    /**
+     * 窗口是否已到落库时机。
+     */
+    public boolean isCheckpointDue() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        return pending.length() >= checkpointChars
+                || System.currentTimeMillis() - lastCheckpointAt >= checkpointIntervalMillis;
+    }
+
+    /**
+     * 当前窗口中尚未落库的内容。
+     */
+    public String pendingContent() {
+        return pending.toString();
+    }
+
+    /**
+     * 窗口内容落库成功后调用，清空窗口并重新计时。
+     */
+    public void checkpointed() {
+        persistedChars += pending.length();
+        pending.setLength(0);
+        pendingHasText = false;
+        lastCheckpointAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 落库失败时保留窗口内容，推迟到下一个间隔再重试，避免每个分片都重复打库。
+     */
+    public void postponeCheckpoint() {
+        lastCheckpointAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 本次会话是否产出过有效内容（含已落库部分）。
+     */
+    public boolean hasContent() {
+        return persistedChars > 0 || pendingHasText;
+    }
+}
@@ -2,6 +2,8 @@ package com.dango.dangoaicodeapp.domain.codegen.model;
 
 /**
  * 项目构建结果。
+ *
+ * @param reused 源码未变化，直接复用了上次构建的产物
  */
-public record ProjectBuildResult(boolean success, String errorSummary, String stderr) {
+public record ProjectBuildResult(boolean success, String errorSummary, String stderr, boolean reused) {
 }
@@ -0,0 +1,21 @@
+package com.dango.dangoaicodeapp.domain.codegen.model;
+
+import java.util.List;
+
+/**
+ * 项目构建预检查结果。
+ *
+ * @param checked   是否实际执行了预检查（常驻构建进程不可用、无依赖或无改动文件时为 false）
+ * @param fileCount 检查的文件数
+ * @param errors    结构化错误，每条形如 “文件:行:列 错误信息”
+ */
+public record ProjectPrecheckResult(boolean checked, int fileCount, List<String> errors) {
+
+    public static ProjectPrecheckResult skipped() {
+        return new ProjectPrecheckResult(false, 0, List.of());
+    }
+
+    public boolean passed() {
+        return errors.isEmpty();
+    }
+}
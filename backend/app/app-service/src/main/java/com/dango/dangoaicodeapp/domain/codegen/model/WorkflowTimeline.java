@@ -0,0 +1,49 @@
+package com.dango.dangoaicodeapp.domain.codegen.model;
+
+import java.util.List;
+
+/**
+ * 单次工作流执行的耗时时间线。
+ *
+ * 时间偏移均相对于请求提交（进入准入队列）的时刻，单位毫秒；未结束的条目 durationMillis 为 null。
+ *
+ * @param executionId     执行 ID
+ * @param appId           应用 ID
+ * @param codeGenType     生成类型
+ * @param status          running / completed / failed / timeout / rejected / cancelled
+ * @param submittedAt     提交时间（epoch 毫秒）
+ * @param queueWaitMillis 准入队列等待时长，未开始执行时为 null
+ * @param totalMillis     总耗时，未结束时为截至当前的耗时
+ * @param buildMillis     构建检查节点累计耗时
+ * @param toolCalls       工具调用次数
+ * @param entries         节点、首个内容帧与工具调用条目，按开始时间排序
+ */
+public record WorkflowTimeline(
+        String executionId,
+        Long appId,
+        String codeGenType,
+        String status,
+        long submittedAt,
+        Long queueWaitMillis,
+        long totalMillis,
+        long buildMillis,
+        int toolCalls,
+        List<Entry> entries
+) {
+
+    public static final String KIND_NODE = "node";
+    public static final String KIND_FIRST_TOKEN = "first_token";
+    public static final String KIND_TOOL = "tool";
+
+    /**
+     * 时间线条目。
+     *
+     * @param kind              node / first_token / tool
+     * @param name              节点 ID 或工具名；首个内容帧条目为其所属节点 ID
+     * @param startOffsetMillis 开始时间偏移
+     * @param durationMillis    耗时；首个内容帧条目为节点开始到首个内容帧的延迟
+     * @param outcome           节点结果 success / error，其他条目为 null
+     */
+    public record Entry(String kind, String name, long startOffsetMillis, Long durationMillis, String outcome) {
+    }
+}
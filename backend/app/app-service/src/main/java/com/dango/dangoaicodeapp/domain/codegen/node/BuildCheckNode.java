@@ -2,7 +2,9 @@ package com.dango.dangoaicodeapp.domain.codegen.node;
 
 import cn.hutool.core.util.StrUtil;
 import com.dango.aicodegenerate.model.QualityResult;
+import com.dango.dangoaicodeapp.domain.codegen.builder.BuildErrorFingerprint;
 import com.dango.dangoaicodeapp.domain.codegen.model.ProjectBuildResult;
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectBuildPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
@@ -38,39 +40,52 @@ public class BuildCheckNode {
             workflowMessagePort.emitNodeStart(context.getWorkflowExecutionId(), NODE_NAME);
 
             String generatedCodeDir = context.getGeneratedCodeDir();
-            workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "执行 npm install + npm run build...\n");
 
             QualityResult qualityResult;
 
             try {
-                ProjectBuildResult buildResult = projectBuildPort.buildProject(generatedCodeDir);
-
-                if (buildResult.success()) {
-                    qualityResult = QualityResult.builder()
-                            .isValid(true)
-                            .build();
-
-                    String buildResultDir = generatedCodeDir + File.separator + "dist";
-                    context.setBuildResultDir(buildResultDir);
-
-                    log.info("构建检查通过，dist 目录: {}", buildResultDir);
-                    workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "✅ 构建成功\n");
+                // 先对改动过的源码做快速预检查，发现错误时直接交给修复节点，不再执行完整构建
+                ProjectPrecheckResult precheck = projectBuildPort.precheckProject(generatedCodeDir);
+                if (!precheck.passed()) {
+                    qualityResult = precheckFailure(context, precheck, generatedCodeDir);
                 } else {
-                    String errorSummary = buildResult.errorSummary();
-                    String stderr = buildResult.stderr();
-
-                    List<String> errors = List.of(errorSummary);
-                    List<String> suggestions = StrUtil.isNotBlank(stderr) ? List.of(stderr) : List.of();
-
-                    qualityResult = QualityResult.builder()
-                            .isValid(false)
-                            .errors(errors)
-                            .suggestions(suggestions)
-                            .build();
-
-                    log.warn("构建检查失败: {}", errorSummary);
-                    workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
-                            "❌ 构建失败: " + errorSummary + "\n");
+                    if (precheck.checked()) {
+                        workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
+                                "✅ 预检查通过（" + precheck.fileCount() + " 个文件）\n");
+                    }
+                    workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "执行 npm install + npm run build...\n");
+
+                    ProjectBuildResult buildResult = projectBuildPort.buildProject(generatedCodeDir);
+
+                    if (buildResult.success()) {
+                        qualityResult = QualityResult.builder()
+                                .isValid(true)
+                                .build();
+
+                        String buildResultDir = generatedCodeDir + File.separator + "dist";
+                        context.setBuildResultDir(buildResultDir);
+
+                        log.info("构建检查通过，dist 目录: {}", buildResultDir);
+                        workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
+                                buildResult.reused() ? "✅ 源码未变化，复用上次构建结果\n" : "✅ 构建成功\n");
+                    } else {
+                        String errorSummary = buildResult.errorSummary();
+                        String stderr = buildResult.stderr();
+
+                        List<String> errors = List.of(errorSummary);
+                        List<String> suggestions = StrUtil.isNotBlank(stderr) ? List.of(stderr) : List.of();
+
+                        qualityResult = QualityResult.builder()
+                                .isValid(false)
+                                .errors(errors)
+                                .suggestions(suggestions)
+                                .build();
+
+                        log.warn("构建检查失败: {}", errorSummary);
+                        workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
+                                "❌ 构建失败: " + errorSummary + "\n");
+                        recordErrorFingerprint(context, errorSummary, generatedCodeDir);
+                    }
                 }
             } catch (Exception e) {
                 String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
@@ -89,4 +104,37 @@ public class BuildCheckNode {
             return WorkflowContext.saveContext(context);
         });
     }
+
+    /**
+     * 预检查发现错误：每条结构化错误作为一项交给修复节点
+     */
+    private QualityResult precheckFailure(WorkflowContext context, ProjectPrecheckResult precheck,
+                                          String generatedCodeDir) {
+        List<String> errors = precheck.errors();
+        String errorSummary = String.join("\n", errors);
+        log.warn("构建预检查失败: {} 个错误", errors.size());
+        workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
+                "❌ 预检查发现 " + errors.size() + " 个错误，跳过完整构建:\n" + errorSummary + "\n");
+        recordErrorFingerprint(context, errorSummary, generatedCodeDir);
+        return QualityResult.builder()
+                .isValid(false)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * 记录错误指纹，同一错误重复出现时提示修复循环的后续处理
+     */
+    private void recordErrorFingerprint(WorkflowContext context, String errorSummary, String generatedCodeDir) {
+        context.recordBuildErrorFingerprint(BuildErrorFingerprint.of(errorSummary, generatedCodeDir));
+        int occurrences = context.latestBuildErrorOccurrences();
+        if (occurrences <= 1) {
+            return;
+        }
+        log.info("构建错误重复出现: 第 {} 次", occurrences);
+        String message = occurrences > WorkflowContext.MAX_SAME_BUILD_ERROR_COUNT
+                ? "⚠️ 同一构建错误反复出现，修复没有进展，停止自动修复\n"
+                : "⚠️ 与上次构建错误相同，将换一种思路修复\n";
+        workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, message);
+    }
 }
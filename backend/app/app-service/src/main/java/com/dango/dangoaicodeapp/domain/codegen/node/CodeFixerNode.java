@@ -2,10 +2,13 @@ package com.dango.dangoaicodeapp.domain.codegen.node;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.aicodegenerate.model.QualityResult;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.builder.BuildManifest;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeFixStreamPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,9 +17,8 @@ import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
@@ -28,6 +30,7 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
  * - 从 WorkflowContext 获取 BuildCheckNode 提取的构建错误信息
  * - 构建修复请求，调用 AI 服务进行代码修复
  * - 支持多次循环修复直到构建通过或达到最大重试次数
+ * - 同一构建错误重复出现时提示换一种修复思路；修复未写入任何改动时直接结束循环
  * - 禁止修改模板基础设施文件（package.json、vite.config.js、src/main.js、index.html）
  *
  * @author dango
@@ -37,9 +40,11 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @RequiredArgsConstructor
 public class CodeFixerNode {
 
+    private static final String NODE_ID = "code_fixer";
     private static final String NODE_NAME = "代码修复";
     private final CodeFixStreamPort codeFixStreamPort;
     private final WorkflowMessagePort workflowMessagePort;
+    private final WorkflowDeadlines workflowDeadlines;
 
     /**
      * 创建节点动作
@@ -77,6 +82,10 @@ public class CodeFixerNode {
                 return WorkflowContext.saveContext(context);
             }
 
+            // 修复前记录源码哈希，用于判断本次修复是否写入了改动
+            String sourceHashBeforeFix = computeSourceHash(context.getGeneratedCodeDir());
+            context.setLastFixUnchanged(false);
+
             try {
                 // 构建修复请求
                 String fixRequest = buildFixRequest(context);
@@ -93,38 +102,27 @@ public class CodeFixerNode {
                     context.setGenerationType(generationType);
                 }
 
-                Flux<String> fixStream = codeFixStreamPort.fixCodeStream(appId, generationType, fixRequest);
-                CountDownLatch latch = new CountDownLatch(1);
-                AtomicReference<Throwable> errorRef = new AtomicReference<>();
-
-                // 节点仅消费标准消息流，TokenStream 回调细节由端口适配层统一封装。
-                fixStream
-                        .doOnNext(chunk ->
-                                workflowMessagePort.emitRaw(context.getWorkflowExecutionId(), chunk))
-                        .doOnComplete(() -> {
-                            log.info("代码修复完成");
-                            latch.countDown();
-                        })
-                        .doOnError(error -> {
-                            log.error("代码修复失败: {}", error.getMessage(), error);
-                            errorRef.set(error);
-                            latch.countDown();
-                        })
-                        .subscribe();
-
-                // 等待流式生成完成
-                latch.await();
-
-                // 检查是否有错误
-                if (errorRef.get() != null) {
-                    throw new RuntimeException(errorRef.get());
+                Flux<StreamMessage> fixStream = codeFixStreamPort.fixCodeStream(appId, generationType, fixRequest);
+                // 节点仅消费标准消息流，TokenStream 回调细节由端口适配层统一封装；
+                // 在节点时限内等待流式修复完成，超时取消模型输出并按修复失败处理。
+                workflowDeadlines.awaitStream(context, NODE_ID, fixStream,
+                        chunk -> workflowMessagePort.emit(context.getWorkflowExecutionId(), chunk));
+                log.info("代码修复完成");
+
+                if (sourceHashBeforeFix != null
+                        && sourceHashBeforeFix.equals(computeSourceHash(context.getGeneratedCodeDir()))) {
+                    // 没有任何文件改动，重新构建只会得到同样的错误，保留当前质检结果并结束修复循环
+                    log.warn("本次修复未修改任何文件，结束修复循环");
+                    context.setLastFixUnchanged(true);
+                    workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
+                            "\n⚠️ 本次修复未修改任何文件，停止自动修复\n");
+                } else {
+                    workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "\n代码修复完成，准备重新质检\n");
+
+                    // 清除质量检查结果，准备重新检查
+                    context.setQualityResult(null);
                 }
 
-                workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "\n代码修复完成，准备重新质检\n");
-
-                // 清除质量检查结果，准备重新检查
-                context.setQualityResult(null);
-
             } catch (Exception e) {
                 log.error("代码修复失败: {}", e.getMessage(), e);
                 context.setErrorMessage("代码修复失败: " + e.getMessage());
@@ -174,6 +172,14 @@ public class CodeFixerNode {
         }
         request.append("\n");
 
+        // 同一错误再次出现：上次的修复思路无效，要求换一种方式
+        if (context.latestBuildErrorOccurrences() > 1) {
+            request.append("## 注意：上一次修复没有解决该错误\n")
+                   .append("同样的构建错误再次出现，说明之前的修复方式无效。")
+                   .append("请先用【文件读取工具】重新确认出错文件的当前内容，")
+                   .append("换一种修复方式（例如改写出错的代码片段、调整导入或移除有问题的写法），不要重复上一次的修改。\n\n");
+        }
+
         // 添加修复建议
         if (qualityResult != null && CollUtil.isNotEmpty(qualityResult.getSuggestions())) {
             request.append("## 修复建议\n");
@@ -296,6 +302,21 @@ public class CodeFixerNode {
                 """;
     }
 
+    /**
+     * 计算项目源码哈希，目录为空或计算失败时返回 null（按有改动处理）
+     */
+    private static String computeSourceHash(String generatedCodeDir) {
+        if (StrUtil.isBlank(generatedCodeDir)) {
+            return null;
+        }
+        try {
+            return BuildManifest.computeSourceHash(Path.of(generatedCodeDir));
+        } catch (Exception e) {
+            log.warn("计算源码哈希失败: {}, 错误: {}", generatedCodeDir, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 检查是否应该继续修复
      * 用于条件边判断
@@ -307,7 +328,10 @@ public class CodeFixerNode {
         // 检查质检结果
         QualityResult qualityResult = context.getQualityResult();
         if (qualityResult == null || !qualityResult.getIsValid()) {
-            // 质检未通过，检查重试次数
+            // 质检未通过：修复无进展（同一错误反复出现）时停止，否则检查重试次数
+            if (context.latestBuildErrorOccurrences() > WorkflowContext.MAX_SAME_BUILD_ERROR_COUNT) {
+                return false;
+            }
             return context.getFixRetryCount() < WorkflowContext.MAX_FIX_RETRY_COUNT;
         }
         // 质检通过，不需要继续修复
@@ -1,12 +1,14 @@
 package com.dango.dangoaicodeapp.domain.codegen.node;
 
 import cn.hutool.core.util.StrUtil;
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.aicodegenerate.model.QualityResult;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeGenerationStreamPort;
-import com.dango.dangoaicodeapp.domain.codegen.port.ProjectScaffoldPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectWorkspacePort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.ScaffoldPrefetcher;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,9 +18,6 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
-
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
 /**
@@ -29,13 +28,16 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @RequiredArgsConstructor
 public class CodeGeneratorNode {
 
+    private static final String NODE_ID = "code_generator";
     private static final String NODE_NAME = "代码生成";
 
     private final WorkflowMessagePort workflowMessagePort;
     private final CodeGenerationStreamPort codeGenerationStreamPort;
-    // 节点只依赖“脚手架准备”能力，不直接感知模板复制/软链等实现细节。
-    private final ProjectScaffoldPort projectScaffoldPort;
+    // 节点只依赖“脚手架就绪”能力，不直接感知模板复制/软链等实现细节；
+    // 模式路由阶段已提前开始准备时这里只等待其完成。
+    private final ScaffoldPrefetcher scaffoldPrefetcher;
     private final ProjectWorkspacePort projectWorkspacePort;
+    private final WorkflowDeadlines workflowDeadlines;
 
     public AsyncNodeAction<MessagesState<String>> action() {
         return node_async(state -> {
@@ -60,28 +62,15 @@ public class CodeGeneratorNode {
             }
 
             try {
-                projectScaffoldPort.scaffold(appId, generationType);
+                scaffoldPrefetcher.awaitReady(context.getWorkflowExecutionId(), appId, generationType);
                 workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "项目模板已就绪\n");
 
-                Flux<String> codeStream = codeGenerationStreamPort.generateAndSaveCodeStream(
+                Flux<StreamMessage> codeStream = codeGenerationStreamPort.generateAndSaveCodeStream(
                         userMessage, generationType, appId);
 
-                CountDownLatch latch = new CountDownLatch(1);
-                AtomicReference<Throwable> errorRef = new AtomicReference<>();
-
-                codeStream
-                        .subscribeOn(Schedulers.immediate())
-                        .doOnNext(chunk ->
-                                workflowMessagePort.emitRaw(context.getWorkflowExecutionId(), chunk))
-                        .doOnError(errorRef::set)
-                        .doFinally(signalType -> latch.countDown())
-                        .subscribe();
-
-                latch.await();
-
-                if (errorRef.get() != null) {
-                    throw new RuntimeException(errorRef.get());
-                }
+                // 超过节点时限时取消模型输出，按生成失败处理
+                workflowDeadlines.awaitStream(context, NODE_ID, codeStream.subscribeOn(Schedulers.immediate()),
+                        chunk -> workflowMessagePort.emit(context.getWorkflowExecutionId(), chunk));
 
                 String generatedCodeDir = projectWorkspacePort.buildGeneratedCodeDir(generationType, appId);
                 context.setGeneratedCodeDir(generatedCodeDir);
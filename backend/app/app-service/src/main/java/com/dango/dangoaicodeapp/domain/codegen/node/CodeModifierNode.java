@@ -1,11 +1,13 @@
 package com.dango.dangoaicodeapp.domain.codegen.node;
 
 import cn.hutool.core.util.StrUtil;
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.ElementInfo;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeModificationStreamPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectWorkspacePort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +17,6 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
@@ -39,11 +39,13 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @RequiredArgsConstructor
 public class CodeModifierNode {
 
+    private static final String NODE_ID = "code_modifier";
     private static final String NODE_NAME = "代码修改";
 
     private final WorkflowMessagePort workflowMessagePort;
     private final CodeModificationStreamPort codeModificationStreamPort;
     private final ProjectWorkspacePort projectWorkspacePort;
+    private final WorkflowDeadlines workflowDeadlines;
 
     /**
      * 创建节点动作
@@ -83,32 +85,12 @@ public class CodeModifierNode {
                     context.setGenerationType(generationType);
                 }
 
-                Flux<String> modifyStream = codeModificationStreamPort.modifyCodeStream(appId, generationType, modifyRequest);
-                CountDownLatch latch = new CountDownLatch(1);
-                AtomicReference<Throwable> errorRef = new AtomicReference<>();
-
-                // 统一消费端口暴露的标准消息流，节点不再处理 TokenStream 回调细节。
-                modifyStream
-                        .doOnNext(chunk ->
-                                workflowMessagePort.emitRaw(context.getWorkflowExecutionId(), chunk))
-                        .doOnComplete(() -> {
-                            log.info("代码修改完成");
-                            latch.countDown();
-                        })
-                        .doOnError(error -> {
-                            log.error("代码修改失败: {}", error.getMessage(), error);
-                            errorRef.set(error);
-                            latch.countDown();
-                        })
-                        .subscribe();
-
-                // 等待流式生成完成
-                latch.await();
-
-                // 检查是否有错误
-                if (errorRef.get() != null) {
-                    throw new RuntimeException(errorRef.get());
-                }
+                Flux<StreamMessage> modifyStream = codeModificationStreamPort.modifyCodeStream(appId, generationType, modifyRequest);
+                // 统一消费端口暴露的标准消息流，节点不再处理 TokenStream 回调细节；
+                // 在节点时限内等待流式修改完成，超时取消模型输出并按修改失败处理。
+                workflowDeadlines.awaitStream(context, NODE_ID, modifyStream,
+                        chunk -> workflowMessagePort.emit(context.getWorkflowExecutionId(), chunk));
+                log.info("代码修改完成");
 
                 // 构建生成的代码目录路径
                 String generatedCodeDir = projectWorkspacePort.buildGeneratedCodeDir(generationType, appId);
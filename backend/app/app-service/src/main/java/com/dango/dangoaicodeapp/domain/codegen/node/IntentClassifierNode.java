@@ -21,6 +21,11 @@ public class IntentClassifierNode {
 
     private static final String NODE_NAME = "意图识别";
 
+    /**
+     * 意图识别输入中保留的项目结构行数
+     */
+    private static final int MAX_CLASSIFY_STRUCTURE_LINES = 60;
+
     private final WorkflowMessagePort workflowMessagePort;
     private final IntentClassificationPort intentClassificationPort;
 
@@ -33,17 +38,25 @@ public class IntentClassifierNode {
             workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "正在分析用户意图...\n");
 
             String userInput = context.getOriginalPrompt();
-            String projectStructure = context.getProjectStructure();
+            // 判断意图只需要了解项目大致构成，完整清单留给后续的修改/问答节点
+            String projectStructure = compactStructure(context.getProjectStructure());
             String classifyInput = String.format(
                 "项目结构:\n%s\n\n用户输入:\n%s",
                 projectStructure != null ? projectStructure : "无",
                 userInput
             );
 
-            String intent = intentClassificationPort.classify(classifyInput).trim().toUpperCase();
-            if (!"MODIFY".equals(intent) && !"QA".equals(intent)) {
-                log.warn("意图识别结果异常: {}，默认为 MODIFY", intent);
-                intent = "MODIFY";
+            // 特征明确的输入由规则直接判定，其余交给模型（相同输入复用缓存结果）
+            String intent = IntentPrefilter.classify(userInput);
+            if (intent != null) {
+                log.info("意图由规则预判: {}", intent);
+            } else {
+                intent = intentClassificationPort.classify(context.getAppId(), userInput, classifyInput)
+                        .trim().toUpperCase();
+                if (!IntentPrefilter.INTENT_MODIFY.equals(intent) && !IntentPrefilter.INTENT_QA.equals(intent)) {
+                    log.warn("意图识别结果异常: {}，默认为 MODIFY", intent);
+                    intent = IntentPrefilter.INTENT_MODIFY;
+                }
             }
 
             context.setIntentType(intent);
@@ -57,6 +70,25 @@ public class IntentClassifierNode {
         });
     }
 
+    /**
+     * 截取项目文件清单的前若干条用于意图识别，其余只给出数量
+     */
+    public static String compactStructure(String projectStructure) {
+        if (projectStructure == null) {
+            return null;
+        }
+        String[] lines = projectStructure.split("\n");
+        if (lines.length <= MAX_CLASSIFY_STRUCTURE_LINES) {
+            return projectStructure;
+        }
+        StringBuilder compact = new StringBuilder();
+        for (int i = 0; i < MAX_CLASSIFY_STRUCTURE_LINES; i++) {
+            compact.append(lines[i]).append("\n");
+        }
+        compact.append(String.format("- ...（其余 %d 个文件省略）\n", lines.length - MAX_CLASSIFY_STRUCTURE_LINES));
+        return compact.toString();
+    }
+
     public String routeByIntent(MessagesState<String> state) {
         WorkflowContext context = WorkflowContext.getContext(state);
         String intent = context.getIntentType();
@@ -0,0 +1,69 @@
+package com.dango.dangoaicodeapp.domain.codegen.node;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 意图规则预判。
+ * 只对特征明确的输入给出结论：仅含提问特征判为 QA，仅含修改指令判为 MODIFY；
+ * 两类特征同时出现或都不出现时返回 null，交由模型判断。
+ *
+ * @author dango
+ */
+public final class IntentPrefilter {
+
+    public static final String INTENT_MODIFY = "MODIFY";
+    public static final String INTENT_QA = "QA";
+
+    private static final List<String> QUESTION_KEYWORDS = List.of(
+            "为什么", "为啥", "是什么", "什么是", "什么意思", "啥意思", "是干什么", "有什么区别", "有什么用",
+            "原理", "解释", "讲解", "讲讲", "介绍一下", "怎么实现的", "如何实现的", "是怎么", "是如何");
+
+    private static final List<String> MODIFY_KEYWORDS = List.of(
+            "修改", "改成", "改为", "改一下", "改下", "换成", "替换", "调整", "调大", "调小",
+            "添加", "增加", "新增", "加一个", "加个", "删除", "删掉", "去掉", "移除",
+            "修复", "优化", "重构", "美化", "做一个", "实现一个");
+
+    private static final Pattern ENGLISH_QUESTION = Pattern.compile(
+            "\\b(why|what is|what are|what does|how does|how do|explain)\\b");
+
+    private static final Pattern ENGLISH_MODIFY = Pattern.compile(
+            "\\b(change|add|remove|delete|fix|replace|rename|refactor|update|make the)\\b");
+
+    private IntentPrefilter() {
+    }
+
+    /**
+     * 规则预判用户意图
+     *
+     * @param userMessage 用户原始输入
+     * @return MODIFY / QA；无法确定时返回 null
+     */
+    public static String classify(String userMessage) {
+        if (StrUtil.isBlank(userMessage)) {
+            return null;
+        }
+        String text = userMessage.trim().toLowerCase(Locale.ROOT);
+        boolean question = QUESTION_KEYWORDS.stream().anyMatch(text::contains)
+                || ENGLISH_QUESTION.matcher(text).find();
+        boolean modify = MODIFY_KEYWORDS.stream().anyMatch(text::contains)
+                || ENGLISH_MODIFY.matcher(text).find();
+        if (question && !modify) {
+            return INTENT_QA;
+        }
+        if (modify && !question && !isQuestionSentence(text)) {
+            return INTENT_MODIFY;
+        }
+        return null;
+    }
+
+    /**
+     * 以问号结尾的修改类表述（如“可以把标题改大吗？”）可能只是询问可行性，不做预判
+     */
+    private static boolean isQuestionSentence(String text) {
+        return text.endsWith("?") || text.endsWith("？") || text.endsWith("吗");
+    }
+}
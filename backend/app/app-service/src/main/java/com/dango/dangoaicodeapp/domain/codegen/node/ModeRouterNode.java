@@ -4,6 +4,7 @@ import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.app.valueobject.OperationModeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectWorkspacePort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.ScaffoldPrefetcher;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +26,7 @@ public class ModeRouterNode {
 
     private final WorkflowMessagePort workflowMessagePort;
     private final ProjectWorkspacePort projectWorkspacePort;
+    private final ScaffoldPrefetcher scaffoldPrefetcher;
 
     public AsyncNodeAction<MessagesState<String>> action() {
         return node_async(state -> {
@@ -36,6 +38,10 @@ public class ModeRouterNode {
 
             OperationModeEnum mode = determineOperationMode(context);
             context.setOperationMode(mode);
+            if (mode == OperationModeEnum.CREATE) {
+                // 创建模式必然需要脚手架，提前准备，与后续的模型调用并行
+                scaffoldPrefetcher.start(context.getWorkflowExecutionId(), context.getAppId(), resolveGenerationType(context));
+            }
 
             log.info("操作模式判断完成: {} ({})", mode.getValue(), mode.getText());
             workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
@@ -62,6 +68,10 @@ public class ModeRouterNode {
         return OperationModeEnum.CREATE;
     }
 
+    private static CodeGenTypeEnum resolveGenerationType(WorkflowContext context) {
+        return context.getGenerationType() != null ? context.getGenerationType() : CodeGenTypeEnum.VUE_PROJECT;
+    }
+
     public String routeToNextNode(MessagesState<String> state) {
         WorkflowContext context = WorkflowContext.getContext(state);
         OperationModeEnum mode = context.getOperationMode();
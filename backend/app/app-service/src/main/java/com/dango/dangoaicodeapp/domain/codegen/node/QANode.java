@@ -1,7 +1,9 @@
 package com.dango.dangoaicodeapp.domain.codegen.node;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.QaStreamPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,10 +12,6 @@ import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
-
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
 /**
@@ -24,10 +22,12 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @RequiredArgsConstructor
 public class QANode {
 
+    private static final String NODE_ID = "qa_node";
     private static final String NODE_NAME = "问答";
 
     private final WorkflowMessagePort workflowMessagePort;
     private final QaStreamPort qaStreamPort;
+    private final WorkflowDeadlines workflowDeadlines;
 
     public AsyncNodeAction<MessagesState<String>> action() {
         return node_async(state -> {
@@ -44,25 +44,9 @@ public class QANode {
                 userInput
             );
 
-            Flux<String> answerStream = qaStreamPort.answer(context.getAppId(), qaInput);
-            CountDownLatch latch = new CountDownLatch(1);
-            AtomicReference<Throwable> errorRef = new AtomicReference<>();
-
-            answerStream
-                    .doOnNext(chunk ->
-                            workflowMessagePort.emitRaw(context.getWorkflowExecutionId(), chunk))
-                    .doOnComplete(latch::countDown)
-                    .doOnError(error -> {
-                        errorRef.set(error);
-                        latch.countDown();
-                    })
-                    .subscribe();
-
-            latch.await(10, TimeUnit.MINUTES);
-
-            if (errorRef.get() != null) {
-                throw new RuntimeException(errorRef.get());
-            }
+            Flux<StreamMessage> answerStream = qaStreamPort.answer(context.getAppId(), qaInput);
+            workflowDeadlines.awaitStream(context, NODE_ID, answerStream,
+                    chunk -> workflowMessagePort.emit(context.getWorkflowExecutionId(), chunk));
 
             workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, "\n回答完成\n");
             workflowMessagePort.emitNodeComplete(context.getWorkflowExecutionId(), NODE_NAME);
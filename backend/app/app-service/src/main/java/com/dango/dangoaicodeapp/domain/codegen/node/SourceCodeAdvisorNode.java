@@ -1,9 +1,9 @@
 package com.dango.dangoaicodeapp.domain.codegen.node;
 
-import cn.hutool.json.JSONUtil;
 import com.dango.aicodegenerate.model.message.AiResponseMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.AnimationAdvisorStreamPort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowDeadlines;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,10 +12,6 @@ import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
-
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 
 /**
@@ -26,10 +22,12 @@ import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
 @RequiredArgsConstructor
 public class SourceCodeAdvisorNode {
 
+    private static final String NODE_ID = "source_code_advisor";
     private static final String NODE_NAME = "源码讲解规划";
 
     private final WorkflowMessagePort workflowMessagePort;
     private final AnimationAdvisorStreamPort animationAdvisorStreamPort;
+    private final WorkflowDeadlines workflowDeadlines;
 
     public AsyncNodeAction<MessagesState<String>> action() {
         return node_async(state -> {
@@ -43,29 +41,14 @@ public class SourceCodeAdvisorNode {
 
             Flux<String> adviseStream = animationAdvisorStreamPort.adviseInterviewSourceCode(userPrompt);
             StringBuilder adviceBuilder = new StringBuilder();
-            CountDownLatch latch = new CountDownLatch(1);
-            AtomicReference<Throwable> errorRef = new AtomicReference<>();
-
-            adviseStream
-                    .doOnNext(chunk -> {
-                        adviceBuilder.append(chunk);
-                        workflowMessagePort.emitRaw(context.getWorkflowExecutionId(), JSONUtil.toJsonStr(new AiResponseMessage(chunk)));
-                    })
-                    .doOnComplete(latch::countDown)
-                    .doOnError(error -> {
-                        errorRef.set(error);
-                        latch.countDown();
-                    })
-                    .subscribe();
-
-            latch.await(10, TimeUnit.MINUTES);
-
-            if (errorRef.get() != null) {
-                throw new RuntimeException(errorRef.get());
-            }
+            // 超过节点时限时取消模型输出并抛出超时异常，不再无限期占用线程
+            workflowDeadlines.awaitStream(context, NODE_ID, adviseStream, chunk -> {
+                adviceBuilder.append(chunk);
+                workflowMessagePort.emit(context.getWorkflowExecutionId(), new AiResponseMessage(chunk));
+            });
 
             if (adviceBuilder.isEmpty()) {
-                throw new RuntimeException("源码讲解规划生成超时");
+                throw new RuntimeException("源码讲解规划生成结果为空");
             }
 
             context.setEnhancedPrompt(adviceBuilder.toString());
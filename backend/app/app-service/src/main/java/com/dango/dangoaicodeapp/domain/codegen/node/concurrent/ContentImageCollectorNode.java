@@ -45,11 +45,9 @@ public class ContentImageCollectorNode {
 
                     for (ImageCollectionPlan.ImageSearchTask task : plan.getContentImageTasks()) {
                         workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, String.format("搜索: %s\n", task.query()));
-                        List<ImageResource> images = imageResourcePort.searchContentImages(task.query());
-                        if (images != null) {
-                            contentImages.addAll(images);
-                        }
                     }
+                    // 任务在端口内并发执行，超过截止时间只返回已完成的部分
+                    contentImages.addAll(imageResourcePort.searchContentImages(plan.getContentImageTasks()));
 
                     log.info("内容图片收集完成，共收集到 {} 张图片", contentImages.size());
                     workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
@@ -45,12 +45,9 @@ public class DiagramCollectorNode {
 
                     for (ImageCollectionPlan.DiagramTask task : plan.getDiagramTasks()) {
                         workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, String.format("生成: %s\n", task.description()));
-                        List<ImageResource> images = imageResourcePort.generateMermaidDiagram(
-                                task.mermaidCode(), task.description());
-                        if (images != null) {
-                            diagrams.addAll(images);
-                        }
                     }
+                    // 任务在端口内并发执行，超过截止时间只返回已完成的部分
+                    diagrams.addAll(imageResourcePort.generateMermaidDiagrams(plan.getDiagramTasks()));
 
                     log.info("架构图生成完成，共生成 {} 张图片", diagrams.size());
                     workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
@@ -45,11 +45,9 @@ public class IllustrationCollectorNode {
 
                     for (ImageCollectionPlan.IllustrationTask task : plan.getIllustrationTasks()) {
                         workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, String.format("搜索: %s\n", task.query()));
-                        List<ImageResource> images = imageResourcePort.searchIllustrations(task.query());
-                        if (images != null) {
-                            illustrations.addAll(images);
-                        }
                     }
+                    // 任务在端口内并发执行，超过截止时间只返回已完成的部分
+                    illustrations.addAll(imageResourcePort.searchIllustrations(plan.getIllustrationTasks()));
 
                     log.info("插画图片收集完成，共收集到 {} 张图片", illustrations.size());
                     workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
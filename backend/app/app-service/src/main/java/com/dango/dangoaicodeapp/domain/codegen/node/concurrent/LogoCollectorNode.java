@@ -45,11 +45,9 @@ public class LogoCollectorNode {
 
                     for (ImageCollectionPlan.LogoTask task : plan.getLogoTasks()) {
                         workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME, String.format("生成: %s\n", task.description()));
-                        List<ImageResource> images = imageResourcePort.generateLogos(task.description());
-                        if (images != null) {
-                            logos.addAll(images);
-                        }
                     }
+                    // 任务在端口内并发执行，超过截止时间只返回已完成的部分
+                    logos.addAll(imageResourcePort.generateLogos(plan.getLogoTasks()));
 
                     log.info("Logo生成完成，共生成 {} 张图片", logos.size());
                     workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), NODE_NAME,
@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import reactor.core.publisher.Flux;
 
@@ -11,6 +12,6 @@ import reactor.core.publisher.Flux;
  */
 public interface CodeGenerationStreamPort {
 
-    Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId);
+    Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId);
 }
 
@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import reactor.core.publisher.Flux;
 
@@ -8,6 +9,6 @@ import reactor.core.publisher.Flux;
  */
 public interface CodeModificationStreamPort {
 
-    Flux<String> modifyCodeStream(long appId, CodeGenTypeEnum codeGenType, String modifyRequest);
+    Flux<StreamMessage> modifyCodeStream(long appId, CodeGenTypeEnum codeGenType, String modifyRequest);
 }
 
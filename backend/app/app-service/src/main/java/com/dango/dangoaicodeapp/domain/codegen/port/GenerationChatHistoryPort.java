@@ -15,12 +15,18 @@ public interface GenerationChatHistoryPort {
     Long createGeneratingAiMessage(Long appId, Long userId);
 
     /**
-     * 标记 AI 消息完成并落最终内容。
+     * 生成过程中追加一段已产出的 AI 内容（状态保持 generating）。
+     * 长回复分段落库，内存只保留未落库的窗口，进程崩溃时也不会丢失已落库部分。
+     */
+    void appendAiMessageContent(Long chatHistoryId, String segment);
+
+    /**
+     * 追加尚未落库的尾部内容并标记 AI 消息完成。
      */
     void markAiMessageCompleted(Long chatHistoryId, String content);
 
     /**
-     * 标记 AI 消息失败并落错误/部分内容。
+     * 追加错误/尚未落库的部分内容并标记 AI 消息失败。
      */
     void markAiMessageError(Long chatHistoryId, String content);
 }
@@ -2,6 +2,7 @@ package com.dango.dangoaicodeapp.domain.codegen.port;
 
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -17,9 +18,37 @@ public interface GenerationStreamPort {
      */
     void appendChunk(String streamKey, String content, String msgType);
 
+    /**
+     * 强制刷出尚未落盘的流事件。
+     * 追加可能被适配层合并缓冲，会话收口前必须调用，保证终态之前的内容全部可读。
+     */
+    void flush(String streamKey);
+
     /**
      * 读取流事件（afterId 游标语义由端口适配）。
      * 上层只关心领域事件，不关心 Redis Record 结构。
      */
     List<GenerationStreamChunk> readChunks(String streamKey, String afterId, long count);
+
+    /**
+     * 订阅流变更通知。
+     * 有新事件追加或任务收口时唤醒等待方，调用方据此决定何时再读流，而不是定时轮询。
+     */
+    Watcher watch(String streamKey);
+
+    /**
+     * 流变更订阅句柄，使用完毕必须关闭。
+     */
+    interface Watcher extends AutoCloseable {
+
+        /**
+         * 阻塞等待自上次返回以来的新通知。
+         *
+         * @return true 表示被通知唤醒，false 表示超时
+         */
+        boolean await(Duration timeout) throws InterruptedException;
+
+        @Override
+        void close();
+    }
 }
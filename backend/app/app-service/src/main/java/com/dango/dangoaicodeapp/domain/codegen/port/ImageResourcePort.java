@@ -1,19 +1,22 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.ImageCollectionPlan;
 import com.dango.aicodegenerate.model.ImageResource;
 
 import java.util.List;
 
 /**
  * 图片资源端口。
+ * 每个方法接收一个收集节点的全部任务，由实现方并发执行；超过截止时间时只返回已完成的部分，
+ * 单个任务失败不影响其他任务。
  */
 public interface ImageResourcePort {
 
-    List<ImageResource> searchContentImages(String query);
+    List<ImageResource> searchContentImages(List<ImageCollectionPlan.ImageSearchTask> tasks);
 
-    List<ImageResource> searchIllustrations(String query);
+    List<ImageResource> searchIllustrations(List<ImageCollectionPlan.IllustrationTask> tasks);
 
-    List<ImageResource> generateMermaidDiagram(String mermaidCode, String description);
+    List<ImageResource> generateMermaidDiagrams(List<ImageCollectionPlan.DiagramTask> tasks);
 
-    List<ImageResource> generateLogos(String description);
+    List<ImageResource> generateLogos(List<ImageCollectionPlan.LogoTask> tasks);
 }
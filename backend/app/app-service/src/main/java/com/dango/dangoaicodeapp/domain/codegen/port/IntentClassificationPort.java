@@ -5,5 +5,13 @@ package com.dango.dangoaicodeapp.domain.codegen.port;
  */
 public interface IntentClassificationPort {
 
-    String classify(String classifyInput);
+    /**
+     * 调用模型识别意图。同一应用下归一化后相同的用户消息复用上次的识别结果。
+     *
+     * @param appId         应用 ID
+     * @param userMessage   用户原始输入，用作缓存键
+     * @param classifyInput 完整的识别输入（含项目结构）
+     * @return 模型输出的意图
+     */
+    String classify(Long appId, String userMessage, String classifyInput);
 }
@@ -1,6 +1,7 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
 import com.dango.dangoaicodeapp.domain.codegen.model.ProjectBuildResult;
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
 
 /**
  * 项目构建端口。
@@ -8,4 +9,9 @@ import com.dango.dangoaicodeapp.domain.codegen.model.ProjectBuildResult;
 public interface ProjectBuildPort {
 
     ProjectBuildResult buildProject(String generatedCodeDir);
+
+    /**
+     * 完整构建前的快速预检查：只解析/转译改动过的源码，预检查不可用时返回未检查的结果
+     */
+    ProjectPrecheckResult precheckProject(String generatedCodeDir);
 }
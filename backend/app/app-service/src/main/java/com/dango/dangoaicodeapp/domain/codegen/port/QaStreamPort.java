@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import reactor.core.publisher.Flux;
 
 /**
@@ -7,6 +8,6 @@ import reactor.core.publisher.Flux;
  */
 public interface QaStreamPort {
 
-    Flux<String> answer(long appId, String qaInput);
+    Flux<StreamMessage> answer(long appId, String qaInput);
 }
 
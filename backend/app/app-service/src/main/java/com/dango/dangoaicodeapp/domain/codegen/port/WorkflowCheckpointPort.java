@@ -0,0 +1,27 @@
+package com.dango.dangoaicodeapp.domain.codegen.port;
+
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+
+import java.util.Optional;
+
+/**
+ * 工作流检查点存储端口。
+ * 每个节点完成后保存完整的 WorkflowContext，中断后据此从最后完成的节点恢复。
+ */
+public interface WorkflowCheckpointPort {
+
+    /**
+     * 覆盖保存检查点。
+     */
+    void save(String checkpointKey, WorkflowContext context);
+
+    /**
+     * 读取检查点，不存在或已过期时返回空。
+     */
+    Optional<WorkflowContext> load(String checkpointKey);
+
+    /**
+     * 删除检查点。
+     */
+    void delete(String checkpointKey);
+}
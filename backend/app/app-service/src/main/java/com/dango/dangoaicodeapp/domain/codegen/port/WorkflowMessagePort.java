@@ -1,12 +1,15 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
+
 /**
  * 工作流消息输出端口。
  * 将“节点日志/内容消息的序列化与输出”从 WorkflowContext 中移出，避免状态对象承载基础设施职责。
+ * 节点间只传递类型化的 StreamMessage，JSON 序列化统一留给 SSE/Redis 出口。
  */
 public interface WorkflowMessagePort {
 
-    void emitRaw(String executionId, String payload);
+    void emit(String executionId, StreamMessage message);
 
     void emitNodeMessage(String executionId, String nodeName, String message);
 
@@ -0,0 +1,21 @@
+package com.dango.dangoaicodeapp.domain.codegen.port;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
+
+import java.util.List;
+
+/**
+ * 工作流性能剖析端口。
+ * 由节点包装层在每个节点开始/结束时上报，按节点 ID 记录耗时，与节点是否输出日志无关。
+ */
+public interface WorkflowProfilerPort {
+
+    void nodeStarted(String executionId, String nodeId);
+
+    void nodeFinished(String executionId, String nodeId, boolean success);
+
+    /**
+     * 查询时间线：执行中的在前，其后为最近结束的；appId 为空时返回全部
+     */
+    List<WorkflowTimeline> recentTimelines(Long appId);
+}
@@ -1,16 +1,28 @@
 package com.dango.dangoaicodeapp.domain.codegen.port;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import reactor.core.publisher.FluxSink;
 
 /**
  * 工作流流式输出端口。
  * 由应用/基础设施层管理 sink 生命周期，领域层仅按 executionId 发送消息。
+ * 输出有界：下游消费不过来时，内容消息的发送方会被阻塞，日志消息会被合并或丢弃。
  */
 public interface WorkflowStreamPort {
 
-    void register(String executionId, FluxSink<String> sink);
+    void register(String executionId, FluxSink<StreamMessage> sink);
 
     void unregister(String executionId);
 
-    void emit(String executionId, String payload);
+    void emit(String executionId, StreamMessage message);
+
+    /**
+     * 输入结束：已排队的消息全部下发后完成 sink。
+     */
+    void complete(String executionId);
+
+    /**
+     * 输入异常结束：已排队的消息全部下发后向 sink 传递错误。
+     */
+    void error(String executionId, Throwable error);
 }
@@ -3,6 +3,7 @@ package com.dango.dangoaicodeapp.domain.codegen.service;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationSession;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
 
 import java.util.List;
 
@@ -24,8 +25,14 @@ public interface GenerationSessionDomainService {
 
     void appendChunk(GenerationSession session, String content, String msgType);
 
+    /**
+     * 生成过程中把一段 AI 回复追加落库，会话收口时只需写入剩余尾部。
+     */
+    void checkpointReply(GenerationSession session, String segment);
+
     /**
      * 正常结束会话，统一收敛任务状态与消息状态更新。
+     * finalAiContent 为尚未通过 checkpointReply 落库的尾部内容。
      */
     void completeSession(GenerationSession session, String finalAiContent);
 
@@ -40,4 +47,9 @@ public interface GenerationSessionDomainService {
     void failSession(GenerationSession session, Throwable throwable);
 
     List<GenerationStreamChunk> readStreamChunks(Long appId, Long userId, String afterId, long count);
+
+    /**
+     * 订阅会话流的变更通知，供 SSE 消费端替代定时轮询。
+     */
+    GenerationStreamPort.Watcher watchStream(Long appId, Long userId);
 }
@@ -62,14 +62,22 @@ public class GenerationSessionDomainServiceImpl implements GenerationSessionDoma
         generationStreamPort.appendChunk(session.streamKey(), content, msgType);
     }
 
+    @Override
+    public void checkpointReply(GenerationSession session, String segment) {
+        generationChatHistoryPort.appendAiMessageContent(session.chatHistoryId(), segment);
+    }
+
     @Override
     public void completeSession(GenerationSession session, String finalAiContent) {
+        // 先刷出缓冲中的尾部内容再标记终态，避免订阅方看到终态后漏读最后一段输出。
+        flushStreamSafely(session);
         generationTaskPort.markCompleted(session.appId(), session.userId());
         generationChatHistoryPort.markAiMessageCompleted(session.chatHistoryId(), finalAiContent);
     }
 
     @Override
     public void failSession(GenerationSession session, String errorContent) {
+        flushStreamSafely(session);
         generationTaskPort.markError(session.appId(), session.userId());
         generationChatHistoryPort.markAiMessageError(session.chatHistoryId(), errorContent);
     }
@@ -88,6 +96,21 @@ public class GenerationSessionDomainServiceImpl implements GenerationSessionDoma
         return generationStreamPort.readChunks(streamKey, afterId, count);
     }
 
+    @Override
+    public GenerationStreamPort.Watcher watchStream(Long appId, Long userId) {
+        String streamKey = generationTaskPort.getStreamKey(appId, userId);
+        return generationStreamPort.watch(streamKey);
+    }
+
+    private void flushStreamSafely(GenerationSession session) {
+        try {
+            generationStreamPort.flush(session.streamKey());
+        } catch (Exception e) {
+            // 刷出失败只影响流尾部展示，不能阻断任务与消息的终态收口。
+            log.error("刷出生成流缓冲失败: streamKey={}", session.streamKey(), e);
+        }
+    }
+
     private void compensateStartupFailure(Long appId, Long userId, Long chatHistoryId, Exception rootCause) {
         log.error("生成会话启动失败，执行补偿: appId={}, userId={}, chatHistoryId={}",
                 appId, userId, chatHistoryId, rootCause);
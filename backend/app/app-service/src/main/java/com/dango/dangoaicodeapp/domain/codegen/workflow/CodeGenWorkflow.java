@@ -16,59 +16,88 @@ import java.util.concurrent.ExecutorService;
 
 /**
  * 代码生成工作流执行器。
+ *
+ * 编译后的图只描述节点与边，不持有单次运行的状态，因此每个进程只编译一次并在各次运行间复用；
+ * 单次运行的状态全部经由输入的 {@link WorkflowContext} 进入 {@link MessagesState}。
  */
 @Slf4j
 public class CodeGenWorkflow {
 
     private static final String NODE_IMAGE_PLAN = "image_plan";
 
-    private final ExecutorService parallelExecutor;
     private final CodeGenWorkflowFactory workflowFactory;
+    private final RunnableConfig runnableConfig;
+
+    private volatile CompiledGraph<MessagesState<String>> compiledWorkflow;
 
     public CodeGenWorkflow(ExecutorService parallelExecutor, CodeGenWorkflowFactory workflowFactory) {
-        this.parallelExecutor = Objects.requireNonNull(parallelExecutor, "parallelExecutor");
+        Objects.requireNonNull(parallelExecutor, "parallelExecutor");
         this.workflowFactory = Objects.requireNonNull(workflowFactory, "workflowFactory");
-    }
-
-    private RunnableConfig createRunnableConfig() {
-        return RunnableConfig.builder()
+        this.runnableConfig = RunnableConfig.builder()
                 .addParallelNodeExecutor(NODE_IMAGE_PLAN, parallelExecutor)
                 .build();
     }
 
-    public WorkflowContext run(RunWorkflowCommand command) {
-        CompiledGraph<MessagesState<String>> workflow;
-        try {
-            workflow = workflowFactory.createWorkflow();
-        } catch (GraphStateException e) {
-            log.error("创建工作流失败", e);
-            throw new RuntimeException("创建工作流失败", e);
+    /**
+     * 预先编译工作流图，让首个请求不承担编译开销，图定义有误时在启动阶段暴露。
+     */
+    public void warmUp() {
+        compiledWorkflow();
+    }
+
+    /**
+     * 获取编译后的工作流图，首次调用时编译。
+     */
+    CompiledGraph<MessagesState<String>> compiledWorkflow() {
+        CompiledGraph<MessagesState<String>> workflow = compiledWorkflow;
+        if (workflow != null) {
+            return workflow;
+        }
+        synchronized (this) {
+            if (compiledWorkflow == null) {
+                try {
+                    compiledWorkflow = workflowFactory.createWorkflow();
+                } catch (GraphStateException e) {
+                    log.error("创建工作流失败", e);
+                    throw new RuntimeException("创建工作流失败", e);
+                }
+                if (log.isDebugEnabled()) {
+                    GraphRepresentation graph = compiledWorkflow.getGraph(GraphRepresentation.Type.MERMAID);
+                    log.debug("工作流图:\n{}", graph.content());
+                }
+            }
+            return compiledWorkflow;
         }
+    }
 
-        WorkflowContext initialContext = WorkflowContext.builder()
-                .appId(command.appId())
-                .originalPrompt(command.originalPrompt())
-                .currentStep("初始化")
-                .workflowExecutionId(command.workflowExecutionId())
-                .elementInfo(command.elementInfo())
-                .databaseEnabled(command.databaseEnabled())
-                .databaseSchema(command.databaseSchema())
-                .generationType(command.generationType())
-                .build();
+    public WorkflowContext run(RunWorkflowCommand command) {
+        CompiledGraph<MessagesState<String>> workflow = compiledWorkflow();
 
-        if (log.isDebugEnabled()) {
-            GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-            log.debug("工作流图:\n{}", graph.content());
-        }
-        log.info("开始执行代码生成工作流, appId: {}, hasElementInfo: {}, databaseEnabled: {}",
-                command.appId(), command.elementInfo() != null, command.databaseEnabled());
+        WorkflowContext initialContext = command.isResume()
+                ? prepareResumeContext(command)
+                : WorkflowContext.builder()
+                        .appId(command.appId())
+                        .originalPrompt(command.originalPrompt())
+                        .currentStep("初始化")
+                        .workflowExecutionId(command.workflowExecutionId())
+                        .elementInfo(command.elementInfo())
+                        .databaseEnabled(command.databaseEnabled())
+                        .databaseSchema(command.databaseSchema())
+                        .generationType(command.generationType())
+                        .checkpointKey(command.checkpointKey())
+                        .runDeadline(command.runDeadline())
+                        .build();
+
+        log.info("开始执行代码生成工作流, appId: {}, hasElementInfo: {}, databaseEnabled: {}, resume: {}",
+                command.appId(), initialContext.getElementInfo() != null, initialContext.isDatabaseEnabled(),
+                command.isResume());
 
         WorkflowContext finalContext = null;
         int stepCounter = 1;
 
         for (NodeOutput<MessagesState<String>> step : workflow.stream(
                 Map.of(WorkflowContext.WORKFLOW_CONTEXT_KEY, initialContext),
-                createRunnableConfig())) {
+                runnableConfig)) {
             log.info("--- 第 {} 步完成 ---", stepCounter);
             WorkflowContext currentContext = WorkflowContext.getContext(step.state());
             if (currentContext != null) {
@@ -82,4 +111,15 @@ public class CodeGenWorkflow {
         return finalContext;
     }
 
+    /**
+     * 恢复运行沿用检查点中的上下文，只替换本次执行 ID 与截止时间，访问计数清零后按原路径重放。
+     */
+    private WorkflowContext prepareResumeContext(RunWorkflowCommand command) {
+        WorkflowContext context = command.resumeContext();
+        context.setWorkflowExecutionId(command.workflowExecutionId());
+        context.setCheckpointKey(command.checkpointKey());
+        context.setRunDeadline(command.runDeadline());
+        context.resetNodeVisitCounts();
+        return context;
+    }
 }
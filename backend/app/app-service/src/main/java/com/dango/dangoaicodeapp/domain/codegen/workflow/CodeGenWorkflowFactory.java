@@ -3,12 +3,14 @@ package com.dango.dangoaicodeapp.domain.codegen.workflow;
 import com.dango.aicodegenerate.model.QualityResult;
 import com.dango.dangoaicodeapp.domain.codegen.node.*;
 import com.dango.dangoaicodeapp.domain.codegen.node.concurrent.*;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowProfilerPort;
 import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.CompiledGraph;
 import org.bsc.langgraph4j.GraphStateException;
 import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
 import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
 import org.springframework.stereotype.Component;
@@ -22,6 +24,7 @@ import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
 /**
  * 代码生成工作流工厂。
  * 统一装配节点 Action，避免在工作流执行类中动态查找 Bean。
+ * 每个节点 Action 都经由 {@link WorkflowCheckpointer} 包装，完成后保存检查点。
  */
 @Slf4j
 @Component
@@ -76,6 +79,7 @@ public class CodeGenWorkflowFactory {
     private static final String ROUTE_SKIP_SQL = "skip_sql";
     private static final String ROUTE_FIX = "fix";
     private static final String ROUTE_PASS = "pass";
+    private static final String ROUTE_BUILD = "build";
 
     private final ModeRouterNode modeRouterNode;
     private final ImagePlanNode imagePlanNode;
@@ -100,6 +104,9 @@ public class CodeGenWorkflowFactory {
     private final QANode qaNode;
     private final BuildCheckNode buildCheckNode;
     private final CodeFixerNode codeFixerNode;
+    private final WorkflowCheckpointer workflowCheckpointer;
+    private final WorkflowDeadlines workflowDeadlines;
+    private final WorkflowProfilerPort workflowProfilerPort;
 
     public CompiledGraph<MessagesState<String>> createWorkflow() throws GraphStateException {
         StateGraph<MessagesState<String>> createSubGraph = buildCreateModeSubGraph();
@@ -110,7 +117,7 @@ public class CodeGenWorkflowFactory {
         StateGraph<MessagesState<String>> buildCheckSubGraph = buildBuildCheckSubGraph();
 
         return new MessagesStateGraph<String>()
-                .addNode(NODE_MODE_ROUTER, modeRouterNode.action())
+                .addNode(NODE_MODE_ROUTER, managed(NODE_MODE_ROUTER, modeRouterNode.action()))
                 .addNode(SUBGRAPH_CREATE, createSubGraph)
                 .addNode(SUBGRAPH_LEETCODE_CREATE, leetCodeCreateSubGraph)
                 .addNode(SUBGRAPH_INTERVIEW_CREATE, interviewCreateSubGraph)
@@ -143,14 +150,14 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildCreateModeSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_IMAGE_PLAN, imagePlanNode.action())
-                .addNode(NODE_CONTENT_IMAGE_COLLECTOR, contentImageCollectorNode.action())
-                .addNode(NODE_ILLUSTRATION_COLLECTOR, illustrationCollectorNode.action())
-                .addNode(NODE_DIAGRAM_COLLECTOR, diagramCollectorNode.action())
-                .addNode(NODE_LOGO_COLLECTOR, logoCollectorNode.action())
-                .addNode(NODE_IMAGE_AGGREGATOR, imageAggregatorNode.action())
-                .addNode(NODE_PROMPT_ENHANCER, promptEnhancerNode.action())
-                .addNode(NODE_CODE_GENERATOR, codeGeneratorNode.action())
+                .addNode(NODE_IMAGE_PLAN, managed(NODE_IMAGE_PLAN, imagePlanNode.action()))
+                .addNode(NODE_CONTENT_IMAGE_COLLECTOR, managed(NODE_CONTENT_IMAGE_COLLECTOR, contentImageCollectorNode.action()))
+                .addNode(NODE_ILLUSTRATION_COLLECTOR, managed(NODE_ILLUSTRATION_COLLECTOR, illustrationCollectorNode.action()))
+                .addNode(NODE_DIAGRAM_COLLECTOR, managed(NODE_DIAGRAM_COLLECTOR, diagramCollectorNode.action()))
+                .addNode(NODE_LOGO_COLLECTOR, managed(NODE_LOGO_COLLECTOR, logoCollectorNode.action()))
+                .addNode(NODE_IMAGE_AGGREGATOR, managed(NODE_IMAGE_AGGREGATOR, imageAggregatorNode.action()))
+                .addNode(NODE_PROMPT_ENHANCER, managed(NODE_PROMPT_ENHANCER, promptEnhancerNode.action()))
+                .addNode(NODE_CODE_GENERATOR, managed(NODE_CODE_GENERATOR, codeGeneratorNode.action()))
                 .addEdge(START, NODE_IMAGE_PLAN)
                 .addEdge(NODE_IMAGE_PLAN, NODE_CONTENT_IMAGE_COLLECTOR)
                 .addEdge(NODE_IMAGE_PLAN, NODE_ILLUSTRATION_COLLECTOR)
@@ -167,9 +174,9 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildLeetCodeCreateSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_ANIMATION_ADVISOR, leetCodeAnimationAdvisorNode.action())
-                .addNode(NODE_LEETCODE_PROMPT_ENHANCER, leetCodePromptEnhancerNode.action())
-                .addNode(NODE_CODE_GENERATOR, codeGeneratorNode.action())
+                .addNode(NODE_ANIMATION_ADVISOR, managed(NODE_ANIMATION_ADVISOR, leetCodeAnimationAdvisorNode.action()))
+                .addNode(NODE_LEETCODE_PROMPT_ENHANCER, managed(NODE_LEETCODE_PROMPT_ENHANCER, leetCodePromptEnhancerNode.action()))
+                .addNode(NODE_CODE_GENERATOR, managed(NODE_CODE_GENERATOR, codeGeneratorNode.action()))
                 .addEdge(START, NODE_ANIMATION_ADVISOR)
                 .addEdge(NODE_ANIMATION_ADVISOR, NODE_LEETCODE_PROMPT_ENHANCER)
                 .addEdge(NODE_LEETCODE_PROMPT_ENHANCER, NODE_CODE_GENERATOR)
@@ -178,9 +185,9 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildInterviewCreateSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_INTERVIEW_ANIMATION_ADVISOR, interviewAnimationAdvisorNode.action())
-                .addNode(NODE_INTERVIEW_PROMPT_ENHANCER, interviewPromptEnhancerNode.action())
-                .addNode(NODE_CODE_GENERATOR, codeGeneratorNode.action())
+                .addNode(NODE_INTERVIEW_ANIMATION_ADVISOR, managed(NODE_INTERVIEW_ANIMATION_ADVISOR, interviewAnimationAdvisorNode.action()))
+                .addNode(NODE_INTERVIEW_PROMPT_ENHANCER, managed(NODE_INTERVIEW_PROMPT_ENHANCER, interviewPromptEnhancerNode.action()))
+                .addNode(NODE_CODE_GENERATOR, managed(NODE_CODE_GENERATOR, codeGeneratorNode.action()))
                 .addEdge(START, NODE_INTERVIEW_ANIMATION_ADVISOR)
                 .addEdge(NODE_INTERVIEW_ANIMATION_ADVISOR, NODE_INTERVIEW_PROMPT_ENHANCER)
                 .addEdge(NODE_INTERVIEW_PROMPT_ENHANCER, NODE_CODE_GENERATOR)
@@ -189,9 +196,9 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildInterviewSourceCodeCreateSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_SOURCE_CODE_ADVISOR, sourceCodeAdvisorNode.action())
-                .addNode(NODE_SOURCE_CODE_PROMPT_ENHANCER, sourceCodePromptEnhancerNode.action())
-                .addNode(NODE_CODE_GENERATOR, codeGeneratorNode.action())
+                .addNode(NODE_SOURCE_CODE_ADVISOR, managed(NODE_SOURCE_CODE_ADVISOR, sourceCodeAdvisorNode.action()))
+                .addNode(NODE_SOURCE_CODE_PROMPT_ENHANCER, managed(NODE_SOURCE_CODE_PROMPT_ENHANCER, sourceCodePromptEnhancerNode.action()))
+                .addNode(NODE_CODE_GENERATOR, managed(NODE_CODE_GENERATOR, codeGeneratorNode.action()))
                 .addEdge(START, NODE_SOURCE_CODE_ADVISOR)
                 .addEdge(NODE_SOURCE_CODE_ADVISOR, NODE_SOURCE_CODE_PROMPT_ENHANCER)
                 .addEdge(NODE_SOURCE_CODE_PROMPT_ENHANCER, NODE_CODE_GENERATOR)
@@ -200,12 +207,12 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildExistingCodeSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_CODE_READER, codeReaderNode.action())
-                .addNode(NODE_INTENT_CLASSIFIER, intentClassifierNode.action())
-                .addNode(NODE_MODIFICATION_PLANNER, modificationPlannerNode.action())
-                .addNode(NODE_DATABASE_OPERATOR, databaseOperatorNode.action())
-                .addNode(NODE_CODE_MODIFIER, codeModifierNode.action())
-                .addNode(NODE_QA, qaNode.action())
+                .addNode(NODE_CODE_READER, managed(NODE_CODE_READER, codeReaderNode.action()))
+                .addNode(NODE_INTENT_CLASSIFIER, managed(NODE_INTENT_CLASSIFIER, intentClassifierNode.action()))
+                .addNode(NODE_MODIFICATION_PLANNER, managed(NODE_MODIFICATION_PLANNER, modificationPlannerNode.action()))
+                .addNode(NODE_DATABASE_OPERATOR, managed(NODE_DATABASE_OPERATOR, databaseOperatorNode.action()))
+                .addNode(NODE_CODE_MODIFIER, managed(NODE_CODE_MODIFIER, codeModifierNode.action()))
+                .addNode(NODE_QA, managed(NODE_QA, qaNode.action()))
                 .addEdge(START, NODE_CODE_READER)
                 .addEdge(NODE_CODE_READER, NODE_INTENT_CLASSIFIER)
                 .addConditionalEdges(NODE_INTENT_CLASSIFIER,
@@ -227,8 +234,8 @@ public class CodeGenWorkflowFactory {
 
     private StateGraph<MessagesState<String>> buildBuildCheckSubGraph() throws GraphStateException {
         return new MessagesStateGraph<String>()
-                .addNode(NODE_BUILD_CHECK, buildCheckNode.action())
-                .addNode(NODE_CODE_FIXER, codeFixerNode.action())
+                .addNode(NODE_BUILD_CHECK, managed(NODE_BUILD_CHECK, buildCheckNode.action()))
+                .addNode(NODE_CODE_FIXER, managed(NODE_CODE_FIXER, codeFixerNode.action()))
                 .addEdge(START, NODE_BUILD_CHECK)
                 .addConditionalEdges(NODE_BUILD_CHECK,
                         edge_async(this::routeInBuildCheck),
@@ -236,7 +243,32 @@ public class CodeGenWorkflowFactory {
                                 ROUTE_FIX, NODE_CODE_FIXER,
                                 ROUTE_PASS, END
                         ))
-                .addEdge(NODE_CODE_FIXER, NODE_BUILD_CHECK);
+                .addConditionalEdges(NODE_CODE_FIXER,
+                        edge_async(this::routeAfterCodeFix),
+                        Map.of(
+                                ROUTE_BUILD, NODE_BUILD_CHECK,
+                                ROUTE_PASS, END
+                        ));
+    }
+
+    private AsyncNodeAction<MessagesState<String>> managed(
+            String nodeId, AsyncNodeAction<MessagesState<String>> action) {
+        // 运行时限检查在外层：检查点先于运行超时保存，超时中断的运行仍可从该节点之后恢复
+        return workflowDeadlines.guarded(nodeId, profiled(nodeId, workflowCheckpointer.checkpointed(nodeId, action)));
+    }
+
+    /**
+     * 按节点 ID 上报节点开始/结束，覆盖所有节点（包括不输出日志的节点）。
+     */
+    private AsyncNodeAction<MessagesState<String>> profiled(
+            String nodeId, AsyncNodeAction<MessagesState<String>> action) {
+        return state -> {
+            WorkflowContext context = WorkflowContext.getContext(state);
+            String executionId = context != null ? context.getWorkflowExecutionId() : null;
+            workflowProfilerPort.nodeStarted(executionId, nodeId);
+            return action.apply(state).whenComplete((result, error) ->
+                    workflowProfilerPort.nodeFinished(executionId, nodeId, error == null));
+        };
     }
 
     private String routeAfterExistingCode(MessagesState<String> state) {
@@ -274,6 +306,11 @@ public class CodeGenWorkflowFactory {
         QualityResult qualityResult = context.getQualityResult();
 
         if (qualityResult == null || !qualityResult.getIsValid()) {
+            int occurrences = context.latestBuildErrorOccurrences();
+            if (occurrences > WorkflowContext.MAX_SAME_BUILD_ERROR_COUNT) {
+                log.warn("同一构建错误已出现 {} 次，修复无进展，提前结束修复循环", occurrences);
+                return ROUTE_PASS;
+            }
             if (context.getFixRetryCount() < WorkflowContext.MAX_FIX_RETRY_COUNT) {
                 log.info("构建未通过，路由到修复节点 (重试次数: {}/{})",
                         context.getFixRetryCount(), WorkflowContext.MAX_FIX_RETRY_COUNT);
@@ -285,4 +322,14 @@ public class CodeGenWorkflowFactory {
         log.info("构建通过或达到最大重试次数，路由到出口");
         return ROUTE_PASS;
     }
+
+    private String routeAfterCodeFix(MessagesState<String> state) {
+        WorkflowContext context = WorkflowContext.getContext(state);
+        if (context.isLastFixUnchanged()) {
+            // 源码没有变化，重新构建只会得到同样的结果
+            log.warn("修复未修改任何文件，跳过重新构建，结束修复循环");
+            return ROUTE_PASS;
+        }
+        return ROUTE_BUILD;
+    }
 }
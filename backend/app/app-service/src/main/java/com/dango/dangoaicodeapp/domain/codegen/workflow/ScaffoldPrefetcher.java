@@ -0,0 +1,82 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.port.ProjectScaffoldPort;
+import com.dango.dangoaicodecommon.trace.TracedVirtualThread;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 脚手架预备。
+ *
+ * 脚手架只依赖 appId 与生成类型，模式路由确定为创建模式时即可在虚拟线程中提前复制模板、创建软链，
+ * 与图片规划/收集、提示词增强等模型调用并行；代码生成节点开始前再等待其完成，
+ * 模板准备的 IO 耗时因此不再落在首字延迟的关键路径上。
+ * 预备任务按工作流执行 ID 登记，执行结束时无论是否走到代码生成都会释放。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScaffoldPrefetcher {
+
+    private final ProjectScaffoldPort projectScaffoldPort;
+
+    private final ConcurrentMap<String, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+    /**
+     * 提前开始准备脚手架，同一次执行重复调用只生效一次。
+     */
+    public void start(String executionId, Long appId, CodeGenTypeEnum generationType) {
+        if (executionId == null) {
+            return;
+        }
+        prefetches.computeIfAbsent(executionId, id -> {
+            log.info("提前准备项目模板: appId={}, type={}", appId, generationType);
+            return new Prefetch(appId, generationType,
+                    TracedVirtualThread.runAsync(() -> projectScaffoldPort.scaffold(appId, generationType)));
+        });
+    }
+
+    /**
+     * 确保脚手架就绪：有匹配的预备任务则等待其完成，否则同步准备。
+     * 预备失败时抛出原异常，与同步准备失败的表现一致。
+     */
+    public void awaitReady(String executionId, Long appId, CodeGenTypeEnum generationType) {
+        Prefetch prefetch = executionId != null ? prefetches.remove(executionId) : null;
+        if (prefetch == null || !prefetch.matches(appId, generationType)) {
+            projectScaffoldPort.scaffold(appId, generationType);
+            return;
+        }
+        try {
+            prefetch.future().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("项目模板准备失败", cause);
+        }
+    }
+
+    /**
+     * 释放执行对应的预备任务，已开始的复制会在后台继续完成。
+     */
+    public void release(String executionId) {
+        if (executionId != null) {
+            prefetches.remove(executionId);
+        }
+    }
+
+    private record Prefetch(Long appId, CodeGenTypeEnum generationType, CompletableFuture<Void> future) {
+
+        private boolean matches(Long otherAppId, CodeGenTypeEnum otherType) {
+            return appId != null && appId.equals(otherAppId) && generationType == otherType;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowCheckpointPort;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 工作流检查点。
+ *
+ * 包装节点 Action：节点完成后把整个 WorkflowContext 保存为检查点；
+ * 从检查点恢复时按原路径重放，已完成的节点访问直接跳过，只重新执行中断处及之后的节点。
+ * 路由函数只读取上下文，而恢复后的上下文已包含所有已完成节点的产出，因此重放会走到同一个断点。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowCheckpointer {
+
+    private final WorkflowCheckpointPort workflowCheckpointPort;
+    private final WorkflowMessagePort workflowMessagePort;
+
+    /**
+     * 为节点 Action 加上检查点保存与恢复跳过。
+     */
+    public AsyncNodeAction<MessagesState<String>> checkpointed(
+            String nodeId, AsyncNodeAction<MessagesState<String>> action) {
+        return state -> {
+            WorkflowContext context = WorkflowContext.getContext(state);
+            if (context == null || context.getCheckpointKey() == null) {
+                return action.apply(state);
+            }
+            String nodeVisit = context.nextNodeVisit(nodeId);
+            if (context.isNodeVisitCompleted(nodeVisit)) {
+                log.info("节点已在检查点中完成，跳过: {}", nodeVisit);
+                workflowMessagePort.emitNodeMessage(context.getWorkflowExecutionId(), nodeId, "已从检查点恢复，跳过执行\n");
+                return CompletableFuture.completedFuture(WorkflowContext.saveContext(context));
+            }
+            return action.apply(state).thenApply(result -> {
+                WorkflowContext updated = contextOf(result, context);
+                updated.markNodeVisitCompleted(nodeVisit);
+                save(updated);
+                return result;
+            });
+        };
+    }
+
+    /**
+     * 读取可恢复的检查点。
+     */
+    public Optional<WorkflowContext> load(String checkpointKey) {
+        if (checkpointKey == null) {
+            return Optional.empty();
+        }
+        return workflowCheckpointPort.load(checkpointKey);
+    }
+
+    /**
+     * 丢弃检查点：运行成功结束，或开始一次新的运行时调用。
+     */
+    public void discard(String checkpointKey) {
+        if (checkpointKey == null) {
+            return;
+        }
+        try {
+            workflowCheckpointPort.delete(checkpointKey);
+        } catch (Exception e) {
+            log.warn("删除工作流检查点失败: key={}, error={}", checkpointKey, e.getMessage());
+        }
+    }
+
+    private void save(WorkflowContext context) {
+        try {
+            // 并发节点共享同一个上下文对象，序列化时由 WorkflowContext 自身持锁，得到一致的快照
+            workflowCheckpointPort.save(context.getCheckpointKey(), context);
+        } catch (Exception e) {
+            // 检查点只用于中断恢复，保存失败不能打断本次生成
+            log.warn("保存工作流检查点失败: key={}, error={}", context.getCheckpointKey(), e.getMessage());
+        }
+    }
+
+    private static WorkflowContext contextOf(Map<String, Object> result, WorkflowContext fallback) {
+        Object context = result != null ? result.get(WorkflowContext.WORKFLOW_CONTEXT_KEY) : null;
+        return context instanceof WorkflowContext workflowContext ? workflowContext : fallback;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 工作流时限。
+ *
+ * 两级时限：节点时限按生成类型与节点 ID 配置，约束单个节点等待模型输出的时间；
+ * 运行时限在运行开始时写入 {@link WorkflowContext#getRunDeadline()}，约束整次运行。
+ * 节点等待模型输出时取两者中先到的一个，超时后取消订阅（进而取消底层 TokenStream），
+ * 不再让卡住的上游流长期占用虚拟线程、FluxSink 与生成任务。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowDeadlines {
+
+    private final WorkflowTimeoutSettings workflowTimeoutSettings;
+
+    /**
+     * 从当前时刻起算的运行截止时间。
+     */
+    public Instant runDeadlineFromNow() {
+        return Instant.now().plus(workflowTimeoutSettings.getRunTimeout());
+    }
+
+    /**
+     * 为节点 Action 加上运行时限检查：运行已超时则不再执行该节点；
+     * 节点执行期间运行超时（节点可能把超时当作普通失败吞掉）则在节点结束后终止整次运行。
+     */
+    public AsyncNodeAction<MessagesState<String>> guarded(
+            String nodeId, AsyncNodeAction<MessagesState<String>> action) {
+        return state -> {
+            WorkflowContext context = WorkflowContext.getContext(state);
+            Instant runDeadline = context != null ? context.getRunDeadline() : null;
+            if (isExpired(runDeadline)) {
+                return CompletableFuture.failedFuture(runTimeout(nodeId));
+            }
+            return action.apply(state).thenApply(result -> {
+                if (isExpired(runDeadline)) {
+                    throw runTimeout(nodeId);
+                }
+                return result;
+            });
+        };
+    }
+
+    /**
+     * 订阅节点的模型输出流并在时限内等待其结束。
+     * 超时后取消订阅并抛出 {@link WorkflowTimeoutException}；流以错误结束时包装为 RuntimeException 抛出。
+     */
+    public <T> void awaitStream(WorkflowContext context, String nodeId, Flux<T> stream, Consumer<? super T> onNext)
+            throws InterruptedException {
+        Duration nodeBudget = workflowTimeoutSettings.resolveNodeTimeout(context.getGenerationType(), nodeId);
+        Duration runRemaining = context.getRunDeadline() != null
+                ? Duration.between(Instant.now(), context.getRunDeadline())
+                : null;
+        boolean runBound = runRemaining != null && runRemaining.compareTo(nodeBudget) < 0;
+        Duration wait = runBound ? runRemaining : nodeBudget;
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Throwable> errorRef = new AtomicReference<>();
+        Disposable subscription = stream
+                .doFinally(signalType -> latch.countDown())
+                .subscribe(onNext, errorRef::set);
+
+        if (!latch.await(Math.max(0, wait.toMillis()), TimeUnit.MILLISECONDS)) {
+            subscription.dispose();
+            WorkflowTimeoutException timeout = runBound
+                    ? new WorkflowTimeoutException(WorkflowTimeoutException.Scope.RUN, nodeId,
+                    workflowTimeoutSettings.getRunTimeout())
+                    : new WorkflowTimeoutException(WorkflowTimeoutException.Scope.NODE, nodeId, nodeBudget);
+            log.warn("{}", timeout.getMessage());
+            throw timeout;
+        }
+        if (errorRef.get() != null) {
+            throw new RuntimeException(errorRef.get());
+        }
+    }
+
+    private static boolean isExpired(Instant runDeadline) {
+        return runDeadline != null && !Instant.now().isBefore(runDeadline);
+    }
+
+    private WorkflowTimeoutException runTimeout(String nodeId) {
+        log.warn("工作流运行超时，终止于节点: {}", nodeId);
+        return new WorkflowTimeoutException(
+                WorkflowTimeoutException.Scope.RUN, nodeId, workflowTimeoutSettings.getRunTimeout());
+    }
+}
@@ -0,0 +1,39 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 工作流超时异常。
+ *
+ * 区分节点超时与整次运行超时：节点超时由节点按普通失败处理并继续后续流程，
+ * 运行超时会在下一个节点开始前终止整次运行。
+ */
+@Getter
+public class WorkflowTimeoutException extends RuntimeException {
+
+    public enum Scope {
+        /**
+         * 单个节点等待模型输出超过节点时限
+         */
+        NODE,
+        /**
+         * 整次运行超过运行时限
+         */
+        RUN
+    }
+
+    private final Scope scope;
+    private final String nodeId;
+    private final Duration budget;
+
+    public WorkflowTimeoutException(Scope scope, String nodeId, Duration budget) {
+        super(scope == Scope.RUN
+                ? String.format("工作流执行超时（时限 %d 秒），已在节点 %s 处终止", budget.toSeconds(), nodeId)
+                : String.format("节点 %s 执行超时（时限 %d 秒），已取消模型输出", nodeId, budget.toSeconds()));
+        this.scope = scope;
+        this.nodeId = nodeId;
+        this.budget = budget;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+
+import java.time.Duration;
+
+/**
+ * 工作流时限设置。
+ * {@link WorkflowDeadlines} 只依赖这里的取值，由基础设施层的配置绑定实现。
+ *
+ * @author dango
+ */
+public interface WorkflowTimeoutSettings {
+
+    Duration getRunTimeout();
+
+    /**
+     * 解析节点时限：生成类型覆盖 > 节点配置 > 默认值。
+     */
+    Duration resolveNodeTimeout(CodeGenTypeEnum generationType, String nodeId);
+}
@@ -2,8 +2,11 @@ package com.dango.dangoaicodeapp.domain.codegen.workflow.command;
 
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.app.valueobject.ElementInfo;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
 import lombok.Builder;
 
+import java.time.Instant;
+
 /**
  * 工作流运行命令。
  * 统一聚合工作流所需入参，避免方法重载扩散。
@@ -16,7 +19,10 @@ public record RunWorkflowCommand(
         boolean databaseEnabled,
         String databaseSchema,
         CodeGenTypeEnum generationType,
-        String workflowExecutionId
+        String workflowExecutionId,
+        String checkpointKey,
+        WorkflowContext resumeContext,
+        Instant runDeadline
 ) {
 
     public RunWorkflowCommand {
@@ -28,6 +34,13 @@ public record RunWorkflowCommand(
         }
     }
 
+    /**
+     * 是否从检查点恢复运行。
+     */
+    public boolean isResume() {
+        return resumeContext != null;
+    }
+
     public RunWorkflowCommand withWorkflowExecutionId(String executionId) {
         return this.toBuilder().workflowExecutionId(executionId).build();
     }
@@ -15,9 +15,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bsc.langgraph4j.prebuilt.MessagesState;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -131,6 +136,11 @@ public class WorkflowContext implements Serializable {
      */
     public static final int MAX_FIX_RETRY_COUNT = 3;
 
+    /**
+     * 同一构建错误最多交给修复节点处理的次数，第二次处理时提示换一种修复思路，再次出现则结束修复循环
+     */
+    public static final int MAX_SAME_BUILD_ERROR_COUNT = 2;
+
     /**
      * 操作模式（CREATE、MODIFY、FIX）
      */
@@ -157,6 +167,16 @@ public class WorkflowContext implements Serializable {
     @Builder.Default
     private int fixRetryCount = 0;
 
+    /**
+     * 构建错误指纹历史（归一化错误摘要的哈希），按构建检查顺序记录
+     */
+    private List<String> buildErrorFingerprints;
+
+    /**
+     * 最近一次修复前后源码哈希一致，即修复节点没有写入任何改动
+     */
+    private boolean lastFixUnchanged;
+
     // ========== 数据库相关字段 ==========
 
     /**
@@ -187,6 +207,28 @@ public class WorkflowContext implements Serializable {
      */
     private ModificationPlanResult modificationPlan;
 
+    // ========== 检查点相关字段 ==========
+
+    /**
+     * 检查点标识，为空时不保存检查点
+     */
+    private String checkpointKey;
+
+    /**
+     * 已完成的节点访问（节点 ID#第几次访问），按完成顺序记录
+     */
+    private List<String> completedNodeVisits;
+
+    /**
+     * 本次运行中各节点的访问次数，恢复运行时清零后按同样的路径重新计数
+     */
+    private Map<String, Integer> nodeVisitCounts;
+
+    /**
+     * 整次运行的截止时间，节点等待模型输出时取节点预算与剩余时间中较小者；为空表示不限
+     */
+    private Instant runDeadline;
+
     // ========== 数据库操作辅助方法 ==========
 
     /**
@@ -250,6 +292,107 @@ public class WorkflowContext implements Serializable {
         return modificationPlan.getFilesToModify();
     }
 
+    // ========== 构建修复循环辅助方法 ==========
+
+    /**
+     * 记录一次构建失败的错误指纹
+     */
+    public void recordBuildErrorFingerprint(String fingerprint) {
+        if (buildErrorFingerprints == null) {
+            buildErrorFingerprints = new ArrayList<>();
+        }
+        buildErrorFingerprints.add(fingerprint);
+    }
+
+    /**
+     * 最近一次构建错误在历史中出现的次数（含本次），无指纹时返回 0
+     */
+    public int latestBuildErrorOccurrences() {
+        if (buildErrorFingerprints == null || buildErrorFingerprints.isEmpty()) {
+            return 0;
+        }
+        String latest = buildErrorFingerprints.get(buildErrorFingerprints.size() - 1);
+        if (latest == null) {
+            return 0;
+        }
+        return (int) buildErrorFingerprints.stream().filter(latest::equals).count();
+    }
+
+    // ========== 并发分支写入的字段 ==========
+
+    /*
+     * 并发图片收集的各分支共享同一个上下文对象，这些 setter 与检查点序列化（writeObject）持同一把锁，
+     * 序列化不会与分支写入交错；列表复制后保存，分支之后再修改自己的列表也不影响上下文。
+     */
+
+    public synchronized void setCurrentStep(String currentStep) {
+        this.currentStep = currentStep;
+    }
+
+    public synchronized void setContentImages(List<ImageResource> contentImages) {
+        this.contentImages = copyOf(contentImages);
+    }
+
+    public synchronized void setIllustrations(List<ImageResource> illustrations) {
+        this.illustrations = copyOf(illustrations);
+    }
+
+    public synchronized void setDiagrams(List<ImageResource> diagrams) {
+        this.diagrams = copyOf(diagrams);
+    }
+
+    public synchronized void setLogos(List<ImageResource> logos) {
+        this.logos = copyOf(logos);
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return list != null ? new ArrayList<>(list) : null;
+    }
+
+    @Serial
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+    }
+
+    // ========== 检查点辅助方法 ==========
+
+    /**
+     * 记一次节点访问，返回本次访问的标识（节点 ID#序号）。
+     * 构建/修复循环会多次访问同一节点，按序号区分。
+     */
+    public synchronized String nextNodeVisit(String nodeId) {
+        if (nodeVisitCounts == null) {
+            nodeVisitCounts = new HashMap<>();
+        }
+        return nodeId + "#" + nodeVisitCounts.merge(nodeId, 1, Integer::sum);
+    }
+
+    /**
+     * 该节点访问是否已在之前的运行中完成
+     */
+    public synchronized boolean isNodeVisitCompleted(String nodeVisit) {
+        return completedNodeVisits != null && completedNodeVisits.contains(nodeVisit);
+    }
+
+    /**
+     * 记录节点访问已完成
+     */
+    public synchronized void markNodeVisitCompleted(String nodeVisit) {
+        if (completedNodeVisits == null) {
+            completedNodeVisits = new ArrayList<>();
+        }
+        if (!completedNodeVisits.contains(nodeVisit)) {
+            completedNodeVisits.add(nodeVisit);
+        }
+    }
+
+    /**
+     * 从检查点恢复前调用：保留已完成记录，访问计数清零
+     */
+    public synchronized void resetNodeVisitCounts() {
+        nodeVisitCounts = null;
+    }
+
     // ========== 上下文操作方法 ==========
 
     /**
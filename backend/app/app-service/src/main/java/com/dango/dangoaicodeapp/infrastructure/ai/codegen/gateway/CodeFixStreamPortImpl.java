@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeFixStreamPort;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.factory.AiCodeFixerServiceFactory;
@@ -20,7 +21,7 @@ public class CodeFixStreamPortImpl implements CodeFixStreamPort {
     private final TokenStreamMessageFluxFactory tokenStreamMessageFluxFactory;
 
     @Override
-    public Flux<String> fixCodeStream(long appId, CodeGenTypeEnum codeGenType, String fixRequest) {
+    public Flux<StreamMessage> fixCodeStream(long appId, CodeGenTypeEnum codeGenType, String fixRequest) {
         CodeFixerService service = aiCodeFixerServiceFactory.getFixerService(appId, codeGenType);
         TokenStream tokenStream = service.fixCodeStream(appId, fixRequest);
         return tokenStreamMessageFluxFactory.toTextAndToolFlux(tokenStream);
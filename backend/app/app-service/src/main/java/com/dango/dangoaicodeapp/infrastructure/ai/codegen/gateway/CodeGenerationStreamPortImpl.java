@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeGenerationStreamPort;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.service.AiCodeGeneratorFacade;
@@ -17,7 +18,7 @@ public class CodeGenerationStreamPortImpl implements CodeGenerationStreamPort {
     private final AiCodeGeneratorFacade aiCodeGeneratorFacade;
 
     @Override
-    public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
         return aiCodeGeneratorFacade.generateAndSaveCodeStream(userMessage, codeGenTypeEnum, appId);
     }
 }
@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeModificationStreamPort;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.factory.AiCodeModifierServiceFactory;
@@ -20,7 +21,7 @@ public class CodeModificationStreamPortImpl implements CodeModificationStreamPor
     private final TokenStreamMessageFluxFactory tokenStreamMessageFluxFactory;
 
     @Override
-    public Flux<String> modifyCodeStream(long appId, CodeGenTypeEnum codeGenType, String modifyRequest) {
+    public Flux<StreamMessage> modifyCodeStream(long appId, CodeGenTypeEnum codeGenType, String modifyRequest) {
         AiCodeModifierService service = aiCodeModifierServiceFactory.getModifierService(appId, codeGenType);
         TokenStream tokenStream = service.modifyVueProjectCodeStream(appId, modifyRequest);
         return tokenStreamMessageFluxFactory.toTextAndToolFlux(tokenStream);
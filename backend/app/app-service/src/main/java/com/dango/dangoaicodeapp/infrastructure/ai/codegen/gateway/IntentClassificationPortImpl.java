@@ -1,20 +1,65 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
+import cn.hutool.crypto.SecureUtil;
 import com.dango.dangoaicodeapp.domain.codegen.port.IntentClassificationPort;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.factory.AiIntentClassifierServiceFactory;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.service.IntentClassifierService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Slf4j
 @Component
 public class IntentClassificationPortImpl implements IntentClassificationPort {
 
+    private static final Set<String> CACHEABLE_INTENTS = Set.of("MODIFY", "QA");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\p{Punct}，。！？、；：…～\\s]+$");
+
     @Resource
     private AiIntentClassifierServiceFactory aiIntentClassifierServiceFactory;
 
+    /**
+     * 意图识别结果缓存，key 为 appId + 归一化用户消息的哈希
+     */
+    private final Cache<String, String> intentCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+
     @Override
-    public String classify(String classifyInput) {
+    public String classify(Long appId, String userMessage, String classifyInput) {
+        String cacheKey = cacheKey(appId, userMessage);
+        String cached = intentCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            log.info("意图识别命中缓存: appId={}, intent={}", appId, cached);
+            return cached;
+        }
         IntentClassifierService service = aiIntentClassifierServiceFactory.createService();
-        return service.classify(classifyInput);
+        String intent = service.classify(classifyInput);
+        String normalizedIntent = intent == null ? "" : intent.trim().toUpperCase(Locale.ROOT);
+        // 只缓存合法结果，异常输出下次仍交给模型
+        if (CACHEABLE_INTENTS.contains(normalizedIntent)) {
+            intentCache.put(cacheKey, normalizedIntent);
+        }
+        return intent;
+    }
+
+    /**
+     * 归一化：去首尾空白与句末标点、合并空白、统一小写
+     */
+    static String cacheKey(Long appId, String userMessage) {
+        String text = userMessage == null ? "" : userMessage.trim().toLowerCase(Locale.ROOT);
+        text = TRAILING_PUNCTUATION.matcher(text).replaceAll("");
+        text = WHITESPACE.matcher(text).replaceAll(" ");
+        return appId + ":" + SecureUtil.sha256(text);
     }
 }
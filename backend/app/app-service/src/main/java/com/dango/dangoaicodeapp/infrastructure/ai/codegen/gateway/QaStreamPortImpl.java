@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.QaStreamPort;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.factory.AiQAServiceFactory;
 import com.dango.dangoaicodeapp.infrastructure.ai.codegen.service.QAService;
@@ -19,7 +20,7 @@ public class QaStreamPortImpl implements QaStreamPort {
     private final TokenStreamMessageFluxFactory tokenStreamMessageFluxFactory;
 
     @Override
-    public Flux<String> answer(long appId, String qaInput) {
+    public Flux<StreamMessage> answer(long appId, String qaInput) {
         QAService qaService = aiQaServiceFactory.createService(appId);
         TokenStream tokenStream = qaService.answer(appId, qaInput);
         return tokenStreamMessageFluxFactory.toTextFlux(tokenStream);
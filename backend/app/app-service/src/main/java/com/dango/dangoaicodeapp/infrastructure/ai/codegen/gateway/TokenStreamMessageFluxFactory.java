@@ -1,49 +1,65 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
-import cn.hutool.json.JSONUtil;
 import com.dango.aicodegenerate.model.message.AiResponseMessage;
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import com.dango.aicodegenerate.streaming.StreamingCancellation;
 import com.dango.aicodegenerate.streaming.StreamingResponseProcessor;
 import dev.langchain4j.service.TokenStream;
-import jakarta.annotation.Resource;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
 /**
  * TokenStream -> Flux 消息转换器。
+ * 只产出类型化消息，JSON 序列化由 SSE/Redis 出口统一完成；下游取消订阅时取消底层模型流。
  */
 @Component
+@RequiredArgsConstructor
 public class TokenStreamMessageFluxFactory {
 
-    @Resource
-    private StreamingResponseProcessor streamingProcessor;
+    private final StreamingResponseProcessor streamingProcessor;
 
     /**
-     * 转换为仅文本消息流（JSON 字符串）。
+     * 转换为仅文本消息流。
      */
-    public Flux<String> toTextFlux(TokenStream tokenStream) {
-        return Flux.create(sink -> tokenStream
-                .onPartialResponse(chunk -> sink.next(JSONUtil.toJsonStr(new AiResponseMessage(chunk))))
-                .onCompleteResponse(response -> sink.complete())
-                .onError(sink::error)
-                .start());
+    public Flux<StreamMessage> toTextFlux(TokenStream tokenStream) {
+        return Flux.create(sink -> {
+            StreamingCancellation cancellation = StreamingCancellation.bindTo(sink);
+            tokenStream
+                    .onPartialResponseWithContext((chunk, context) -> {
+                        if (!cancellation.register(context.streamingHandle())) {
+                            sink.next(new AiResponseMessage(chunk.text()));
+                        }
+                    })
+                    .onCompleteResponse(response -> sink.complete())
+                    .onError(sink::error)
+                    .start();
+        });
     }
 
     /**
-     * 转换为纯文本分片流（不做 JSON 包装）。
+     * 转换为纯文本分片流（不做消息包装）。
      */
     public Flux<String> toChunkFlux(TokenStream tokenStream) {
-        return Flux.create(sink -> tokenStream
-                .onPartialResponse(sink::next)
-                .onCompleteResponse(response -> sink.complete())
-                .onError(sink::error)
-                .start());
+        return Flux.create(sink -> {
+            StreamingCancellation cancellation = StreamingCancellation.bindTo(sink);
+            tokenStream
+                    .onPartialResponseWithContext((chunk, context) -> {
+                        if (!cancellation.register(context.streamingHandle())) {
+                            sink.next(chunk.text());
+                        }
+                    })
+                    .onCompleteResponse(response -> sink.complete())
+                    .onError(sink::error)
+                    .start();
+        });
     }
 
     /**
-     * 转换为文本 + 工具调用消息流（JSON 字符串）。
+     * 转换为文本 + 工具调用消息流。
      * 使用 ai 模块的 StreamingResponseProcessor 处理流式响应。
      */
-    public Flux<String> toTextAndToolFlux(TokenStream tokenStream) {
-        return streamingProcessor.processAsJson(tokenStream);
+    public Flux<StreamMessage> toTextAndToolFlux(TokenStream tokenStream) {
+        return streamingProcessor.process(tokenStream);
     }
 }
@@ -1,5 +1,6 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.service;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.aicodegenerate.streaming.StreamingResponseProcessor;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.CodeGenerationPort;
@@ -29,9 +30,9 @@ public class AiCodeGeneratorFacade {
      * @param codeGenTypeEnum 生成类型
      * @param appId           应用 id
      */
-    public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
         TokenStream tokenStream = codeGenerationPort.generateCodeStream(appId, codeGenTypeEnum, userMessage);
         // 使用 ai 模块的 StreamingResponseProcessor 处理流式响应
-        return streamingProcessor.processAsJson(tokenStream);
+        return streamingProcessor.process(tokenStream);
     }
 }
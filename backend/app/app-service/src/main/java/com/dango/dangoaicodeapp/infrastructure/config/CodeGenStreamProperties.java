@@ -0,0 +1,98 @@
+package com.dango.dangoaicodeapp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 代码生成流式输出配置。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "codegen.stream")
+public class CodeGenStreamProperties {
+
+    /**
+     * SSE 消费端空闲时的兜底检查间隔。
+     * 本节点写入会立即唤醒订阅者，其他节点的写入经 Redis 广播唤醒，该间隔只在广播丢失或未启用时兜底。
+     */
+    private Duration idleCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * 是否通过 Redis Pub/Sub 把流追加与任务收口广播给其他节点的订阅者。
+     */
+    private boolean crossNodeNudgeEnabled = true;
+
+    /**
+     * 是否合并缓冲 token 后再写入 Redis Stream。
+     */
+    private boolean appendBufferEnabled = true;
+
+    /**
+     * 追加缓冲的最长停留时间，超过后由后台线程刷出。
+     */
+    private Duration appendFlushInterval = Duration.ofMillis(30);
+
+    /**
+     * 追加缓冲的字符数阈值，达到后立即刷出。
+     */
+    private int appendBufferMaxChars = 4096;
+
+    /**
+     * 是否把较早的流记录合并搬移到压缩流，缩短重连回放。
+     */
+    private boolean compactionEnabled = true;
+
+    /**
+     * 距上次压缩累计写入达到该条数时触发压缩。
+     */
+    private int compactEveryRecords = 256;
+
+    /**
+     * 节点边界（日志帧）处触发压缩所需的最少累计写入条数，避免短节点频繁压缩。
+     */
+    private int compactBoundaryRecords = 32;
+
+    /**
+     * 只压缩早于该时长的记录，需明显大于 idleCheckInterval，让在线订阅者的游标通常不落在合并区间内；
+     * 落在区间内时（如客户端带旧游标重连）读取按压缩记录中的 offsets 截取，不会重复下发。
+     */
+    private Duration compactMinAge = Duration.ofSeconds(10);
+
+    /**
+     * 单次压缩最多处理的原始记录条数。
+     */
+    private int compactBatchSize = 500;
+
+    /**
+     * 原始流的近似长度上限（XTRIM MAXLEN ~），压缩失效时兜底限制内存。
+     */
+    private long maxLen = 10000;
+
+    /**
+     * 共享流读取器在内存中保留的最近记录条数，游标落在窗口内的新订阅者无需再读 Redis 追赶。
+     */
+    private int fanoutWindowRecords = 256;
+
+    /**
+     * 单次工作流执行输出通道的容量（消息条数），下游变慢时内容消息阻塞节点，日志消息合并或丢弃。
+     */
+    private int workflowOutputBufferSize = 256;
+
+    /**
+     * 是否在生成过程中把 AI 回复分段追加到 chat_history，关闭时只在会话收口时整段写入。
+     */
+    private boolean historyCheckpointEnabled = true;
+
+    /**
+     * 未落库内容达到该字符数时追加写入 chat_history。
+     */
+    private int historyCheckpointChars = 16384;
+
+    /**
+     * 两次分段落库的最长间隔，控制进程崩溃时最多丢失的内容范围。
+     */
+    private Duration historyCheckpointInterval = Duration.ofSeconds(5);
+}
@@ -13,7 +13,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * 代码生成工作流配置。
- * 统一托管 Workflow 生命周期，避免请求级重复创建并行执行器。
+ * 统一托管 Workflow 生命周期，避免请求级重复创建并行执行器与重复编译工作流图。
  */
 @Configuration
 public class CodeGenWorkflowConfig {
@@ -34,6 +34,8 @@ public class CodeGenWorkflowConfig {
     public CodeGenWorkflow codeGenWorkflow(
             @Qualifier("codeGenWorkflowParallelExecutor") ExecutorService parallelExecutor,
             CodeGenWorkflowFactory codeGenWorkflowFactory) {
-        return new CodeGenWorkflow(parallelExecutor, codeGenWorkflowFactory);
+        CodeGenWorkflow codeGenWorkflow = new CodeGenWorkflow(parallelExecutor, codeGenWorkflowFactory);
+        codeGenWorkflow.warmUp();
+        return codeGenWorkflow;
     }
 }
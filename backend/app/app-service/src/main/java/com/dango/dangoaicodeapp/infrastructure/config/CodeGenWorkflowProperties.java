@@ -0,0 +1,125 @@
+package com.dango.dangoaicodeapp.infrastructure.config;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.WorkflowTimeoutSettings;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 代码生成工作流运行配置。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "codegen.workflow")
+public class CodeGenWorkflowProperties implements WorkflowTimeoutSettings {
+
+    /**
+     * 是否在每个节点完成后保存工作流检查点，供中断后从最后完成的节点恢复。
+     */
+    private boolean checkpointEnabled = true;
+
+    /**
+     * 检查点存储：redis（默认）或 file（本地文件，用于测试与单机调试）。
+     */
+    private String checkpointStore = "redis";
+
+    /**
+     * 检查点保留时长，超过后视为不可恢复。
+     */
+    private Duration checkpointTtl = Duration.ofHours(1);
+
+    /**
+     * file 存储的目录。
+     */
+    private String checkpointDir = System.getProperty("java.io.tmpdir") + "/codegen-checkpoints";
+
+    /**
+     * 单个图片收集节点内并发任务的总截止时间，到期后返回已完成的结果。
+     */
+    private Duration imageCollectDeadline = Duration.ofSeconds(30);
+
+    /**
+     * 各图片提供方的全局并发上限（所有生成共享），未配置的提供方使用 imageProviderDefaultConcurrency。
+     * pexels/undraw 为外部搜索接口，mermaid 每个任务会拉起一次 mmdc 渲染进程，logo 受 DashScope 限流约束。
+     */
+    private Map<String, Integer> imageProviderConcurrency = new HashMap<>(Map.of(
+            "pexels", 4,
+            "undraw", 4,
+            "mermaid", 2,
+            "logo", 2));
+
+    /**
+     * 未单独配置的图片提供方的并发上限。
+     */
+    private int imageProviderDefaultConcurrency = 2;
+
+    /**
+     * 整次运行的时限，超过后在下一个节点开始前终止运行，正在等待模型输出的节点也会被取消。
+     */
+    private Duration runTimeout = Duration.ofMinutes(20);
+
+    /**
+     * 未单独配置的节点等待模型输出的时限。
+     */
+    private Duration defaultNodeTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 按节点 ID 配置的等待时限，对所有生成类型生效。
+     */
+    private Map<String, Duration> nodeTimeouts = new HashMap<>(Map.of(
+            "code_generator", Duration.ofMinutes(12),
+            "code_modifier", Duration.ofMinutes(10),
+            "code_fixer", Duration.ofMinutes(6),
+            "qa_node", Duration.ofMinutes(3),
+            "animation_advisor", Duration.ofMinutes(5),
+            "interview_animation_advisor", Duration.ofMinutes(5),
+            "source_code_advisor", Duration.ofMinutes(5)));
+
+    /**
+     * 按生成类型覆盖的节点时限（生成类型 -> 节点 ID -> 时限），优先于 nodeTimeouts。
+     */
+    private Map<CodeGenTypeEnum, Map<String, Duration>> typeNodeTimeouts = new EnumMap<>(CodeGenTypeEnum.class);
+
+    /**
+     * 本节点同时执行的工作流上限，超出的请求进入准入队列等待。
+     */
+    private int maxConcurrentRuns = 8;
+
+    /**
+     * 单个用户同时执行的工作流上限，避免少数用户占满执行槽位。
+     */
+    private int maxConcurrentRunsPerUser = 2;
+
+    /**
+     * 准入队列容量，队列满时直接拒绝新请求。
+     */
+    private int admissionQueueCapacity = 200;
+
+    /**
+     * 单个请求在准入队列中的最长等待时间，需小于生成流订阅端的空闲超时（5 分钟）。
+     */
+    private Duration admissionMaxWait = Duration.ofMinutes(3);
+
+    /**
+     * 在内存中保留的最近执行时间线条数，供管理端查询。
+     */
+    private int profilerRetainedRuns = 200;
+
+    /**
+     * 解析节点时限：生成类型覆盖 > 节点配置 > 默认值。
+     */
+    @Override
+    public Duration resolveNodeTimeout(CodeGenTypeEnum generationType, String nodeId) {
+        Map<String, Duration> typeTimeouts = generationType == null ? null : typeNodeTimeouts.get(generationType);
+        if (typeTimeouts != null && typeTimeouts.containsKey(nodeId)) {
+            return typeTimeouts.get(nodeId);
+        }
+        return nodeTimeouts.getOrDefault(nodeId, defaultNodeTimeout);
+    }
+}
@@ -0,0 +1,80 @@
+package com.dango.dangoaicodeapp.infrastructure.config;
+
+import com.dango.dangoaicodeapp.domain.codegen.builder.ProjectBuildSettings;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 项目构建配置。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "codegen.build")
+public class ProjectBuildProperties implements ProjectBuildSettings {
+
+    /**
+     * 全局同时执行的构建数上限。Vite/Rollup 构建本身会占满一个以上的核，默认取可用核数的一半，
+     * 为模型流式输出与其他请求留出余量。
+     */
+    private int maxConcurrentBuilds = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 调用方同步等待一次构建结果的最长时间，含排队、同项目前一次构建与依赖安装。
+     * 超时后调用方得到失败结果，构建本身仍在调度器中执行完毕。
+     */
+    private Duration maxWait = Duration.ofMinutes(10);
+
+    /**
+     * 是否使用常驻 Node 构建进程执行 vite build；不可用时回退为每次拉起 npm run build。
+     */
+    private boolean workerEnabled = true;
+
+    /**
+     * 常驻构建进程数上限，每个进程同一时间只执行一个构建。
+     */
+    private int workerPoolSize = 2;
+
+    /**
+     * 单个构建进程执行多少次构建后回收重建，避免插件缓存与内存持续增长。
+     */
+    private int workerMaxBuilds = 50;
+
+    /**
+     * 等待空闲构建进程的最长时间，超时后本次改走 npm run build。
+     */
+    private Duration workerAcquireTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 构建进程启动失败后暂停使用的时间，期间直接走 npm run build。
+     */
+    private Duration workerRetryBackoff = Duration.ofMinutes(1);
+
+    /**
+     * 完整构建前是否先用常驻构建进程对自上次成功构建后改动的源码做语法预检查。
+     */
+    private boolean precheckEnabled = true;
+
+    /**
+     * 预检查超时，超时后跳过预检查直接执行完整构建。
+     */
+    private Duration precheckTimeout = Duration.ofSeconds(20);
+
+    /**
+     * 是否为每个应用使用独立的持久 Vite 缓存目录。
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * 应用缓存目录的根目录，与代码输出目录分开存放，不进入源码哈希与部署产物。
+     */
+    private String cacheRoot = System.getProperty("user.dir") + "/tmp/build_cache";
+
+    /**
+     * 缓存目录总磁盘预算，超出后按最近使用时间淘汰最久未用的应用缓存。
+     */
+    private DataSize cacheDiskBudget = DataSize.ofGigabytes(2);
+}
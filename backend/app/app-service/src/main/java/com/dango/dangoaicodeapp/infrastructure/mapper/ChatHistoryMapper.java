@@ -2,6 +2,7 @@ package com.dango.dangoaicodeapp.infrastructure.mapper;
 
 import com.dango.dangoaicodeapp.domain.app.entity.ChatHistory;
 import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
  * 对话历史 映射层。
@@ -10,4 +11,15 @@ import com.mybatisflex.core.BaseMapper;
  */
 public interface ChatHistoryMapper extends BaseMapper<ChatHistory> {
 
+    /**
+     * 在消息末尾追加内容，可同时更新状态
+     *
+     * @param id      消息 ID
+     * @param segment 追加的内容
+     * @param status  新状态，为 null 时不修改
+     * @return 影响行数
+     */
+    int appendMessage(@Param("id") Long id,
+                      @Param("segment") String segment,
+                      @Param("status") String status);
 }
@@ -0,0 +1,138 @@
+package com.dango.dangoaicodeapp.infrastructure.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成流延迟指标收集器
+ *
+ * 覆盖一次生成从模型出字到浏览器收到的各段耗时：
+ * <ul>
+ *   <li>codegen_stream_first_token_seconds：工作流开始执行到首个内容帧</li>
+ *   <li>codegen_stream_node_first_token_seconds：节点开始到该节点首个内容帧（按节点区分模型首字延迟）</li>
+ *   <li>codegen_stream_chunk_gap_seconds：同一节点相邻内容帧的间隔</li>
+ *   <li>codegen_stream_redis_append_seconds：单次 XADD 耗时</li>
+ *   <li>codegen_stream_delivery_delay_seconds：记录写入 Redis 到推送给 SSE 订阅者的延迟</li>
+ * </ul>
+ * 节点区间与首字判定只由 {@link WorkflowProfiler} 维护（节点标签为节点 ID），这里只负责记录指标。
+ * 延迟类指标同时发布 p50/p99 与直方图，便于直接看分位数或在 Prometheus 侧聚合。
+ *
+ * @author dango
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamLatencyMetrics {
+
+    /**
+     * 节点标签缺省值：内容帧出现在任何节点开始之前时使用。
+     */
+    static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    // 缓存已创建的指标，避免重复创建（按指标类型分离缓存）
+    private final ConcurrentMap<String, Timer> firstTokenTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> nodeFirstTokenTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> chunkGapTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> redisAppendTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> deliveryDelayTimersCache = new ConcurrentHashMap<>();
+
+    /**
+     * 记录整次执行的首个内容帧
+     */
+    public void recordFirstToken(String codeGenType, String nodeId, long elapsedNanos) {
+        firstTokenTimer(codeGenType, nodeId).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录节点的首个内容帧
+     */
+    public void recordNodeFirstToken(String codeGenType, String nodeId, long elapsedNanos) {
+        nodeFirstTokenTimer(codeGenType, nodeId).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录同一节点相邻内容帧的间隔
+     */
+    public void recordChunkGap(String codeGenType, String nodeId, long gapNanos) {
+        chunkGapTimer(codeGenType, nodeId).record(gapNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录单次 Redis Stream 追加耗时
+     */
+    public void recordRedisAppend(String msgType, long elapsedNanos) {
+        String type = msgType == null ? "content" : msgType;
+        Timer timer = redisAppendTimersCache.computeIfAbsent(type, k ->
+                Timer.builder("codegen_stream_redis_append_seconds")
+                        .description("生成流单次 Redis 追加耗时")
+                        .tag("msg_type", type)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录流记录从写入 Redis 到推送给 SSE 订阅者的延迟
+     */
+    public void recordDeliveryDelay(String codeGenType, Duration delay) {
+        String type = codeGenType == null ? UNKNOWN : codeGenType;
+        Timer timer = deliveryDelayTimersCache.computeIfAbsent(type, k ->
+                Timer.builder("codegen_stream_delivery_delay_seconds")
+                        .description("生成流记录写入到推送给浏览器的延迟")
+                        .tag("code_gen_type", type)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+        timer.record(delay.isNegative() ? Duration.ZERO : delay);
+    }
+
+    private Timer firstTokenTimer(String codeGenType, String nodeName) {
+        String key = String.format("%s_%s", codeGenType, nodeName);
+        return firstTokenTimersCache.computeIfAbsent(key, k ->
+                Timer.builder("codegen_stream_first_token_seconds")
+                        .description("工作流开始到首个内容帧的耗时")
+                        .tag("code_gen_type", codeGenType)
+                        .tag("node", nodeName)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+
+    private Timer nodeFirstTokenTimer(String codeGenType, String nodeName) {
+        String key = String.format("%s_%s", codeGenType, nodeName);
+        return nodeFirstTokenTimersCache.computeIfAbsent(key, k ->
+                Timer.builder("codegen_stream_node_first_token_seconds")
+                        .description("节点开始到该节点首个内容帧的耗时")
+                        .tag("code_gen_type", codeGenType)
+                        .tag("node", nodeName)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+
+    private Timer chunkGapTimer(String codeGenType, String nodeName) {
+        String key = String.format("%s_%s", codeGenType, nodeName);
+        return chunkGapTimersCache.computeIfAbsent(key, k ->
+                Timer.builder("codegen_stream_chunk_gap_seconds")
+                        .description("同一节点相邻内容帧的间隔")
+                        .tag("code_gen_type", codeGenType)
+                        .tag("node", nodeName)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+}
@@ -0,0 +1,388 @@
+package com.dango.dangoaicodeapp.infrastructure.monitor;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowProfilerPort;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作流性能剖析器
+ *
+ * 为每次执行记录一条时间线：准入队列等待、各节点开始/结束、节点首个内容帧（模型首字延迟）、
+ * 工具调用次数与耗时，以及构建检查耗时；执行中与最近结束的时间线可经管理端接口查询。
+ * 同时导出以下指标：
+ * <ul>
+ *   <li>codegen_workflow_node_seconds：节点耗时，按节点 ID、生成类型与结果区分</li>
+ *   <li>codegen_workflow_tool_seconds：工具调用耗时（模型开始输出调用到执行完成）</li>
+ *   <li>codegen_workflow_run_seconds：整次执行耗时（不含排队），按生成类型与结束状态区分</li>
+ * </ul>
+ * 节点区间与首字判定只在这里维护，首字延迟与内容帧间隔按节点 ID 交给 {@link StreamLatencyMetrics} 记录。
+ *
+ * @author dango
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkflowProfiler implements WorkflowProfilerPort {
+
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+    public static final String STATUS_TIMEOUT = "timeout";
+    public static final String STATUS_REJECTED = "rejected";
+    public static final String STATUS_CANCELLED = "cancelled";
+
+    private static final String BUILD_NODE = "build_check";
+
+    private final MeterRegistry meterRegistry;
+    private final CodeGenWorkflowProperties codeGenWorkflowProperties;
+    private final StreamLatencyMetrics streamLatencyMetrics;
+
+    private final ConcurrentMap<String, RunProfile> activeRuns = new ConcurrentHashMap<>();
+    /**
+     * 最近结束的执行，新的在队首，访问时持有该对象的监视器
+     */
+    private final Deque<WorkflowTimeline> finishedRuns = new ArrayDeque<>();
+
+    // 缓存已创建的指标，避免重复创建（按指标类型分离缓存）
+    private final ConcurrentMap<String, Timer> nodeTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> toolTimersCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> runTimersCache = new ConcurrentHashMap<>();
+
+    /**
+     * 请求提交（进入准入队列），时间线从此刻起算
+     */
+    public void startRun(String executionId, Long appId, String codeGenType) {
+        if (executionId == null) {
+            return;
+        }
+        activeRuns.put(executionId, new RunProfile(executionId, appId, codeGenType));
+    }
+
+    /**
+     * 通过准入队列，开始执行
+     */
+    public void runAdmitted(String executionId) {
+        RunProfile run = run(executionId);
+        if (run == null) {
+            return;
+        }
+        synchronized (run) {
+            run.admittedNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void nodeStarted(String executionId, String nodeId) {
+        RunProfile run = run(executionId);
+        if (run == null) {
+            return;
+        }
+        synchronized (run) {
+            Span node = new Span(WorkflowTimeline.KIND_NODE, nodeId, System.nanoTime());
+            run.spans.add(node);
+            run.openNodes.addLast(node);
+        }
+    }
+
+    @Override
+    public void nodeFinished(String executionId, String nodeId, boolean success) {
+        RunProfile run = run(executionId);
+        if (run == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Span node = null;
+        synchronized (run) {
+            Iterator<Span> iterator = run.openNodes.descendingIterator();
+            while (iterator.hasNext()) {
+                Span candidate = iterator.next();
+                if (candidate.name.equals(nodeId)) {
+                    iterator.remove();
+                    candidate.endNanos = now;
+                    candidate.outcome = success ? "success" : "error";
+                    node = candidate;
+                    break;
+                }
+            }
+        }
+        if (node != null) {
+            nodeTimer(run.codeGenType, nodeId, node.outcome).record(now - node.startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录一个内容帧：整次执行与节点的首个内容帧记录首字延迟（节点首字同时计入时间线），后续内容帧记录间隔
+     */
+    public void contentEmitted(String executionId) {
+        RunProfile run = run(executionId);
+        if (run == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        String nodeId;
+        long runFirstTokenNanos = -1;
+        long nodeFirstTokenNanos = -1;
+        long chunkGapNanos = -1;
+        synchronized (run) {
+            // 流式节点之间串行执行，取最近开始且未结束的节点作为内容来源
+            Span node = run.openNodes.peekLast();
+            nodeId = node != null ? node.name : StreamLatencyMetrics.UNKNOWN;
+            if (!run.contentSeen) {
+                run.contentSeen = true;
+                runFirstTokenNanos = now - run.startedNanos();
+            }
+            if (node != null) {
+                if (node.lastContentNanos == 0) {
+                    nodeFirstTokenNanos = now - node.startNanos;
+                    Span firstToken = new Span(WorkflowTimeline.KIND_FIRST_TOKEN, node.name, node.startNanos);
+                    firstToken.endNanos = now;
+                    run.spans.add(firstToken);
+                } else {
+                    chunkGapNanos = now - node.lastContentNanos;
+                }
+                node.lastContentNanos = now;
+            }
+        }
+        if (runFirstTokenNanos >= 0) {
+            streamLatencyMetrics.recordFirstToken(run.codeGenType, nodeId, runFirstTokenNanos);
+        }
+        if (nodeFirstTokenNanos >= 0) {
+            streamLatencyMetrics.recordNodeFirstToken(run.codeGenType, nodeId, nodeFirstTokenNanos);
+        }
+        if (chunkGapNanos >= 0) {
+            streamLatencyMetrics.recordChunkGap(run.codeGenType, nodeId, chunkGapNanos);
+        }
+    }
+
+    /**
+     * 模型开始输出工具调用（同一调用的多次增量只记录第一次）
+     */
+    public void toolRequested(String executionId, String toolId, String toolName) {
+        RunProfile run = run(executionId);
+        if (run == null || toolId == null) {
+            return;
+        }
+        synchronized (run) {
+            if (!run.openTools.containsKey(toolId)) {
+                Span tool = new Span(WorkflowTimeline.KIND_TOOL, toolName, System.nanoTime());
+                run.openTools.put(toolId, tool);
+                run.spans.add(tool);
+            }
+        }
+    }
+
+    /**
+     * 工具执行完成
+     */
+    public void toolExecuted(String executionId, String toolId, String toolName) {
+        RunProfile run = run(executionId);
+        if (run == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Span tool;
+        synchronized (run) {
+            tool = toolId != null ? run.openTools.remove(toolId) : null;
+            if (tool == null) {
+                // 未收到调用开始（非流式工具），只能记录为瞬时条目
+                tool = new Span(WorkflowTimeline.KIND_TOOL, toolName, now);
+                run.spans.add(tool);
+            }
+            tool.endNanos = now;
+            run.toolCalls++;
+        }
+        toolTimer(tool.name).record(now - tool.startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 执行结束（含排队阶段被拒绝或取消），时间线转入最近结束列表
+     */
+    public void finishRun(String executionId, String status) {
+        RunProfile run = executionId == null ? null : activeRuns.remove(executionId);
+        if (run == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        WorkflowTimeline timeline;
+        synchronized (run) {
+            run.status = status;
+            run.finishedNanos = now;
+            timeline = run.toTimeline(now);
+            if (run.admittedNanos != 0) {
+                runTimer(run.codeGenType, status).record(now - run.admittedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        synchronized (finishedRuns) {
+            finishedRuns.addFirst(timeline);
+            while (finishedRuns.size() > Math.max(0, codeGenWorkflowProperties.getProfilerRetainedRuns())) {
+                finishedRuns.removeLast();
+            }
+        }
+    }
+
+    @Override
+    public List<WorkflowTimeline> recentTimelines(Long appId) {
+        long now = System.nanoTime();
+        List<WorkflowTimeline> result = new ArrayList<>();
+        List<WorkflowTimeline> running = new ArrayList<>();
+        for (RunProfile run : activeRuns.values()) {
+            if (appId == null || Objects.equals(appId, run.appId)) {
+                synchronized (run) {
+                    running.add(run.toTimeline(now));
+                }
+            }
+        }
+        running.sort(Comparator.comparingLong(WorkflowTimeline::submittedAt).reversed());
+        result.addAll(running);
+        synchronized (finishedRuns) {
+            for (WorkflowTimeline timeline : finishedRuns) {
+                if (appId == null || Objects.equals(appId, timeline.appId())) {
+                    result.add(timeline);
+                }
+            }
+        }
+        return result;
+    }
+
+    private RunProfile run(String executionId) {
+        return executionId == null ? null : activeRuns.get(executionId);
+    }
+
+    private Timer nodeTimer(String codeGenType, String nodeId, String outcome) {
+        String key = String.format("%s_%s_%s", codeGenType, nodeId, outcome);
+        return nodeTimersCache.computeIfAbsent(key, k ->
+                Timer.builder("codegen_workflow_node_seconds")
+                        .description("工作流节点耗时")
+                        .tag("code_gen_type", codeGenType)
+                        .tag("node", nodeId)
+                        .tag("outcome", outcome)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+
+    private Timer toolTimer(String toolName) {
+        String tool = toolName == null ? "unknown" : toolName;
+        return toolTimersCache.computeIfAbsent(tool, k ->
+                Timer.builder("codegen_workflow_tool_seconds")
+                        .description("工具调用耗时（模型开始输出调用到执行完成）")
+                        .tag("tool", tool)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+
+    private Timer runTimer(String codeGenType, String status) {
+        String key = String.format("%s_%s", codeGenType, status);
+        return runTimersCache.computeIfAbsent(key, k ->
+                Timer.builder("codegen_workflow_run_seconds")
+                        .description("工作流整次执行耗时（不含排队）")
+                        .tag("code_gen_type", codeGenType)
+                        .tag("status", status)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+        );
+    }
+
+    /**
+     * 单次执行的剖析状态，可变字段在该对象的监视器内访问
+     */
+    private static final class RunProfile {
+        private final String executionId;
+        private final Long appId;
+        private final String codeGenType;
+        private final long submittedNanos = System.nanoTime();
+        private final long submittedAt = System.currentTimeMillis();
+        private final List<Span> spans = new ArrayList<>();
+        private final Deque<Span> openNodes = new ArrayDeque<>();
+        private final Map<String, Span> openTools = new HashMap<>();
+        private long admittedNanos;
+        private long finishedNanos;
+        private int toolCalls;
+        private boolean contentSeen;
+        private String status = STATUS_RUNNING;
+
+        private RunProfile(String executionId, Long appId, String codeGenType) {
+            this.executionId = executionId;
+            this.appId = appId;
+            this.codeGenType = codeGenType == null ? "unknown" : codeGenType;
+        }
+
+        /**
+         * 开始执行的时刻，尚未通过准入时退回提交时刻
+         */
+        private long startedNanos() {
+            return admittedNanos != 0 ? admittedNanos : submittedNanos;
+        }
+
+        private WorkflowTimeline toTimeline(long now) {
+            long end = finishedNanos != 0 ? finishedNanos : now;
+            long buildNanos = 0;
+            List<WorkflowTimeline.Entry> entries = new ArrayList<>(spans.size());
+            for (Span span : spans) {
+                if (WorkflowTimeline.KIND_NODE.equals(span.kind) && BUILD_NODE.equals(span.name)) {
+                    buildNanos += (span.endNanos != 0 ? span.endNanos : end) - span.startNanos;
+                }
+                entries.add(new WorkflowTimeline.Entry(
+                        span.kind,
+                        span.name,
+                        toMillis(span.startNanos - submittedNanos),
+                        span.endNanos != 0 ? toMillis(span.endNanos - span.startNanos) : null,
+                        span.outcome));
+            }
+            entries.sort(Comparator.comparingLong(WorkflowTimeline.Entry::startOffsetMillis));
+            return new WorkflowTimeline(
+                    executionId,
+                    appId,
+                    codeGenType,
+                    status,
+                    submittedAt,
+                    admittedNanos != 0 ? toMillis(admittedNanos - submittedNanos) : null,
+                    toMillis(end - submittedNanos),
+                    toMillis(buildNanos),
+                    toolCalls,
+                    entries);
+        }
+
+        private static long toMillis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+
+    private static final class Span {
+        private final String kind;
+        private final String name;
+        private final long startNanos;
+        private long endNanos;
+        private String outcome;
+        /**
+         * 节点最近一个内容帧的时刻，0 表示尚未出字
+         */
+        private long lastContentNanos;
+
+        private Span(String kind, String name, long startNanos) {
+            this.kind = kind;
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.dango.dangoaicodeapp.infrastructure.redis;
 
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 
 @Slf4j
 @Service
@@ -15,53 +17,104 @@ public class GenTaskService {
     private static final String TASK_KEY_PREFIX = "gen:task:";
     private static final String STREAM_KEY_PREFIX = "gen:stream:";
     private static final long COMPLETED_TTL_SECONDS = 600; // 10 分钟
+    /**
+     * 健康任务在排队与运行时限之外的收口余量（刷流、写对话历史）
+     */
+    private static final Duration ZOMBIE_GRACE = Duration.ofMinutes(5);
+
+    private static final List<Object> TASK_SNAPSHOT_FIELDS = List.of("status", "chatHistoryId");
+
+    private static final long RESERVE_REJECTED = 0;
+    private static final long RESERVE_REPLACED_FINISHED = 2;
+    private static final long RESERVE_REPLACED_ZOMBIE = 3;
+
+    /**
+     * KEYS[1]=task KEYS[2]=stream KEYS[3]=压缩流；ARGV[1]=当前毫秒 ARGV[2]=僵死阈值毫秒
+     * 返回 0=已有任务运行中 1=新建 2=替换已结束任务 3=替换僵死任务
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local status = redis.call('HGET', KEYS[1], 'status')
+            local code = 1
+            if status == 'completed' or status == 'error' then
+              code = 2
+            elseif status then
+              local startTime = tonumber(redis.call('HGET', KEYS[1], 'startTime'))
+              if startTime and tonumber(ARGV[1]) - startTime <= tonumber(ARGV[2]) then
+                return 0
+              end
+              if startTime then code = 3 end
+            end
+            if code ~= 1 then
+              redis.call('DEL', KEYS[1], KEYS[2], KEYS[3])
+            end
+            redis.call('HSET', KEYS[1], 'status', 'generating', 'startTime', ARGV[1])
+            return code
+            """, Long.class);
+
+    /**
+     * KEYS[1]=task KEYS[2]=stream KEYS[3]=压缩流；ARGV[1]=终态 ARGV[2]=TTL 秒
+     */
+    private static final DefaultRedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'status', ARGV[1])
+            for i = 1, #KEYS do
+              redis.call('EXPIRE', KEYS[i], tonumber(ARGV[2]))
+            end
+            return 1
+            """, Long.class);
 
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
+    @Resource
+    private CodeGenWorkflowProperties codeGenWorkflowProperties;
+
+    /**
+     * task、原始流与压缩流在同一个 Lua 脚本中访问，key 共用 {appId:userId} 哈希标签，集群模式下落在同一个 slot
+     */
     public String getTaskKey(Long appId, Long userId) {
-        return TASK_KEY_PREFIX + appId + ":" + userId;
+        return TASK_KEY_PREFIX + hashTag(appId, userId);
     }
 
     public String getStreamKey(Long appId, Long userId) {
-        return STREAM_KEY_PREFIX + appId + ":" + userId;
+        return STREAM_KEY_PREFIX + hashTag(appId, userId);
+    }
+
+    private static String hashTag(Long appId, Long userId) {
+        return "{" + appId + ":" + userId + "}";
     }
 
     /**
      * 尝试预占生成任务（CAS 防重复）
+     * 状态判断、终态/僵死任务清理与占位写入在同一个 Lua 脚本中完成，一次往返且无竞态窗口。
      *
      * @return true 表示成功预占，false 表示已有任务在运行
      */
     public boolean tryReserveTask(Long appId, Long userId) {
         String taskKey = getTaskKey(appId, userId);
-        // HSETNX：仅当 field 不存在时设置，用于防重复
-        Boolean set = stringRedisTemplate.opsForHash().putIfAbsent(taskKey, "status", "generating");
-        if (Boolean.FALSE.equals(set)) {
-            // 已有任务，先检查状态
-            String existingStatus = (String) stringRedisTemplate.opsForHash().get(taskKey, "status");
-            if ("completed".equals(existingStatus) || "error".equals(existingStatus)) {
-                // 已完成或已失败的任务，清理后允许新任务启动
-                log.info("清理已结束的任务(status={}): appId={}, userId={}", existingStatus, appId, userId);
-                cleanupTask(appId, userId);
-            } else {
-                // 状态为 generating，检查是否是僵死任务（超过 10 分钟）
-                String startTime = (String) stringRedisTemplate.opsForHash().get(taskKey, "startTime");
-                if (startTime != null) {
-                    long elapsed = System.currentTimeMillis() - Long.parseLong(startTime);
-                    if (elapsed > 10 * 60 * 1000) {
-                        log.warn("检测到僵死任务，强制清理: appId={}, userId={}", appId, userId);
-                        cleanupTask(appId, userId);
-                    } else {
-                        return false;
-                    }
-                }
-            }
+        String streamKey = getStreamKey(appId, userId);
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT,
+                List.of(taskKey, streamKey, GenerationStreamCompactor.compactKeyOf(streamKey)),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(zombieTimeoutMillis()));
+        long code = result != null ? result : RESERVE_REJECTED;
+        if (code == RESERVE_REPLACED_FINISHED) {
+            log.info("清理已结束的任务: appId={}, userId={}", appId, userId);
+        } else if (code == RESERVE_REPLACED_ZOMBIE) {
+            log.warn("检测到僵死任务，强制清理: appId={}, userId={}", appId, userId);
         }
-        stringRedisTemplate.opsForHash().putAll(taskKey, Map.of(
-                "status", "generating",
-                "startTime", String.valueOf(System.currentTimeMillis())
-        ));
-        return true;
+        return code != RESERVE_REJECTED;
+    }
+
+    /**
+     * 僵死阈值：准入队列最长等待 + 整次运行时限 + 收口余量。
+     * 预占发生在进入准入队列之前，阈值必须大于健康任务的最长占用时间，
+     * 否则新的生成会接管仍在运行的任务、删除其流并与之并发写同一个项目目录。
+     */
+    long zombieTimeoutMillis() {
+        return codeGenWorkflowProperties.getAdmissionMaxWait()
+                .plus(codeGenWorkflowProperties.getRunTimeout())
+                .plus(ZOMBIE_GRACE)
+                .toMillis();
     }
 
     /**
@@ -106,33 +159,47 @@ public class GenTaskService {
         return id != null ? Long.parseLong(id.toString()) : null;
     }
 
+    /**
+     * 一次 HMGET 读取任务状态与 chatHistoryId（SSE 消费热路径使用）
+     *
+     * @return [status, chatHistoryId]，字段不存在时对应位置为 null
+     */
+    public List<Object> getStatusAndChatHistoryId(Long appId, Long userId) {
+        String taskKey = getTaskKey(appId, userId);
+        return stringRedisTemplate.opsForHash().multiGet(taskKey, TASK_SNAPSHOT_FIELDS);
+    }
+
     /**
      * 标记任务完成，设置 TTL
      */
     public void markCompleted(Long appId, Long userId) {
-        String taskKey = getTaskKey(appId, userId);
-        String streamKey = getStreamKey(appId, userId);
-        stringRedisTemplate.opsForHash().put(taskKey, "status", "completed");
-        stringRedisTemplate.expire(taskKey, COMPLETED_TTL_SECONDS, TimeUnit.SECONDS);
-        stringRedisTemplate.expire(streamKey, COMPLETED_TTL_SECONDS, TimeUnit.SECONDS);
+        markFinished(appId, userId, "completed");
     }
 
     /**
      * 标记任务失败，设置 TTL
      */
     public void markError(Long appId, Long userId) {
-        String taskKey = getTaskKey(appId, userId);
-        String streamKey = getStreamKey(appId, userId);
-        stringRedisTemplate.opsForHash().put(taskKey, "status", "error");
-        stringRedisTemplate.expire(taskKey, COMPLETED_TTL_SECONDS, TimeUnit.SECONDS);
-        stringRedisTemplate.expire(streamKey, COMPLETED_TTL_SECONDS, TimeUnit.SECONDS);
+        markFinished(appId, userId, "error");
     }
 
     /**
-     * 清理任务（删除 task 和 stream）
+     * 清理任务：一次多 key DEL 删除 task、stream 及其压缩流（同一哈希标签，集群模式下同 slot）
      */
     public void cleanupTask(Long appId, Long userId) {
-        stringRedisTemplate.delete(getTaskKey(appId, userId));
-        stringRedisTemplate.delete(getStreamKey(appId, userId));
+        String streamKey = getStreamKey(appId, userId);
+        stringRedisTemplate.delete(List.of(getTaskKey(appId, userId), streamKey,
+                GenerationStreamCompactor.compactKeyOf(streamKey)));
+    }
+
+    /**
+     * 终态写入与 task/stream/压缩流 TTL 在同一脚本中完成，避免中途失败留下无 TTL 的终态任务。
+     */
+    private void markFinished(Long appId, Long userId, String status) {
+        String streamKey = getStreamKey(appId, userId);
+        stringRedisTemplate.execute(FINISH_SCRIPT,
+                List.of(getTaskKey(appId, userId), streamKey, GenerationStreamCompactor.compactKeyOf(streamKey)),
+                status,
+                String.valueOf(COMPLETED_TTL_SECONDS));
     }
 }
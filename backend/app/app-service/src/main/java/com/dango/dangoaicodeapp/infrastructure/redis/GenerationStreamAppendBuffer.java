@@ -0,0 +1,202 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import com.dango.dangoaicodeapp.infrastructure.monitor.StreamLatencyMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成流追加缓冲。
+ *
+ * 按 streamKey 合并相邻的同类型 token，在时间窗口或大小阈值到达时合成一条 XADD 写入，
+ * 把“每个 token 一次 Redis 写”降为“每个窗口一次”，同时缩短流长度和重放成本。
+ * msgType 切换（含节点日志帧）与会话收口时强制刷出，保证消息顺序与边界不变。
+ * 写入累计到一定条数或遇到节点边界时顺带触发流压缩，见 {@link GenerationStreamCompactor}。
+ * 写入成功后才清空缓冲；后台定时刷出失败时保留内容并记下异常，由同一流的下一次 append/flush 抛出，
+ * 与未缓冲时 XADD 失败直接打断会话的行为一致。
+ */
+@Slf4j
+@Component
+public class GenerationStreamAppendBuffer {
+
+    @Resource
+    private RedisStreamService redisStreamService;
+
+    @Resource
+    private GenerationStreamNotifier generationStreamNotifier;
+
+    @Resource
+    private GenerationStreamCompactor generationStreamCompactor;
+
+    @Resource
+    private CodeGenStreamProperties codeGenStreamProperties;
+
+    @Resource
+    private StreamLatencyMetrics streamLatencyMetrics;
+
+    private final ConcurrentMap<String, Pending> pendingBuffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            ThreadFactoryBuilder.create()
+                    .setNamePrefix("Stream-Append-Flush-")
+                    .setDaemon(true)
+                    .build());
+
+    /**
+     * 追加一段内容；可能立即写入，也可能留在缓冲中等待窗口到期。
+     */
+    public void append(String streamKey, String content, String msgType) {
+        String safeContent = content == null ? "" : content;
+        Pending pending = pendingBuffers.computeIfAbsent(streamKey, key -> new Pending());
+        synchronized (pending) {
+            if (pending.closed) {
+                // 该缓冲刚被收口移除，退回到新的缓冲实例重试
+                append(streamKey, content, msgType);
+                return;
+            }
+            rethrowFailure(pending);
+            // 日志帧是节点边界标记，先刷出之前的内容再直接写入，避免边界被延迟或合并
+            if ("log".equals(msgType) || !codeGenStreamProperties.isAppendBufferEnabled()) {
+                drain(streamKey, pending);
+                write(streamKey, pending, safeContent, msgType);
+                compactIfDue(streamKey, pending, codeGenStreamProperties.getCompactBoundaryRecords());
+                return;
+            }
+            if (pending.content.length() > 0 && !Objects.equals(pending.msgType, msgType)) {
+                drain(streamKey, pending);
+            }
+            pending.msgType = msgType;
+            pending.content.append(safeContent);
+            if (pending.content.length() >= codeGenStreamProperties.getAppendBufferMaxChars()) {
+                drain(streamKey, pending);
+                compactIfDue(streamKey, pending, codeGenStreamProperties.getCompactEveryRecords());
+            } else if (!pending.flushScheduled) {
+                pending.flushScheduled = true;
+                flushScheduler.schedule(() -> drainScheduled(streamKey, pending),
+                        codeGenStreamProperties.getAppendFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 会话收口：刷出缓冲内容、做最后一次压缩，并释放该流的缓冲。
+     */
+    public void flush(String streamKey) {
+        Pending pending = pendingBuffers.get(streamKey);
+        if (pending == null) {
+            return;
+        }
+        synchronized (pending) {
+            try {
+                // 先重试定时刷出失败时保留的内容，再上报那次尚未抛出的失败
+                drain(streamKey, pending);
+                rethrowFailure(pending);
+                compactIfDue(streamKey, pending, 1);
+            } finally {
+                pending.closed = true;
+                pendingBuffers.remove(streamKey, pending);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        pendingBuffers.keySet().forEach(streamKey -> {
+            try {
+                flush(streamKey);
+            } catch (Exception e) {
+                log.warn("停机刷出流缓冲失败: streamKey={}, error={}", streamKey, e.getMessage());
+            }
+        });
+    }
+
+    private void drainScheduled(String streamKey, Pending pending) {
+        synchronized (pending) {
+            pending.flushScheduled = false;
+            if (pending.closed) {
+                return;
+            }
+            try {
+                drain(streamKey, pending);
+            } catch (RuntimeException e) {
+                pending.failure = e;
+                log.warn("定时刷出流缓冲失败，保留内容待下次写入时上报: streamKey={}, error={}",
+                        streamKey, e.getMessage());
+            }
+        }
+    }
+
+    private void drain(String streamKey, Pending pending) {
+        if (pending.content.length() == 0) {
+            return;
+        }
+        write(streamKey, pending, pending.content.toString(), pending.msgType);
+        pending.content.setLength(0);
+    }
+
+    /**
+     * 抛出后台刷出记下的失败，每次失败只抛出一次
+     */
+    private static void rethrowFailure(Pending pending) {
+        RuntimeException failure = pending.failure;
+        if (failure != null) {
+            pending.failure = null;
+            throw failure;
+        }
+    }
+
+    private void write(String streamKey, Pending pending, String content, String msgType) {
+        // 固化流字段协议（d/msgType），让上层不感知 Redis Stream schema。
+        Map<String, String> streamData = new HashMap<>();
+        streamData.put("d", content);
+        if (msgType != null) {
+            streamData.put("msgType", msgType);
+        }
+        long start = System.nanoTime();
+        redisStreamService.addToStream(streamKey, streamData);
+        streamLatencyMetrics.recordRedisAppend(msgType, System.nanoTime() - start);
+        pending.writesSinceCompaction++;
+        // 写入成功后再唤醒本地订阅者，保证被唤醒方一定能读到这条记录。
+        generationStreamNotifier.signal(streamKey);
+    }
+
+    private void compactIfDue(String streamKey, Pending pending, int threshold) {
+        if (!codeGenStreamProperties.isCompactionEnabled() || pending.writesSinceCompaction < threshold) {
+            return;
+        }
+        pending.writesSinceCompaction = 0;
+        try {
+            generationStreamCompactor.compact(streamKey);
+        } catch (Exception e) {
+            // 压缩只影响回放成本，失败时保留原始记录即可，不能打断生成
+            log.warn("生成流压缩失败: streamKey={}, error={}", streamKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 单个流的待写内容，所有字段在该对象的监视器内访问。
+     */
+    private static final class Pending {
+        private final StringBuilder content = new StringBuilder();
+        private String msgType;
+        private boolean flushScheduled;
+        private boolean closed;
+        private int writesSinceCompaction;
+        /**
+         * 后台定时刷出的失败，尚未抛给调用方
+         */
+        private RuntimeException failure;
+    }
+}
@@ -0,0 +1,240 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 生成流压缩器。
+ *
+ * 原始流 gen:stream:{appId:userId} 只保留最近的增量记录，
+ * 较早的记录按“连续同 msgType”合并后搬到 {streamKey}:compact 压缩流并从原始流删除，
+ * 重连回放时先读压缩流、再读原始流，回放条数从上万降到几十条，Redis 内存也随之有界。
+ *
+ * 压缩记录携带 upTo（被合并的最后一条原始记录 ID），读取时以它作为游标，
+ * 因此调用方看到的 ID 仍在原始流的 ID 空间内，游标语义不变。
+ * 压缩记录同时保存每条原始记录的 ID 与字节长度（offsets），重连游标落在合并区间中间时
+ * 只返回游标之后的部分，不会重复下发客户端已渲染的内容。
+ * 压缩与读取都在 Lua 中完成，保证“搬移 + 删除”与“先压缩流后原始流”的读取之间不会交错丢数据；
+ * 原始流与压缩流共用 {appId:userId} 哈希标签，集群模式下落在同一个 slot。
+ */
+@Slf4j
+@Component
+public class GenerationStreamCompactor {
+
+    private static final String COMPACT_KEY_SUFFIX = ":compact";
+
+    private static final String LUA_HELPERS = """
+            local function field(fields, name)
+              for i = 1, #fields, 2 do
+                if fields[i] == name then return fields[i + 1] end
+              end
+              return nil
+            end
+            local function parseId(id)
+              local ms, seq = string.match(id, '^(%d+)-?(%d*)$')
+              return tonumber(ms) or 0, tonumber(seq) or 0
+            end
+            local function idGreater(a, b)
+              local ams, aseq = parseId(a)
+              local bms, bseq = parseId(b)
+              if ams ~= bms then return ams > bms end
+              return aseq > bseq
+            end
+            """;
+
+    /**
+     * KEYS[1]=原始流 KEYS[2]=压缩流；ARGV[1]=可压缩的最大 ID ARGV[2]=单次最多压缩条数 ARGV[3]=原始流 MAXLEN 上限
+     * 返回被压缩的原始记录条数。
+     */
+    private static final DefaultRedisScript<Long> COMPACT_SCRIPT = new DefaultRedisScript<>(LUA_HELPERS + """
+            local entries = redis.call('XRANGE', KEYS[1], '-', ARGV[1], 'COUNT', tonumber(ARGV[2]))
+            local compacted = 0
+            if #entries >= 2 then
+              local parts, offsets, runType, runFrom, runTo = nil, nil, nil, nil, nil
+              local ids = {}
+              local function flushRun()
+                if parts == nil then return end
+                local args = { 'd', table.concat(parts), 'from', runFrom, 'upTo', runTo,
+                               'offsets', table.concat(offsets, ',') }
+                if runType ~= '' then
+                  table.insert(args, 'msgType')
+                  table.insert(args, runType)
+                end
+                redis.call('XADD', KEYS[2], '*', unpack(args))
+              end
+              for _, entry in ipairs(entries) do
+                local d = field(entry[2], 'd') or ''
+                local msgType = field(entry[2], 'msgType') or ''
+                if parts ~= nil and msgType == runType then
+                  table.insert(parts, d)
+                else
+                  flushRun()
+                  parts, offsets, runType, runFrom = { d }, {}, msgType, entry[1]
+                end
+                -- 原始记录 ID:字节长度，读取时据此截掉游标之前的部分
+                table.insert(offsets, entry[1] .. ':' .. #d)
+                runTo = entry[1]
+                table.insert(ids, entry[1])
+              end
+              flushRun()
+              redis.call('XDEL', KEYS[1], unpack(ids))
+              compacted = #ids
+            end
+            redis.call('XTRIM', KEYS[1], 'MAXLEN', '~', tonumber(ARGV[3]))
+            return compacted
+            """, Long.class);
+
+    /**
+     * KEYS[1]=原始流 KEYS[2]=压缩流；ARGV[1]=afterId ARGV[2]=count
+     * 返回扁平数组 [id, d, msgType, offsets, ...]，msgType 为空串表示未设置；
+     * offsets 只在游标落在该压缩记录区间内（from <= afterId < upTo）时返回，其余为空串。
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final DefaultRedisScript<List> READ_SCRIPT = new DefaultRedisScript<>(LUA_HELPERS + """
+            local afterId, count = ARGV[1], tonumber(ARGV[2])
+            local out = {}
+            local last = redis.call('XREVRANGE', KEYS[2], '+', '-', 'COUNT', 1)
+            if #last > 0 and idGreater(field(last[1][2], 'upTo'), afterId) then
+              for _, entry in ipairs(redis.call('XRANGE', KEYS[2], '-', '+')) do
+                local upTo = field(entry[2], 'upTo')
+                if idGreater(upTo, afterId) then
+                  local from = field(entry[2], 'from')
+                  table.insert(out, upTo)
+                  table.insert(out, field(entry[2], 'd') or '')
+                  table.insert(out, field(entry[2], 'msgType') or '')
+                  if from and not idGreater(from, afterId) then
+                    table.insert(out, field(entry[2], 'offsets') or '')
+                  else
+                    table.insert(out, '')
+                  end
+                  if #out >= count * 4 then return out end
+                end
+              end
+              return out
+            end
+            local result = redis.call('XREAD', 'COUNT', count, 'STREAMS', KEYS[1], afterId)
+            if result then
+              for _, entry in ipairs(result[1][2]) do
+                table.insert(out, entry[1])
+                table.insert(out, field(entry[2], 'd') or '')
+                table.insert(out, field(entry[2], 'msgType') or '')
+                table.insert(out, '')
+              end
+            end
+            return out
+            """, List.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CodeGenStreamProperties codeGenStreamProperties;
+
+    /**
+     * 原始流对应的压缩流 key。
+     */
+    public static String compactKeyOf(String streamKey) {
+        return streamKey + COMPACT_KEY_SUFFIX;
+    }
+
+    /**
+     * 压缩足够“旧”的原始记录。
+     * 只处理早于 compactMinAge 的记录，保证在线订阅者（最多落后一个兜底检查间隔）的游标
+     * 不会落在被合并的区间中间，从而不会重复收到已推送的内容。
+     *
+     * @return 被压缩的原始记录条数
+     */
+    public long compact(String streamKey) {
+        long maxMillis = System.currentTimeMillis() - codeGenStreamProperties.getCompactMinAge().toMillis();
+        Long compacted = stringRedisTemplate.execute(COMPACT_SCRIPT,
+                List.of(streamKey, compactKeyOf(streamKey)),
+                String.valueOf(maxMillis),
+                String.valueOf(codeGenStreamProperties.getCompactBatchSize()),
+                String.valueOf(codeGenStreamProperties.getMaxLen()));
+        long count = compacted != null ? compacted : 0L;
+        if (count > 0) {
+            log.debug("生成流压缩完成: streamKey={}, compacted={}", streamKey, count);
+        }
+        return count;
+    }
+
+    /**
+     * 从 afterId 之后读取，压缩流优先，返回 [id, d, msgType] 三元组的扁平列表。
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> read(String streamKey, String afterId, long count) {
+        List<String> result = stringRedisTemplate.execute(READ_SCRIPT,
+                List.of(streamKey, compactKeyOf(streamKey)),
+                afterId,
+                String.valueOf(count));
+        return result != null ? toTriples(result, afterId) : Collections.emptyList();
+    }
+
+    /**
+     * 脚本返回的四元组转为三元组；带 offsets 的压缩记录只保留 afterId 之后的原始记录内容。
+     */
+    static List<String> toTriples(List<String> quads, String afterId) {
+        List<String> triples = new ArrayList<>(quads.size() / 4 * 3);
+        for (int i = 0; i + 3 < quads.size(); i += 4) {
+            String d = quads.get(i + 1);
+            String offsets = quads.get(i + 3);
+            if (offsets != null && !offsets.isEmpty()) {
+                d = suffixAfter(d, offsets, afterId);
+                if (d.isEmpty()) {
+                    continue;
+                }
+            }
+            triples.add(quads.get(i));
+            triples.add(d);
+            triples.add(quads.get(i + 2));
+        }
+        return triples;
+    }
+
+    /**
+     * offsets 形如 “id:字节长度,id:字节长度”，按原始记录边界切分，不会截断多字节字符。
+     */
+    private static String suffixAfter(String d, String offsets, String afterId) {
+        byte[] bytes = d.getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        for (String part : offsets.split(",")) {
+            int colon = part.lastIndexOf(':');
+            if (colon <= 0) {
+                return d;
+            }
+            if (compareIds(part.substring(0, colon), afterId) > 0) {
+                return new String(bytes, offset, bytes.length - offset, StandardCharsets.UTF_8);
+            }
+            offset += Integer.parseInt(part.substring(colon + 1));
+        }
+        return "";
+    }
+
+    private static int compareIds(String left, String right) {
+        long[] l = parseId(left);
+        long[] r = parseId(right);
+        int byMillis = Long.compare(l[0], r[0]);
+        return byMillis != 0 ? byMillis : Long.compare(l[1], r[1]);
+    }
+
+    private static long[] parseId(String id) {
+        int dash = id.indexOf('-');
+        try {
+            if (dash < 0) {
+                return new long[]{Long.parseLong(id), 0};
+            }
+            return new long[]{Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1))};
+        } catch (NumberFormatException e) {
+            return new long[]{0, 0};
+        }
+    }
+}
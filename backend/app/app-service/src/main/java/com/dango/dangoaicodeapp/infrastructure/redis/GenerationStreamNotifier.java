@@ -0,0 +1,158 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 生成流本地通知器。
+ *
+ * 追加流事件 / 任务收口时按 streamKey 唤醒本 JVM 内的订阅者，
+ * 订阅者空闲时不再轮询 Redis；跨节点写入经 {@link GenerationStreamNudgeBridge} 的 Redis 广播唤醒，
+ * 订阅方的兜底检查间隔只在广播丢失时生效。
+ */
+@Component
+public class GenerationStreamNotifier {
+
+    private final ConcurrentMap<String, Signal> signals = new ConcurrentHashMap<>();
+
+    /**
+     * 跨节点广播，未启用时为空
+     */
+    private volatile Consumer<String> remotePublisher;
+
+    /**
+     * 注册订阅者，返回的 Watcher 必须在订阅结束时关闭。
+     */
+    public GenerationStreamPort.Watcher watch(String streamKey) {
+        Signal signal = signals.compute(streamKey, (key, existing) -> {
+            Signal target = existing != null ? existing : new Signal();
+            target.watchers++;
+            return target;
+        });
+        return new SignalWatcher(streamKey, signal);
+    }
+
+    /**
+     * 唤醒指定流上本节点与其他节点的所有订阅者。
+     */
+    public void signal(String streamKey) {
+        signalLocal(streamKey);
+        Consumer<String> publisher = remotePublisher;
+        if (publisher != null) {
+            publisher.accept(streamKey);
+        }
+    }
+
+    /**
+     * 只唤醒本节点的订阅者。
+     * 只访问已有订阅的 key，写入方不会因此在 map 中留下条目。
+     */
+    public void signalLocal(String streamKey) {
+        Signal signal = signals.get(streamKey);
+        if (signal != null) {
+            signal.fire();
+        }
+    }
+
+    void setRemotePublisher(Consumer<String> remotePublisher) {
+        this.remotePublisher = remotePublisher;
+    }
+
+    int activeKeyCount() {
+        return signals.size();
+    }
+
+    private void release(String streamKey, Signal signal) {
+        signals.computeIfPresent(streamKey, (key, existing) -> {
+            if (existing != signal) {
+                return existing;
+            }
+            existing.watchers--;
+            return existing.watchers <= 0 ? null : existing;
+        });
+    }
+
+    /**
+     * 单个流的版本号 + 条件变量。
+     * 版本号单调递增，订阅者记住已消费的版本，避免“读空后、等待前”到达的信号丢失。
+     */
+    private static final class Signal {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private long version;
+        // 仅在 ConcurrentHashMap.compute 中修改，由 map 的分段锁保证可见性
+        private int watchers;
+
+        long version() {
+            lock.lock();
+            try {
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void fire() {
+            lock.lock();
+            try {
+                version++;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long awaitAfter(long seenVersion, long timeoutNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining = timeoutNanos;
+                while (version == seenVersion && remaining > 0) {
+                    remaining = changed.awaitNanos(remaining);
+                }
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class SignalWatcher implements GenerationStreamPort.Watcher {
+
+        private final String streamKey;
+        private final Signal signal;
+        private long seenVersion;
+        private boolean closed;
+
+        private SignalWatcher(String streamKey, Signal signal) {
+            this.streamKey = streamKey;
+            this.signal = signal;
+            this.seenVersion = signal.version();
+        }
+
+        @Override
+        public boolean await(Duration timeout) throws InterruptedException {
+            long current = signal.awaitAfter(seenVersion, TimeUnit.MILLISECONDS.toNanos(timeout.toMillis()));
+            boolean signalled = current != seenVersion;
+            seenVersion = current;
+            return signalled;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release(streamKey, signal);
+        }
+    }
+}
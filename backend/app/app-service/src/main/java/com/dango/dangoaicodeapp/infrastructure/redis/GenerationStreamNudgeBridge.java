@@ -0,0 +1,86 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import cn.hutool.core.util.IdUtil;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 生成流跨节点唤醒。
+ *
+ * 写入节点在追加/收口后向 Redis 频道广播 streamKey，其他节点收到后唤醒本地等待该流的订阅者，
+ * 跨节点订阅者的延迟与同节点一致，不必等兜底检查间隔。广播只是提示，丢失时仍由兜底检查覆盖。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenerationStreamNudgeBridge {
+
+    static final String CHANNEL = "gen:stream:nudge";
+    private static final char SEPARATOR = '|';
+
+    private final GenerationStreamNotifier generationStreamNotifier;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final CodeGenStreamProperties codeGenStreamProperties;
+
+    /**
+     * 本节点标识，忽略自己发出的广播（本地订阅者已直接唤醒）
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        if (!codeGenStreamProperties.isCrossNodeNudgeEnabled()) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        generationStreamNotifier.setRemotePublisher(this::publish);
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        generationStreamNotifier.setRemotePublisher(null);
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    private void publish(String streamKey) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + streamKey);
+        } catch (Exception e) {
+            // 广播失败只影响其他节点的唤醒延迟，由兜底检查覆盖
+            log.debug("生成流跨节点广播失败: key={}, error={}", streamKey, e.getMessage());
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    void onMessage(String payload) {
+        int separator = payload.indexOf(SEPARATOR);
+        if (separator <= 0 || nodeId.equals(payload.substring(0, separator))) {
+            return;
+        }
+        generationStreamNotifier.signalLocal(payload.substring(separator + 1));
+    }
+}
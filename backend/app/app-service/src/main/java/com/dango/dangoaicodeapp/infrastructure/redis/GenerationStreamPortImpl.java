@@ -3,12 +3,10 @@ package com.dango.dangoaicodeapp.infrastructure.redis;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
 import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
 import jakarta.annotation.Resource;
-import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Redis Stream 适配器。
@@ -17,35 +15,43 @@ import java.util.Map;
 public class GenerationStreamPortImpl implements GenerationStreamPort {
 
     @Resource
-    private RedisStreamService redisStreamService;
+    private GenerationStreamNotifier generationStreamNotifier;
+
+    @Resource
+    private GenerationStreamAppendBuffer generationStreamAppendBuffer;
+
+    @Resource
+    private GenerationStreamCompactor generationStreamCompactor;
 
     @Override
     public void appendChunk(String streamKey, String content, String msgType) {
-        // 固化流字段协议（d/msgType），让上层不感知 Redis Stream schema。
-        Map<String, String> streamData = new HashMap<>();
-        streamData.put("d", content == null ? "" : content);
-        if (msgType != null) {
-            streamData.put("msgType", msgType);
-        }
-        redisStreamService.addToStream(streamKey, streamData);
+        // 经缓冲合并后再落 Redis，字段协议（d/msgType）由缓冲写入时统一拼装。
+        generationStreamAppendBuffer.append(streamKey, content, msgType);
+    }
+
+    @Override
+    public void flush(String streamKey) {
+        generationStreamAppendBuffer.flush(streamKey);
     }
 
     @Override
     public List<GenerationStreamChunk> readChunks(String streamKey, String afterId, long count) {
-        // 在适配层完成 Redis Record -> 领域事件映射，调用方只消费领域模型。
-        return redisStreamService.readFromStream(streamKey, afterId, count)
-                .stream()
-                .map(this::toChunk)
-                .toList();
+        // 压缩流优先、原始流在后，由压缩器在一次 Lua 调用中读出；此处只做三元组 -> 领域事件映射。
+        List<String> triples = generationStreamCompactor.read(streamKey, afterId, count);
+        List<GenerationStreamChunk> chunks = new ArrayList<>(triples.size() / 3);
+        for (int i = 0; i + 2 < triples.size(); i += 3) {
+            String msgType = triples.get(i + 2);
+            chunks.add(new GenerationStreamChunk(
+                    triples.get(i),
+                    triples.get(i + 1),
+                    msgType == null || msgType.isEmpty() ? null : msgType
+            ));
+        }
+        return chunks;
     }
 
-    private GenerationStreamChunk toChunk(MapRecord<String, Object, Object> record) {
-        Object content = record.getValue().get("d");
-        Object msgType = record.getValue().get("msgType");
-        return new GenerationStreamChunk(
-                record.getId() != null ? record.getId().getValue() : null,
-                content != null ? content.toString() : "",
-                msgType != null ? msgType.toString() : null
-        );
+    @Override
+    public Watcher watch(String streamKey) {
+        return generationStreamNotifier.watch(streamKey);
     }
 }
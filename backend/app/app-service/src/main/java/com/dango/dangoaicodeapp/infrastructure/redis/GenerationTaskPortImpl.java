@@ -5,6 +5,8 @@ import com.dango.dangoaicodeapp.domain.codegen.port.GenerationTaskPort;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Redis 任务状态适配器。
  */
@@ -14,6 +16,9 @@ public class GenerationTaskPortImpl implements GenerationTaskPort {
     @Resource
     private GenTaskService genTaskService;
 
+    @Resource
+    private GenerationStreamNotifier generationStreamNotifier;
+
     @Override
     public boolean tryReserveTask(Long appId, Long userId) {
         // 直接复用既有 Redis CAS 逻辑，领域层只感知“是否预占成功”。
@@ -28,10 +33,14 @@ public class GenerationTaskPortImpl implements GenerationTaskPort {
 
     @Override
     public GenerationTaskSnapshot getTaskSnapshot(Long appId, Long userId) {
-        String status = genTaskService.getStatus(appId, userId);
-        Long chatHistoryId = genTaskService.getChatHistoryId(appId, userId);
-        // 在适配层完成 Redis -> 领域快照转换，防止字段细节外泄。
-        return new GenerationTaskSnapshot(status, chatHistoryId);
+        // 单次 HMGET 取齐字段；在适配层完成 Redis -> 领域快照转换，防止字段细节外泄。
+        List<Object> fields = genTaskService.getStatusAndChatHistoryId(appId, userId);
+        Object status = fields != null ? fields.get(0) : null;
+        Object chatHistoryId = fields != null ? fields.get(1) : null;
+        return new GenerationTaskSnapshot(
+                status != null ? status.toString() : null,
+                chatHistoryId != null ? Long.parseLong(chatHistoryId.toString()) : null
+        );
     }
 
     @Override
@@ -42,11 +51,14 @@ public class GenerationTaskPortImpl implements GenerationTaskPort {
     @Override
     public void markCompleted(Long appId, Long userId) {
         genTaskService.markCompleted(appId, userId);
+        // 终态也要唤醒订阅者，否则等待中的 SSE 要到兜底间隔才能感知任务结束。
+        generationStreamNotifier.signal(genTaskService.getStreamKey(appId, userId));
     }
 
     @Override
     public void markError(Long appId, Long userId) {
         genTaskService.markError(appId, userId);
+        generationStreamNotifier.signal(genTaskService.getStreamKey(appId, userId));
     }
 
     @Override
@@ -20,7 +20,7 @@ public class RedisStreamService {
     private StringRedisTemplate stringRedisTemplate;
 
     /**
-     * 向 Stream 追加消息（不设 MAXLEN，依赖 TTL 清理）
+     * 向 Stream 追加消息（不设 MAXLEN，长度由 GenerationStreamCompactor 压缩与兜底裁剪控制，结束后依赖 TTL 清理）
      */
     public RecordId addToStream(String streamKey, Map<String, String> fields) {
         StringRecord record = StreamRecords.string(fields).withStreamKey(streamKey);
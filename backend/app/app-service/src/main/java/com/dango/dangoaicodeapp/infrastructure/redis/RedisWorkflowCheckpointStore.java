@@ -0,0 +1,59 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowCheckpointPort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import com.dango.dangoaicodeapp.infrastructure.workflow.WorkflowContextSerializer;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * 基于 Redis 的工作流检查点存储。
+ * 检查点整体覆盖写入并带 TTL，跨节点可见，滚动发布后任意节点都能恢复。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "codegen.workflow.checkpoint-store", havingValue = "redis", matchIfMissing = true)
+public class RedisWorkflowCheckpointStore implements WorkflowCheckpointPort {
+
+    private static final String CHECKPOINT_KEY_PREFIX = "gen:checkpoint:";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CodeGenWorkflowProperties codeGenWorkflowProperties;
+
+    @Override
+    public void save(String checkpointKey, WorkflowContext context) {
+        String value = Base64.getEncoder().encodeToString(WorkflowContextSerializer.serialize(context));
+        stringRedisTemplate.opsForValue().set(CHECKPOINT_KEY_PREFIX + checkpointKey, value,
+                codeGenWorkflowProperties.getCheckpointTtl());
+    }
+
+    @Override
+    public Optional<WorkflowContext> load(String checkpointKey) {
+        String value = stringRedisTemplate.opsForValue().get(CHECKPOINT_KEY_PREFIX + checkpointKey);
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(WorkflowContextSerializer.deserialize(Base64.getDecoder().decode(value)));
+        } catch (Exception e) {
+            // 类结构变更等导致旧检查点不可读时按不存在处理
+            log.warn("工作流检查点不可读，忽略: key={}, error={}", checkpointKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String checkpointKey) {
+        stringRedisTemplate.delete(CHECKPOINT_KEY_PREFIX + checkpointKey);
+    }
+}
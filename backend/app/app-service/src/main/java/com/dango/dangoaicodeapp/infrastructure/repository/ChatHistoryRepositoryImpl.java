@@ -68,4 +68,9 @@ public class ChatHistoryRepositoryImpl implements ChatHistoryRepository {
     public boolean updateById(ChatHistory chatHistory) {
         return chatHistoryMapper.update(chatHistory) > 0;
     }
+
+    @Override
+    public boolean appendMessage(Long id, String segment, String status) {
+        return chatHistoryMapper.appendMessage(id, segment == null ? "" : segment, status) > 0;
+    }
 }
@@ -8,8 +8,6 @@ import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-
 /**
  * 聊天记录端口适配器。
  */
@@ -28,26 +26,29 @@ public class GenerationChatHistoryPortImpl implements GenerationChatHistoryPort
         return chatHistory.getId();
     }
 
+    @Override
+    public void appendAiMessageContent(Long chatHistoryId, String segment) {
+        if (segment == null || segment.isEmpty()) {
+            return;
+        }
+        appendAiMessage(chatHistoryId, segment, null);
+    }
+
     @Override
     public void markAiMessageCompleted(Long chatHistoryId, String content) {
-        updateAiMessage(chatHistoryId, content, GenerationTaskSnapshot.STATUS_COMPLETED);
+        appendAiMessage(chatHistoryId, content, GenerationTaskSnapshot.STATUS_COMPLETED);
     }
 
     @Override
     public void markAiMessageError(Long chatHistoryId, String content) {
-        updateAiMessage(chatHistoryId, content, GenerationTaskSnapshot.STATUS_ERROR);
+        appendAiMessage(chatHistoryId, content, GenerationTaskSnapshot.STATUS_ERROR);
     }
 
-    private void updateAiMessage(Long chatHistoryId, String content, String status) {
-        // 状态与内容在同一处更新，避免 completed/error 分支实现漂移。
-        ChatHistory chatHistory = chatHistoryRepository.findById(chatHistoryId).orElse(null);
-        if (chatHistory == null) {
+    private void appendAiMessage(Long chatHistoryId, String content, String status) {
+        // 内容追加与状态更新合并为一条 UPDATE，分段落库与终态收口共用同一路径，
+        // 也避免“先查后改”整行读写大文本。
+        if (!chatHistoryRepository.appendMessage(chatHistoryId, content, status)) {
             log.warn("更新 AI 消息失败，记录不存在: {}", chatHistoryId);
-            return;
         }
-        chatHistory.setMessage(content == null ? "" : content);
-        chatHistory.setStatus(status);
-        chatHistory.setUpdateTime(LocalDateTime.now());
-        chatHistoryRepository.updateById(chatHistory);
     }
 }
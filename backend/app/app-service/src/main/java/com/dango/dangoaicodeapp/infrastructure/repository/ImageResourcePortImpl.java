@@ -1,11 +1,13 @@
 package com.dango.dangoaicodeapp.infrastructure.repository;
 
+import com.dango.aicodegenerate.model.ImageCollectionPlan;
 import com.dango.aicodegenerate.model.ImageResource;
 import com.dango.dangoaicodeapp.domain.codegen.port.ImageResourcePort;
 import com.dango.dangoaicodeapp.domain.codegen.tools.ImageSearchTool;
 import com.dango.dangoaicodeapp.domain.codegen.tools.LogoGeneratorTool;
 import com.dango.dangoaicodeapp.domain.codegen.tools.MermaidDiagramTool;
 import com.dango.dangoaicodeapp.domain.codegen.tools.UndrawIllustrationTool;
+import com.dango.dangoaicodeapp.infrastructure.workflow.ImageTaskFanout;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
 
@@ -29,23 +31,30 @@ public class ImageResourcePortImpl implements ImageResourcePort {
     @Resource
     private LogoGeneratorTool logoGeneratorTool;
 
+    @Resource
+    private ImageTaskFanout imageTaskFanout;
+
     @Override
-    public List<ImageResource> searchContentImages(String query) {
-        return imageSearchTool.searchContentImages(query);
+    public List<ImageResource> searchContentImages(List<ImageCollectionPlan.ImageSearchTask> tasks) {
+        return imageTaskFanout.collect("pexels", tasks,
+                task -> imageSearchTool.searchContentImages(task.query()));
     }
 
     @Override
-    public List<ImageResource> searchIllustrations(String query) {
-        return undrawIllustrationTool.searchIllustrations(query);
+    public List<ImageResource> searchIllustrations(List<ImageCollectionPlan.IllustrationTask> tasks) {
+        return imageTaskFanout.collect("undraw", tasks,
+                task -> undrawIllustrationTool.searchIllustrations(task.query()));
     }
 
     @Override
-    public List<ImageResource> generateMermaidDiagram(String mermaidCode, String description) {
-        return mermaidDiagramTool.generateMermaidDiagram(mermaidCode, description);
+    public List<ImageResource> generateMermaidDiagrams(List<ImageCollectionPlan.DiagramTask> tasks) {
+        return imageTaskFanout.collect("mermaid", tasks,
+                task -> mermaidDiagramTool.generateMermaidDiagram(task.mermaidCode(), task.description()));
     }
 
     @Override
-    public List<ImageResource> generateLogos(String description) {
-        return logoGeneratorTool.generateLogos(description);
+    public List<ImageResource> generateLogos(List<ImageCollectionPlan.LogoTask> tasks) {
+        return imageTaskFanout.collect("logo", tasks,
+                task -> logoGeneratorTool.generateLogos(task.description()));
     }
 }
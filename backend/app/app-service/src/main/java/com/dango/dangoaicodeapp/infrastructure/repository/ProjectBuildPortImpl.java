@@ -1,7 +1,9 @@
 package com.dango.dangoaicodeapp.infrastructure.repository;
 
+import com.dango.dangoaicodeapp.domain.codegen.builder.ProjectPrechecker;
 import com.dango.dangoaicodeapp.domain.codegen.builder.VueProjectBuilder;
 import com.dango.dangoaicodeapp.domain.codegen.model.ProjectBuildResult;
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectBuildPort;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
@@ -15,9 +17,18 @@ public class ProjectBuildPortImpl implements ProjectBuildPort {
     @Resource
     private VueProjectBuilder vueProjectBuilder;
 
+    @Resource
+    private ProjectPrechecker projectPrechecker;
+
     @Override
     public ProjectBuildResult buildProject(String generatedCodeDir) {
         VueProjectBuilder.BuildResult result = vueProjectBuilder.buildProjectWithResult(generatedCodeDir);
-        return new ProjectBuildResult(result.isSuccess(), result.getErrorSummary(), result.getStderr());
+        return new ProjectBuildResult(result.isSuccess(), result.getErrorSummary(), result.getStderr(),
+                result.isReused());
+    }
+
+    @Override
+    public ProjectPrecheckResult precheckProject(String generatedCodeDir) {
+        return projectPrechecker.precheck(generatedCodeDir);
     }
 }
@@ -1,16 +1,26 @@
 package com.dango.dangoaicodeapp.infrastructure.repository;
 
-import cn.hutool.core.io.FileUtil;
 import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
 import com.dango.dangoaicodeapp.domain.codegen.port.ProjectWorkspacePort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -23,7 +33,7 @@ public class ProjectWorkspacePortImpl implements ProjectWorkspacePort {
     private static final String CODE_OUTPUT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_output";
 
     private static final Set<String> IGNORED_NAMES = Set.of(
-            "node_modules", ".git", "dist", "build", ".DS_Store",
+            "node_modules", ".git", "dist", "build", ".vite-cache", ".DS_Store",
             ".env", "target", ".mvn", ".idea", ".vscode", "coverage"
     );
 
@@ -31,6 +41,16 @@ public class ProjectWorkspacePortImpl implements ProjectWorkspacePort {
             ".log", ".tmp", ".cache", ".lock"
     );
 
+    private static final long MTIME_GRANULARITY_MILLIS = 2000;
+
+    /**
+     * 项目文件清单缓存，key 为项目目录绝对路径
+     */
+    private final Cache<String, ManifestSnapshot> manifestCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
     @Override
     public boolean hasExistingCode(Long appId, CodeGenTypeEnum generationType) {
         if (appId == null || appId <= 0) {
@@ -53,36 +73,30 @@ public class ProjectWorkspacePortImpl implements ProjectWorkspacePort {
             return null;
         }
 
-        File targetDir = projectPath.toFile();
-        if (!targetDir.exists() || !targetDir.isDirectory()) {
+        if (!Files.isDirectory(projectPath)) {
             return null;
         }
 
-        StringBuilder structure = new StringBuilder();
-        structure.append("项目目录结构:\n");
-
-        List<File> allFiles = FileUtil.loopFiles(targetDir, file -> {
-            if (shouldIgnore(file.getName())) {
-                return false;
-            }
-            File parent = file.getParentFile();
-            while (parent != null && !parent.equals(targetDir)) {
-                if (shouldIgnore(parent.getName())) {
-                    return false;
-                }
-                parent = parent.getParentFile();
+        // 目录清单只随文件增删改名变化，而增删改名必然更新所在目录的修改时间：
+        // 缓存的各目录修改时间都未变化时直接复用，只需对目录逐个 stat，不再遍历整棵树
+        String cacheKey = projectPath.toAbsolutePath().normalize().toString();
+        ManifestSnapshot cached = manifestCache.getIfPresent(cacheKey);
+        if (cached != null && cached.isCurrent()) {
+            return cached.structure();
+        }
+        try {
+            ManifestSnapshot snapshot = scanManifest(projectPath);
+            if (snapshot.cacheable()) {
+                manifestCache.put(cacheKey, snapshot);
+            } else {
+                manifestCache.invalidate(cacheKey);
             }
-            return true;
-        });
-
-        allFiles.stream()
-                .sorted((f1, f2) -> f1.getPath().compareTo(f2.getPath()))
-                .forEach(file -> {
-                    String relativePath = targetDir.toPath().relativize(file.toPath()).toString();
-                    structure.append("- ").append(relativePath).append("\n");
-                });
-
-        return structure.toString();
+            return snapshot.structure();
+        } catch (IOException e) {
+            log.warn("读取项目结构失败: {}, 错误: {}", projectPath, e.getMessage());
+            manifestCache.invalidate(cacheKey);
+            return null;
+        }
     }
 
     @Override
@@ -114,6 +128,65 @@ public class ProjectWorkspacePortImpl implements ProjectWorkspacePort {
         return null;
     }
 
+    /**
+     * 遍历项目生成文件清单，忽略的目录整棵跳过，同时记录各目录的修改时间用于校验缓存
+     */
+    private ManifestSnapshot scanManifest(Path projectPath) throws IOException {
+        long scannedAt = System.currentTimeMillis();
+        List<String> relativePaths = new ArrayList<>();
+        Map<Path, FileTime> directoryTimes = new HashMap<>();
+        Files.walkFileTree(projectPath, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(projectPath) && shouldIgnore(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directoryTimes.put(dir, attrs.lastModifiedTime());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory() && !shouldIgnore(file.getFileName().toString())) {
+                    relativePaths.add(projectPath.relativize(file).toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        relativePaths.sort(String::compareTo);
+
+        StringBuilder structure = new StringBuilder();
+        structure.append("项目目录结构:\n");
+        relativePaths.forEach(relativePath -> structure.append("- ").append(relativePath).append("\n"));
+
+        // 修改时间精度可能只有秒级：扫描前刚变化过的目录无法可靠判断之后是否再变，本次结果不缓存
+        boolean cacheable = directoryTimes.values().stream()
+                .allMatch(time -> time.toMillis() < scannedAt - MTIME_GRANULARITY_MILLIS);
+        return new ManifestSnapshot(structure.toString(), directoryTimes, cacheable);
+    }
+
+    /**
+     * 项目文件清单快照
+     *
+     * @param directoryTimes 扫描时各目录（不含忽略目录）的修改时间
+     */
+    private record ManifestSnapshot(String structure, Map<Path, FileTime> directoryTimes, boolean cacheable) {
+
+        boolean isCurrent() {
+            for (Map.Entry<Path, FileTime> entry : directoryTimes.entrySet()) {
+                try {
+                    if (!Files.getLastModifiedTime(entry.getKey()).equals(entry.getValue())) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    // 目录已被删除
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private boolean shouldIgnore(String fileName) {
         if (IGNORED_NAMES.contains(fileName)) {
             return true;
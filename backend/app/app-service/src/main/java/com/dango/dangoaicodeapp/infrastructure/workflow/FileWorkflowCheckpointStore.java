@@ -0,0 +1,82 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowCheckpointPort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 基于本地文件的工作流检查点存储。
+ * 仅本机可见，用于测试与单机调试；写入先落临时文件再原子替换，崩溃时不会留下半个检查点。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "codegen.workflow.checkpoint-store", havingValue = "file")
+public class FileWorkflowCheckpointStore implements WorkflowCheckpointPort {
+
+    private static final String FILE_SUFFIX = ".ckpt";
+
+    private final Path directory;
+    private final Duration ttl;
+
+    public FileWorkflowCheckpointStore(CodeGenWorkflowProperties codeGenWorkflowProperties) {
+        this.directory = Paths.get(codeGenWorkflowProperties.getCheckpointDir());
+        this.ttl = codeGenWorkflowProperties.getCheckpointTtl();
+    }
+
+    @Override
+    public void save(String checkpointKey, WorkflowContext context) {
+        byte[] data = WorkflowContextSerializer.serialize(context);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "checkpoint-", ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, fileOf(checkpointKey), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("写入工作流检查点失败: " + checkpointKey, e);
+        }
+    }
+
+    @Override
+    public Optional<WorkflowContext> load(String checkpointKey) {
+        Path file = fileOf(checkpointKey);
+        try {
+            if (!Files.exists(file)) {
+                return Optional.empty();
+            }
+            if (Files.getLastModifiedTime(file).toInstant().plus(ttl).isBefore(Instant.now())) {
+                Files.deleteIfExists(file);
+                return Optional.empty();
+            }
+            return Optional.of(WorkflowContextSerializer.deserialize(Files.readAllBytes(file)));
+        } catch (Exception e) {
+            log.warn("工作流检查点不可读，忽略: key={}, error={}", checkpointKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String checkpointKey) {
+        try {
+            Files.deleteIfExists(fileOf(checkpointKey));
+        } catch (IOException e) {
+            throw new IllegalStateException("删除工作流检查点失败: " + checkpointKey, e);
+        }
+    }
+
+    private Path fileOf(String checkpointKey) {
+        // 检查点标识来自 appId/userId，替换路径分隔符后直接作为文件名
+        return directory.resolve(checkpointKey.replaceAll("[^A-Za-z0-9_.-]", "_") + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,103 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.aicodegenerate.model.ImageResource;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import com.dango.dangoaicodecommon.trace.TracedVirtualThread;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 图片任务并发执行器。
+ *
+ * 同一收集节点内的多个搜索/生成任务各占一个虚拟线程并发执行，节点耗时从各任务之和降为最慢任务；
+ * 每个提供方有进程级并发上限（多个生成共享），避免并发放大后触发外部接口限流或拉起过多渲染进程。
+ * 到达截止时间后取消未完成的任务，只返回已完成的结果，单个任务失败不影响其他任务。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageTaskFanout {
+
+    private final CodeGenWorkflowProperties codeGenWorkflowProperties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<String, Semaphore> providerPermits = new ConcurrentHashMap<>();
+
+    /**
+     * 并发执行同一提供方的任务，结果按任务顺序合并。
+     */
+    public <T> List<ImageResource> collect(String provider, List<T> tasks, Function<T, List<ImageResource>> call) {
+        if (tasks == null || tasks.isEmpty()) {
+            return List.of();
+        }
+        Semaphore permits = providerPermits.computeIfAbsent(provider, key -> new Semaphore(
+                Math.max(1, codeGenWorkflowProperties.getImageProviderConcurrency()
+                        .getOrDefault(key, codeGenWorkflowProperties.getImageProviderDefaultConcurrency()))));
+        List<Callable<List<ImageResource>>> calls = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            calls.add(TracedVirtualThread.wrapCallable(() -> {
+                permits.acquire();
+                try {
+                    return call.apply(task);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<Future<List<ImageResource>>> futures;
+        try {
+            futures = executor.invokeAll(calls,
+                    codeGenWorkflowProperties.getImageCollectDeadline().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+
+        List<ImageResource> results = new ArrayList<>();
+        int timedOut = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<ImageResource>> future = futures.get(i);
+            if (future.isCancelled()) {
+                timedOut++;
+                continue;
+            }
+            try {
+                List<ImageResource> images = future.get();
+                if (images != null) {
+                    results.addAll(images);
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("图片任务失败: provider={}, task={}, error={}", provider, tasks.get(i), cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (timedOut > 0) {
+            log.warn("图片任务超过截止时间被取消: provider={}, cancelled={}/{}", provider, timedOut, tasks.size());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,342 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import com.dango.dangoaicodecommon.trace.TracedVirtualThread;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作流准入队列。
+ *
+ * 限制本节点同时执行的工作流数量（每次执行会占用虚拟线程、模型流与 npm 构建），超出的请求排队等待：
+ * <ul>
+ *   <li>按用户分队列，用户之间轮转调度，单个用户同时执行的数量另有上限，突发请求不会挤占其他用户</li>
+ *   <li>排队位置变化时通过监听器回调，由调用方经 SSE 推送给前端</li>
+ *   <li>队列满或等待超时时拒绝请求，不让请求无限期挂起</li>
+ * </ul>
+ * 导出队列深度、执行中数量、排队等待时长与拒绝次数指标。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowAdmissionQueue {
+
+    /**
+     * 排队状态回调，在队列锁之外调用。
+     */
+    public interface Listener {
+
+        /**
+         * 进入队列或排队位置变化（从 1 开始）
+         */
+        void onQueued(int position);
+
+        /**
+         * 请求被拒绝（队列已满或等待超时），任务不会执行
+         */
+        void onRejected(String reason);
+    }
+
+    private final CodeGenWorkflowProperties codeGenWorkflowProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    /**
+     * 按用户排队；迭代顺序即轮转顺序，用户被调度一次后移到末尾
+     */
+    private final LinkedHashMap<String, Deque<Ticket>> waiting = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+    private int running;
+    private int queued;
+    /**
+     * 排队超时任务；入队时登记，出队（执行、取消、超时）时取消，不在队列满载时堆积
+     */
+    private final ScheduledThreadPoolExecutor expiryScheduler = newExpiryScheduler();
+
+    private Timer admittedWaitTimer;
+    private Timer expiredWaitTimer;
+    private Counter queueFullCounter;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("codegen_admission_queue_depth", this, queue -> queue.snapshotQueued())
+                .description("准入队列中等待执行的工作流数")
+                .register(meterRegistry);
+        Gauge.builder("codegen_admission_running", this, queue -> queue.snapshotRunning())
+                .description("本节点正在执行的工作流数")
+                .register(meterRegistry);
+        admittedWaitTimer = waitTimer("admitted");
+        expiredWaitTimer = waitTimer("expired");
+        queueFullCounter = rejectedCounter("queue_full");
+        expiredCounter = rejectedCounter("expired");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryScheduler.shutdownNow();
+    }
+
+    /**
+     * 提交工作流执行任务。
+     * 有空闲槽位且无人排队时立即执行；否则进入该用户的队列，轮到时在新的虚拟线程中执行。
+     * 只有真正留在队列中的请求占用队列容量，排队数达到容量上限后不再接受需要排队的请求。
+     *
+     * @return 排队凭据，调用方放弃请求时调用 {@link Ticket#cancel()}
+     */
+    public Ticket submit(String userId, Runnable task, Listener listener) {
+        // 在提交线程上捕获 trace 上下文，排队后由其他线程调度时仍归属原请求
+        Ticket ticket = new Ticket(userId == null ? "anonymous" : userId, TracedVirtualThread.wrapRunnable(task), listener);
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (lock) {
+            waiting.computeIfAbsent(ticket.userId, key -> new ArrayDeque<>()).addLast(ticket);
+            queued++;
+            dispatchLocked(callbacks);
+            // 立即执行的请求不计入容量；留在队列中的请求使排队数超出容量时撤回并拒绝
+            if (ticket.state == State.WAITING && queued > codeGenWorkflowProperties.getAdmissionQueueCapacity()) {
+                removeWaitingLocked(ticket);
+                ticket.state = State.DONE;
+                queueFullCounter.increment();
+                callbacks.add(() -> listener.onRejected("当前生成任务过多，请稍后重试"));
+            } else if (ticket.state == State.WAITING) {
+                log.info("工作流进入准入队列: userId={}, queued={}, running={}", ticket.userId, queued, running);
+                publishPositionsLocked(callbacks);
+                scheduleExpiry(ticket);
+            }
+        }
+        callbacks.forEach(Runnable::run);
+        return ticket;
+    }
+
+    private void release(Ticket ticket) {
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (lock) {
+            running--;
+            runningByUser.computeIfPresent(ticket.userId, (key, count) -> count > 1 ? count - 1 : null);
+            dispatchLocked(callbacks);
+            publishPositionsLocked(callbacks);
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    private boolean cancel(Ticket ticket) {
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (lock) {
+            if (ticket.state != State.WAITING || !removeWaitingLocked(ticket)) {
+                return false;
+            }
+            ticket.state = State.DONE;
+            cancelExpiry(ticket);
+            publishPositionsLocked(callbacks);
+        }
+        callbacks.forEach(Runnable::run);
+        return true;
+    }
+
+    private void expire(Ticket ticket) {
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (lock) {
+            if (ticket.state != State.WAITING || !removeWaitingLocked(ticket)) {
+                return;
+            }
+            ticket.state = State.DONE;
+            expiredCounter.increment();
+            expiredWaitTimer.record(System.nanoTime() - ticket.enqueuedNanos, TimeUnit.NANOSECONDS);
+            callbacks.add(() -> ticket.listener.onRejected("排队等待超时，请稍后重试"));
+            publishPositionsLocked(callbacks);
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * 按轮转顺序为空闲槽位挑选任务：跳过已达单用户上限的用户，被选中的用户移到末尾。
+     */
+    private void dispatchLocked(List<Runnable> callbacks) {
+        while (running < codeGenWorkflowProperties.getMaxConcurrentRuns()) {
+            Ticket next = null;
+            Iterator<Map.Entry<String, Deque<Ticket>>> iterator = waiting.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Deque<Ticket>> entry = iterator.next();
+                if (runningByUser.getOrDefault(entry.getKey(), 0) >= codeGenWorkflowProperties.getMaxConcurrentRunsPerUser()) {
+                    continue;
+                }
+                next = entry.getValue().pollFirst();
+                iterator.remove();
+                if (!entry.getValue().isEmpty()) {
+                    waiting.put(entry.getKey(), entry.getValue());
+                }
+                break;
+            }
+            if (next == null) {
+                return;
+            }
+            queued--;
+            running++;
+            runningByUser.merge(next.userId, 1, Integer::sum);
+            next.state = State.RUNNING;
+            cancelExpiry(next);
+            admittedWaitTimer.record(System.nanoTime() - next.enqueuedNanos, TimeUnit.NANOSECONDS);
+            Ticket admitted = next;
+            callbacks.add(() -> start(admitted));
+        }
+    }
+
+    private void start(Ticket ticket) {
+        Thread.startVirtualThread(() -> {
+            try {
+                ticket.task.run();
+            } finally {
+                release(ticket);
+            }
+        });
+    }
+
+    /**
+     * 按轮转顺序推算每个等待任务的位置（第 n 轮依次取各用户队列的第 n 个），只在位置变化时回调。
+     */
+    private void publishPositionsLocked(List<Runnable> callbacks) {
+        List<Deque<Ticket>> queues = new ArrayList<>(waiting.values());
+        List<Iterator<Ticket>> cursors = new ArrayList<>(queues.size());
+        for (Deque<Ticket> queue : queues) {
+            cursors.add(queue.iterator());
+        }
+        int position = 0;
+        boolean remaining = true;
+        while (remaining) {
+            remaining = false;
+            for (Iterator<Ticket> cursor : cursors) {
+                if (!cursor.hasNext()) {
+                    continue;
+                }
+                remaining = true;
+                Ticket ticket = cursor.next();
+                position++;
+                if (ticket.lastPosition != position) {
+                    ticket.lastPosition = position;
+                    int reported = position;
+                    callbacks.add(() -> ticket.listener.onQueued(reported));
+                }
+            }
+        }
+    }
+
+    private boolean removeWaitingLocked(Ticket ticket) {
+        Deque<Ticket> queue = waiting.get(ticket.userId);
+        if (queue == null || !queue.remove(ticket)) {
+            return false;
+        }
+        if (queue.isEmpty()) {
+            waiting.remove(ticket.userId);
+        }
+        queued--;
+        return true;
+    }
+
+    private void scheduleExpiry(Ticket ticket) {
+        long maxWaitMillis = codeGenWorkflowProperties.getAdmissionMaxWait().toMillis();
+        ticket.expiry = expiryScheduler.schedule(() -> expire(ticket), maxWaitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelExpiry(Ticket ticket) {
+        if (ticket.expiry != null) {
+            ticket.expiry.cancel(false);
+            ticket.expiry = null;
+        }
+    }
+
+    /**
+     * 等待中的超时任务数，供测试检查出队后是否已撤销
+     */
+    int pendingExpiryCount() {
+        return expiryScheduler.getQueue().size();
+    }
+
+    private static ScheduledThreadPoolExecutor newExpiryScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, ThreadFactoryBuilder.create()
+                .setNamePrefix("Admission-Expiry-")
+                .setDaemon(true)
+                .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private int snapshotQueued() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    private int snapshotRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    private Timer waitTimer(String outcome) {
+        return Timer.builder("codegen_admission_wait_seconds")
+                .description("工作流在准入队列中的等待时长")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("codegen_admission_rejected_total")
+                .description("准入队列拒绝的请求数")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private enum State {
+        WAITING, RUNNING, DONE
+    }
+
+    /**
+     * 排队凭据，状态字段在队列锁内访问。
+     */
+    public final class Ticket {
+        private final String userId;
+        private final Runnable task;
+        private final Listener listener;
+        private final long enqueuedNanos = System.nanoTime();
+        private State state = State.WAITING;
+        private int lastPosition;
+        private ScheduledFuture<?> expiry;
+
+        private Ticket(String userId, Runnable task, Listener listener) {
+            this.userId = userId;
+            this.task = task;
+            this.listener = listener;
+        }
+
+        /**
+         * 放弃排队；已开始执行或已结束时无效果
+         *
+         * @return 是否从队列中移除（任务不会再执行）
+         */
+        public boolean cancel() {
+            return WorkflowAdmissionQueue.this.cancel(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * WorkflowContext 检查点序列化。
+ *
+ * WorkflowContext 及其字段类型都实现了 Serializable，直接使用 Java 序列化保留完整对象图；
+ * 反序列化只放行本项目与 JDK 的类型，避免存储被篡改时反序列化任意类。
+ */
+public final class WorkflowContextSerializer {
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "com.dango.**;java.lang.*;java.util.*;java.time.*;java.math.*;!*");
+
+    private WorkflowContextSerializer() {
+    }
+
+    public static byte[] serialize(WorkflowContext context) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(context);
+        } catch (IOException e) {
+            throw new IllegalStateException("序列化工作流检查点失败", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static WorkflowContext deserialize(byte[] data) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            input.setObjectInputFilter(FILTER);
+            return (WorkflowContext) input.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("反序列化工作流检查点失败", e);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.dango.dangoaicodeapp.infrastructure.workflow;
 
-import cn.hutool.json.JSONUtil;
 import com.dango.aicodegenerate.model.message.AiResponseMessage;
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import com.dango.aicodegenerate.model.message.ToolExecutedMessage;
+import com.dango.aicodegenerate.model.message.ToolRequestMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowStreamPort;
+import com.dango.dangoaicodeapp.infrastructure.monitor.WorkflowProfiler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -15,13 +18,22 @@ import org.springframework.stereotype.Component;
 public class WorkflowMessagePortImpl implements WorkflowMessagePort {
 
     private final WorkflowStreamPort workflowStreamPort;
+    private final WorkflowProfiler workflowProfiler;
 
     @Override
-    public void emitRaw(String executionId, String payload) {
-        if (executionId == null || payload == null) {
+    public void emit(String executionId, StreamMessage message) {
+        if (executionId == null || message == null) {
             return;
         }
-        workflowStreamPort.emit(executionId, payload);
+        if (!isLogFrame(message)) {
+            workflowProfiler.contentEmitted(executionId);
+        }
+        if (message instanceof ToolRequestMessage toolRequest) {
+            workflowProfiler.toolRequested(executionId, toolRequest.getId(), toolRequest.getName());
+        } else if (message instanceof ToolExecutedMessage toolExecuted) {
+            workflowProfiler.toolExecuted(executionId, toolExecuted.getId(), toolExecuted.getName());
+        }
+        workflowStreamPort.emit(executionId, message);
     }
 
     @Override
@@ -47,6 +59,10 @@ public class WorkflowMessagePortImpl implements WorkflowMessagePort {
     private void emitLog(String executionId, String text) {
         AiResponseMessage message = new AiResponseMessage(text);
         message.setMsgType("log");
-        emitRaw(executionId, JSONUtil.toJsonStr(message));
+        emit(executionId, message);
+    }
+
+    private static boolean isLogFrame(StreamMessage message) {
+        return message instanceof AiResponseMessage aiMessage && "log".equals(aiMessage.getMsgType());
     }
 }
@@ -0,0 +1,248 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.aicodegenerate.model.message.AiResponseMessage;
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Operators;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单次工作流执行的有界输出通道。
+ *
+ * 节点（虚拟线程）写入、下游订阅方按 request 需求取出，队列容量固定：
+ * <ul>
+ *   <li>内容帧：队列满时阻塞写入方，直到下游消费或取消，代价只是挂起一个虚拟线程</li>
+ *   <li>日志帧（msgType=log）：队列满时并入队尾日志帧，无法合并则丢弃，不阻塞节点执行</li>
+ * </ul>
+ * 结束/失败信号在队列排空后才下发，保证尾部内容不会因提前 complete 而丢失。
+ * 下游卡住（如 Redis 追加变慢）时，单次执行的堆占用最多为 capacity 条消息。
+ */
+final class WorkflowOutputChannel {
+
+    private static final String LOG_MSG_TYPE = "log";
+
+    /**
+     * 合并后日志帧的最大字符数，超过后新日志帧直接丢弃，避免合并本身无界增长。
+     */
+    private static final int LOG_COALESCE_MAX_CHARS = 4096;
+
+    private static final long BLOCK_CHECK_INTERVAL_MILLIS = 100;
+
+    private final FluxSink<StreamMessage> sink;
+    private final int capacity;
+    private final Meters meters;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<StreamMessage> queue;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private volatile boolean inputClosed;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    WorkflowOutputChannel(FluxSink<StreamMessage> sink, int capacity, Meters meters) {
+        this.sink = sink;
+        this.capacity = Math.max(1, capacity);
+        this.meters = meters;
+        this.queue = new ArrayDeque<>(Math.min(this.capacity, 64));
+        sink.onRequest(n -> {
+            requested.accumulateAndGet(n, Operators::addCap);
+            drain();
+        });
+        sink.onCancel(this::cancel);
+    }
+
+    /**
+     * 写入一条消息，内容帧在队列满时阻塞。
+     */
+    void emit(StreamMessage message) {
+        if (message == null || cancelled || inputClosed) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                if (isLogFrame(message)) {
+                    coalesceOrDropLog((AiResponseMessage) message);
+                    return;
+                }
+                if (!awaitCapacity()) {
+                    return;
+                }
+            }
+            queue.offerLast(message);
+            meters.depth().incrementAndGet();
+            meters.runDepth().record(queue.size());
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    /**
+     * 输入结束，队列排空后完成下游。
+     */
+    void complete() {
+        inputClosed = true;
+        drain();
+    }
+
+    /**
+     * 输入异常结束，队列排空后向下游传递错误。
+     */
+    void error(Throwable throwable) {
+        error = throwable;
+        inputClosed = true;
+        drain();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        lock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    /**
+     * 等待队列出现空位，调用方已持有锁。下游取消或线程中断时放弃写入。
+     */
+    private boolean awaitCapacity() {
+        long start = System.nanoTime();
+        try {
+            while (queue.size() >= capacity) {
+                if (cancelled) {
+                    return false;
+                }
+                notFull.await(BLOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return !cancelled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            meters.blocked().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void coalesceOrDropLog(AiResponseMessage message) {
+        StreamMessage tail = queue.peekLast();
+        if (isLogFrame(tail)) {
+            String merged = nullToEmpty(((AiResponseMessage) tail).getData()) + nullToEmpty(message.getData());
+            if (merged.length() <= LOG_COALESCE_MAX_CHARS) {
+                // 替换而不是原地修改，队尾对象可能仍被其他引用持有
+                AiResponseMessage coalesced = new AiResponseMessage(merged);
+                coalesced.setMsgType(LOG_MSG_TYPE);
+                queue.pollLast();
+                queue.offerLast(coalesced);
+                meters.logCoalesced().increment();
+                return;
+            }
+        }
+        meters.logDropped().increment();
+    }
+
+    /**
+     * 串行排空队列：同一时刻只有一个线程向下游 sink 推送，推送量不超过下游 request。
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (cancelled) {
+                clear();
+            } else {
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled) {
+                    StreamMessage next = poll();
+                    if (next == null) {
+                        break;
+                    }
+                    sink.next(next);
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (!cancelled && !terminated && inputClosed && isEmpty()) {
+                    terminated = true;
+                    Throwable failure = error;
+                    if (failure != null) {
+                        sink.error(failure);
+                    } else {
+                        sink.complete();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private StreamMessage poll() {
+        lock.lock();
+        try {
+            StreamMessage next = queue.pollFirst();
+            if (next != null) {
+                meters.depth().decrementAndGet();
+                notFull.signal();
+            }
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        lock.lock();
+        try {
+            return queue.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void clear() {
+        lock.lock();
+        try {
+            meters.depth().addAndGet(-queue.size());
+            queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isLogFrame(StreamMessage message) {
+        return message instanceof AiResponseMessage aiMessage && LOG_MSG_TYPE.equals(aiMessage.getMsgType());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * 通道共享的指标句柄，由注册表统一创建。
+     */
+    record Meters(AtomicInteger depth, DistributionSummary runDepth, Counter logCoalesced,
+                  Counter logDropped, Timer blocked) {
+    }
+}
@@ -1,38 +1,100 @@
 package com.dango.dangoaicodeapp.infrastructure.workflow;
 
+import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowStreamPort;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.FluxSink;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 工作流流式输出端口实现。
+ * 每次执行注册一个有界输出通道（见 {@link WorkflowOutputChannel}），下游变慢时由通道施加背压，
+ * 并导出队列深度、日志帧合并/丢弃与写入阻塞时长等指标。
  */
 @Component
+@RequiredArgsConstructor
 public class WorkflowStreamPortImpl implements WorkflowStreamPort {
 
-    private final Map<String, FluxSink<String>> sinkRegistry = new ConcurrentHashMap<>();
+    private final CodeGenStreamProperties codeGenStreamProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, WorkflowOutputChannel> channelRegistry = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private WorkflowOutputChannel.Meters meters;
+
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("workflow_output_queue_depth", queuedFrames, AtomicInteger::get)
+                .description("工作流输出通道中待下游消费的消息总数")
+                .register(meterRegistry);
+        Gauge.builder("workflow_output_channels_active", channelRegistry, Map::size)
+                .description("已注册的工作流输出通道数")
+                .register(meterRegistry);
+        meters = new WorkflowOutputChannel.Meters(
+                queuedFrames,
+                DistributionSummary.builder("workflow_output_run_queue_depth")
+                        .description("单次执行输出通道入队时的队列深度")
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry),
+                Counter.builder("workflow_output_log_frames_total")
+                        .description("队列满时被合并/丢弃的日志帧数")
+                        .tag("result", "coalesced")
+                        .register(meterRegistry),
+                Counter.builder("workflow_output_log_frames_total")
+                        .description("队列满时被合并/丢弃的日志帧数")
+                        .tag("result", "dropped")
+                        .register(meterRegistry),
+                Timer.builder("workflow_output_emit_blocked_seconds")
+                        .description("内容帧因队列满而阻塞写入方的时长")
+                        .register(meterRegistry));
+    }
 
     @Override
-    public void register(String executionId, FluxSink<String> sink) {
-        sinkRegistry.put(executionId, sink);
+    public void register(String executionId, FluxSink<StreamMessage> sink) {
+        channelRegistry.put(executionId, new WorkflowOutputChannel(
+                sink, codeGenStreamProperties.getWorkflowOutputBufferSize(), meters));
     }
 
     @Override
     public void unregister(String executionId) {
-        sinkRegistry.remove(executionId);
+        channelRegistry.remove(executionId);
     }
 
     @Override
-    public void emit(String executionId, String payload) {
+    public void emit(String executionId, StreamMessage message) {
         if (executionId == null) {
             return;
         }
-        FluxSink<String> sink = sinkRegistry.get(executionId);
-        if (sink != null) {
-            sink.next(payload);
+        WorkflowOutputChannel channel = channelRegistry.get(executionId);
+        if (channel != null) {
+            channel.emit(message);
+        }
+    }
+
+    @Override
+    public void complete(String executionId) {
+        WorkflowOutputChannel channel = channelRegistry.get(executionId);
+        if (channel != null) {
+            channel.complete();
+        }
+    }
+
+    @Override
+    public void error(String executionId, Throwable error) {
+        WorkflowOutputChannel channel = channelRegistry.get(executionId);
+        if (channel != null) {
+            channel.error(error);
         }
     }
 }
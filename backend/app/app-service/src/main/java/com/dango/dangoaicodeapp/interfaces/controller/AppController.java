@@ -18,6 +18,7 @@ import com.dango.dangoaicodeapp.model.vo.AppInfoVO;
 import com.dango.dangoaicodeapp.model.vo.AppVO;
 import com.dango.dangoaicodeapp.model.vo.FeatureAnalysisVO;
 import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
 import com.dango.dangoaicodeapp.domain.codegen.service.AppInfoGeneratorFacade;
 import com.dango.aicodegenerate.model.AppNameAndTagResult;
 import com.dango.dangoaicodeapp.application.service.AppApplicationService;
@@ -43,6 +44,7 @@ import reactor.core.publisher.Mono;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -250,6 +252,15 @@ public class AppController {
         return ResultUtils.success(appService.adminGetAppDetail(id));
     }
 
+    /**
+     * 管理员查询工作流执行时间线（执行中及最近结束的），按节点查看耗时分布
+     */
+    @GetMapping("/admin/workflow/timeline")
+    @SaCheckRole("admin")
+    public BaseResponse<List<WorkflowTimeline>> listWorkflowTimelinesByAdmin(@RequestParam(required = false) Long appId) {
+        return ResultUtils.success(codeGenApplicationService.listWorkflowTimelines(appId));
+    }
+
     /**
      * 对话生成代码（启动后台任务）
      * 前端随后通过 GET /chat/gen/resume 订阅 SSE 流
@@ -271,6 +282,18 @@ public class AppController {
         return ResultUtils.success(null);
     }
 
+    /**
+     * 从检查点恢复中断的生成任务（实例重启等导致的中断）
+     * 前端随后同样通过 GET /chat/gen/resume 订阅 SSE 流
+     */
+    @PostMapping("/chat/gen/recover")
+    @RateLimit(limitType = RateLimitType.USER, rate = 5, rateInterval = 60)
+    public BaseResponse<Void> recoverGenCode(@RequestParam Long appId) {
+        long loginUserId = StpUtil.getLoginIdAsLong();
+        codeGenApplicationService.resumeInterruptedGeneration(appId, loginUserId);
+        return ResultUtils.success(null);
+    }
+
     /**
      * 查询当前生成任务状态
      */
@@ -0,0 +1,257 @@
+// 常驻 Vite 构建进程。
+// 从 stdin 逐行读取任务，使用项目自身依赖中的 Vite 在进程内执行，任务串行执行：
+//   构建任务 {"id","projectDir","cacheDir"}：执行 vite build
+//   预检查任务 {"id","type":"check","projectDir","files"}：只解析/转译给定文件并检查相对导入，返回结构化错误
+//     导入取自转译结果的语法树（vite.parseAst），字符串与模板字面量中的示例代码不会被当作导入；
+//     Vite 不提供 parseAst 或解析失败时只做语法检查，导入交给完整构建
+// 结果以带前缀的单行 JSON 写到 stdout，其余 stdout/stderr 输出都视为构建日志。
+import { createInterface } from 'node:readline'
+import { createRequire } from 'node:module'
+import { existsSync, readFileSync, statSync } from 'node:fs'
+import { dirname, extname, join, relative, resolve } from 'node:path'
+import { pathToFileURL } from 'node:url'
+
+const RESULT_PREFIX = '@@BUILD_RESULT@@ '
+const RESOLVE_EXTENSIONS = ['.js', '.jsx', '.ts', '.tsx', '.vue', '.json', '.mjs']
+
+function reply(result) {
+  process.stdout.write(RESULT_PREFIX + JSON.stringify(result) + '\n')
+}
+
+async function loadVite(projectDir) {
+  const require = createRequire(join(projectDir, 'package.json'))
+  const vitePackage = require.resolve('vite/package.json')
+  return import(pathToFileURL(join(dirname(vitePackage), 'dist', 'node', 'index.js')).href)
+}
+
+function formatError(error) {
+  const lines = ['error during build:']
+  if (error.plugin) {
+    lines.push(`[${error.plugin}] ${error.message}`)
+  } else {
+    lines.push(String(error.message || error))
+  }
+  if (error.id) {
+    const loc = error.loc ? `:${error.loc.line}:${error.loc.column}` : ''
+    lines.push(`file: ${error.id}${loc}`)
+  }
+  if (error.frame) {
+    lines.push(error.frame)
+  }
+  return lines.join('\n')
+}
+
+function isFile(path) {
+  try {
+    return statSync(path).isFile()
+  } catch {
+    return false
+  }
+}
+
+// 按 Vite 默认的扩展名与 index 文件规则解析相对导入；只检查相对路径与 @/ 别名，包导入交给完整构建
+function importExists(projectDir, fromFile, specifier) {
+  const path = specifier.replace(/[?#].*$/, '')
+  let target
+  if (path.startsWith('./') || path.startsWith('../')) {
+    target = resolve(dirname(fromFile), path)
+  } else if (path.startsWith('@/')) {
+    target = join(projectDir, 'src', path.slice(2))
+  } else {
+    return true
+  }
+  if (isFile(target)) {
+    return true
+  }
+  return RESOLVE_EXTENSIONS.some(ext => isFile(target + ext) || isFile(join(target, 'index' + ext)))
+}
+
+// 收集 import/export 声明与字面量动态导入的模块路径；模板字符串等非字面量动态导入无法静态判断，跳过
+function collectImports(ast) {
+  const specifiers = []
+  const visit = (node) => {
+    if (Array.isArray(node)) {
+      node.forEach(visit)
+      return
+    }
+    if (!node || typeof node.type !== 'string') {
+      return
+    }
+    if ((node.type === 'ImportDeclaration' || node.type === 'ExportNamedDeclaration'
+      || node.type === 'ExportAllDeclaration' || node.type === 'ImportExpression')
+      && node.source?.type === 'Literal' && typeof node.source.value === 'string') {
+      specifiers.push(node.source.value)
+    }
+    for (const [key, value] of Object.entries(node)) {
+      if (key !== 'source' && value && typeof value === 'object') {
+        visit(value)
+      }
+    }
+  }
+  visit(ast)
+  return specifiers
+}
+
+function parseImports(vite, code) {
+  if (typeof vite.parseAst !== 'function') {
+    return []
+  }
+  try {
+    return collectImports(vite.parseAst(code))
+  } catch {
+    return []
+  }
+}
+
+function esbuildLoader(file, lang) {
+  const ext = lang ? '.' + lang : extname(file)
+  if (ext === '.ts' || ext === '.mts') {
+    return 'ts'
+  }
+  if (ext === '.tsx') {
+    return 'tsx'
+  }
+  // .js 中可能写了 JSX，按 jsx 解析（JS 的超集），不因此误报
+  return 'jsx'
+}
+
+// 行列号从 1 开始；无位置信息的字段直接省略
+function locationError(file, message, loc, frame) {
+  const error = { file, message }
+  if (loc?.line) {
+    error.line = loc.line
+    error.column = loc.column
+  }
+  if (frame) {
+    error.frame = frame
+  }
+  return error
+}
+
+async function transpile(vite, projectDir, file, code, lang, lineOffset, errors) {
+  try {
+    const result = await vite.transformWithEsbuild(code, file, { loader: esbuildLoader(file, lang), sourcemap: false })
+    for (const specifier of parseImports(vite, result.code)) {
+      if (!importExists(projectDir, file, specifier)) {
+        errors.push(locationError(relative(projectDir, file), `无法解析导入 "${specifier}"：文件不存在`))
+      }
+    }
+  } catch (error) {
+    for (const item of error.errors || [{ text: error.message }]) {
+      // esbuild 的列号从 0 开始
+      const loc = item.location ? { line: item.location.line + lineOffset, column: item.location.column + 1 } : null
+      errors.push(locationError(relative(projectDir, file), item.text, loc, item.location?.lineText))
+    }
+  }
+}
+
+async function checkVueFile(vite, compilerSfc, projectDir, file, source, errors) {
+  const relativePath = relative(projectDir, file)
+  const { descriptor, errors: parseErrors } = compilerSfc.parse(source, { filename: file })
+  for (const error of parseErrors) {
+    errors.push(locationError(relativePath, error.message, error.loc?.start))
+  }
+  if (parseErrors.length > 0) {
+    return
+  }
+  if (descriptor.template && !descriptor.template.src) {
+    const result = compilerSfc.compileTemplate({
+      source: descriptor.template.content,
+      filename: file,
+      id: relativePath,
+      compilerOptions: { isTS: ['ts', 'tsx'].includes(descriptor.scriptSetup?.lang || descriptor.script?.lang) }
+    })
+    for (const error of result.errors) {
+      const loc = typeof error === 'string' ? null : error.loc?.start
+      // 模板内的行号相对于 <template> 起始行
+      const line = loc ? loc.line + descriptor.template.loc.start.line - 1 : null
+      errors.push(locationError(relativePath, typeof error === 'string' ? error : error.message,
+        line ? { line, column: loc.column } : null))
+    }
+  }
+  for (const block of [descriptor.script, descriptor.scriptSetup]) {
+    if (block && !block.src) {
+      await transpile(vite, projectDir, file, block.content, block.lang, block.loc.start.line - 1, errors)
+    }
+  }
+}
+
+async function runCheck(job, vite) {
+  if (typeof vite.transformWithEsbuild !== 'function') {
+    reply({ id: job.id, success: false, kind: 'worker', error: '当前 Vite 版本不提供 transformWithEsbuild' })
+    return
+  }
+  let compilerSfc = null
+  const require = createRequire(join(job.projectDir, 'package.json'))
+  const errors = []
+  for (const relativePath of job.files || []) {
+    const file = resolve(job.projectDir, relativePath)
+    if (!existsSync(file)) {
+      continue
+    }
+    const source = readFileSync(file, 'utf8')
+    if (file.endsWith('.vue')) {
+      if (!compilerSfc) {
+        try {
+          compilerSfc = require('vue/compiler-sfc')
+        } catch (error) {
+          reply({ id: job.id, success: false, kind: 'worker', error: `Vue 编译器加载失败: ${error.message}` })
+          return
+        }
+      }
+      await checkVueFile(vite, compilerSfc, job.projectDir, file, source, errors)
+    } else {
+      await transpile(vite, job.projectDir, file, source, null, 0, errors)
+    }
+  }
+  reply({ id: job.id, success: errors.length === 0, kind: 'check', errors })
+}
+
+async function runJob(job) {
+  let vite
+  try {
+    vite = await loadVite(job.projectDir)
+  } catch (error) {
+    // 项目依赖中找不到 Vite：不是构建错误，由调用方改走 npm run build
+    reply({ id: job.id, success: false, kind: 'worker', error: `Vite 加载失败: ${error.message}` })
+    return
+  }
+  if (job.type === 'check') {
+    try {
+      await runCheck(job, vite)
+    } catch (error) {
+      reply({ id: job.id, success: false, kind: 'worker', error: `预检查执行失败: ${error.message}` })
+    }
+    return
+  }
+  const originalCwd = process.cwd()
+  try {
+    process.chdir(job.projectDir)
+    // 应用独立的缓存目录：行内配置优先于项目 vite.config.js 中的 cacheDir
+    const inlineConfig = { root: job.projectDir, logLevel: 'warn', clearScreen: false }
+    if (job.cacheDir) {
+      inlineConfig.cacheDir = job.cacheDir
+    }
+    await vite.build(inlineConfig)
+    reply({ id: job.id, success: true })
+  } catch (error) {
+    reply({ id: job.id, success: false, kind: 'build', error: formatError(error) })
+  } finally {
+    process.chdir(originalCwd)
+  }
+}
+
+const input = createInterface({ input: process.stdin, crlfDelay: Infinity })
+for await (const line of input) {
+  if (!line.trim()) {
+    continue
+  }
+  let job
+  try {
+    job = JSON.parse(line)
+  } catch (error) {
+    reply({ id: null, success: false, kind: 'worker', error: `无法解析构建任务: ${error.message}` })
+    continue
+  }
+  await runJob(job)
+}
@@ -0,0 +1,205 @@
+package com.dango.dangoaicodeapp.application.service.impl;
+
+import com.dango.dangoaicodeapp.domain.app.repository.AppRepository;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationStreamChunk;
+import com.dango.dangoaicodeapp.domain.codegen.model.GenerationTaskSnapshot;
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
+import com.dango.dangoaicodeapp.domain.codegen.service.GenerationSessionDomainService;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import com.dango.dangoaicodeapp.infrastructure.monitor.StreamLatencyMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GenerationStreamFanoutTest {
+
+    private static final long APP_ID = 1L;
+    private static final long USER_ID = 2L;
+
+    @Mock
+    private GenerationSessionDomainService generationSessionDomainService;
+
+    @Mock
+    private AppRepository appRepository;
+
+    @Mock
+    private StreamLatencyMetrics streamLatencyMetrics;
+
+    @Spy
+    private CodeGenStreamProperties codeGenStreamProperties = new CodeGenStreamProperties();
+
+    @InjectMocks
+    private GenerationStreamFanout fanout;
+
+    private final List<GenerationStreamChunk> stream = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    @BeforeEach
+    void setUp() {
+        codeGenStreamProperties.setIdleCheckInterval(Duration.ofMillis(20));
+        when(generationSessionDomainService.watchStream(APP_ID, USER_ID)).thenAnswer(invocation -> new SleepingWatcher());
+        when(generationSessionDomainService.getTaskSnapshot(APP_ID, USER_ID)).thenAnswer(invocation ->
+                new GenerationTaskSnapshot(finished.get()
+                        ? GenerationTaskSnapshot.STATUS_COMPLETED
+                        : GenerationTaskSnapshot.STATUS_GENERATING, 3L));
+        when(generationSessionDomainService.readStreamChunks(eq(APP_ID), eq(USER_ID), anyString(), anyLong()))
+                .thenAnswer(invocation -> {
+                    String afterId = invocation.getArgument(2);
+                    return stream.stream()
+                            .filter(chunk -> GenerationStreamFanout.compareIds(chunk.id(), afterId) > 0)
+                            .limit(invocation.<Long>getArgument(3))
+                            .toList();
+                });
+    }
+
+    @Test
+    @DisplayName("同一生成流的多个订阅者应共用一个读取器，并各自收到完整内容")
+    void shouldShareOneReaderAcrossSubscribers() throws Exception {
+        append("1-0", "a");
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(2);
+
+        fanout.subscribe(APP_ID, USER_ID, "0").doOnComplete(completed::countDown)
+                .subscribe(chunk -> first.add(chunk.content()));
+        awaitTrue(() -> first.size() == 1);
+        fanout.subscribe(APP_ID, USER_ID, "0").doOnComplete(completed::countDown)
+                .subscribe(chunk -> second.add(chunk.content()));
+        awaitTrue(() -> second.size() == 1);
+        assertEquals(1, fanout.activeReaderCount());
+
+        append("2-0", "b");
+        finished.set(true);
+
+        assertTrue(completed.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b"), first);
+        assertEquals(List.of("a", "b"), second);
+        assertEquals(0, fanout.activeReaderCount());
+    }
+
+    @Test
+    @DisplayName("游标早于共享窗口的订阅者应先从 Redis 追赶再并入")
+    void shouldCatchUpWhenCursorBeforeWindow() throws Exception {
+        codeGenStreamProperties.setFanoutWindowRecords(1);
+        append("1-0", "a");
+        append("2-0", "b");
+        append("3-0", "c");
+        List<String> live = new CopyOnWriteArrayList<>();
+        Disposable liveSubscription = fanout.subscribe(APP_ID, USER_ID, "0")
+                .subscribe(chunk -> live.add(chunk.content()));
+        awaitTrue(() -> live.size() == 3);
+
+        List<String> late = new CopyOnWriteArrayList<>();
+        Disposable lateSubscription = fanout.subscribe(APP_ID, USER_ID, "1-0")
+                .subscribe(chunk -> late.add(chunk.content()));
+        awaitTrue(() -> late.size() == 2);
+        append("4-0", "d");
+
+        awaitTrue(() -> late.size() == 3 && live.size() == 4);
+        assertEquals(List.of("b", "c", "d"), late);
+        liveSubscription.dispose();
+        lateSubscription.dispose();
+    }
+
+    @Test
+    @DisplayName("最后一个订阅者离开后应释放读取器")
+    void shouldReleaseReaderWhenLastSubscriberLeaves() throws Exception {
+        append("1-0", "a");
+        List<String> received = new CopyOnWriteArrayList<>();
+        Disposable first = fanout.subscribe(APP_ID, USER_ID, "0").subscribe(chunk -> received.add(chunk.content()));
+        Disposable second = fanout.subscribe(APP_ID, USER_ID, "0").subscribe(chunk -> received.add(chunk.content()));
+        awaitTrue(() -> received.size() == 2);
+        assertEquals(1, fanout.activeReaderCount());
+
+        first.dispose();
+        assertEquals(1, fanout.activeReaderCount());
+
+        second.dispose();
+        assertEquals(0, fanout.activeReaderCount());
+    }
+
+    @Test
+    @DisplayName("慢订阅者回放窗口时不应阻塞其他生成流的订阅")
+    void shouldNotBlockOtherStreamsWhileReplayingToSlowSubscriber() throws Exception {
+        long otherUserId = 3L;
+        when(generationSessionDomainService.watchStream(APP_ID, otherUserId)).thenAnswer(invocation -> new SleepingWatcher());
+        when(generationSessionDomainService.getTaskSnapshot(APP_ID, otherUserId)).thenReturn(
+                new GenerationTaskSnapshot(GenerationTaskSnapshot.STATUS_GENERATING, 4L));
+        when(generationSessionDomainService.readStreamChunks(eq(APP_ID), eq(otherUserId), eq("0"), anyLong()))
+                .thenReturn(List.of(new GenerationStreamChunk("1-0", "other", null)));
+        append("1-0", "a");
+        List<String> live = new CopyOnWriteArrayList<>();
+        Disposable liveSubscription = fanout.subscribe(APP_ID, USER_ID, "0").subscribe(chunk -> live.add(chunk.content()));
+        awaitTrue(() -> live.size() == 1);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch replaying = new CountDownLatch(1);
+        Disposable slowSubscription = fanout.subscribe(APP_ID, USER_ID, "0").subscribe(chunk -> {
+            replaying.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(replaying.await(2, TimeUnit.SECONDS));
+
+        List<String> other = new CopyOnWriteArrayList<>();
+        Disposable otherSubscription = fanout.subscribe(APP_ID, otherUserId, "0").subscribe(chunk -> other.add(chunk.content()));
+        awaitTrue(() -> other.size() == 1);
+
+        release.countDown();
+        liveSubscription.dispose();
+        slowSubscription.dispose();
+        otherSubscription.dispose();
+    }
+
+    private void append(String id, String content) {
+        stream.add(new GenerationStreamChunk(id, content, null));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static final class SleepingWatcher implements GenerationStreamPort.Watcher {
+        @Override
+        public boolean await(Duration timeout) throws InterruptedException {
+            Thread.sleep(timeout.toMillis());
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
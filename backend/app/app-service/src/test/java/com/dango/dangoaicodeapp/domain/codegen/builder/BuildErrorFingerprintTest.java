@@ -0,0 +1,37 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BuildErrorFingerprintTest {
+
+    private static final String PROJECT_DIR = "/app/tmp/code_output/vue_project_1";
+
+    @Test
+    @DisplayName("行列号、耗时、颜色码与项目绝对路径不同的同一错误指纹相同")
+    void shouldIgnoreVolatileParts() {
+        String first = "\u001B[31merror\u001B[39m during build:\n"
+                + PROJECT_DIR + "/src/App.vue:12:5: Unexpected token (built in 1.23s)";
+        String second = "error during build:\n"
+                + "/other/tmp/code_output/vue_project_1/src/App.vue:14:9: Unexpected token (built in 0.98s)";
+
+        assertEquals(BuildErrorFingerprint.of(first, PROJECT_DIR),
+                BuildErrorFingerprint.of(second, "/other/tmp/code_output/vue_project_1/"));
+    }
+
+    @Test
+    @DisplayName("不同文件或不同错误的指纹不同，空错误没有指纹")
+    void shouldDistinguishDifferentErrors() {
+        String appError = PROJECT_DIR + "/src/App.vue:12:5: Unexpected token";
+
+        assertNotEquals(BuildErrorFingerprint.of(appError, PROJECT_DIR),
+                BuildErrorFingerprint.of(PROJECT_DIR + "/src/Home.vue:12:5: Unexpected token", PROJECT_DIR));
+        assertNotEquals(BuildErrorFingerprint.of(appError, PROJECT_DIR),
+                BuildErrorFingerprint.of(PROJECT_DIR + "/src/App.vue:12:5: Missing import", PROJECT_DIR));
+        assertNull(BuildErrorFingerprint.of("  ", PROJECT_DIR));
+    }
+}
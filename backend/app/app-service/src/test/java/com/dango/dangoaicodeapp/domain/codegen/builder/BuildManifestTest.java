@@ -0,0 +1,75 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildManifestTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    @DisplayName("源码哈希忽略 node_modules、dist 与清单文件本身")
+    void shouldIgnoreDependenciesAndBuildOutput() throws Exception {
+        write("package.json", "{}");
+        write("src/App.vue", "<template>hello</template>");
+        String before = BuildManifest.computeSourceHash(projectDir);
+
+        write("node_modules/vue/index.js", "module.exports = {}");
+        write("dist/index.html", "<html></html>");
+        BuildManifest.record(projectDir, before);
+
+        assertEquals(before, BuildManifest.computeSourceHash(projectDir));
+    }
+
+    @Test
+    @DisplayName("源码内容或文件名变化时哈希随之变化")
+    void shouldChangeWhenSourceChanges() throws Exception {
+        write("src/App.vue", "<template>hello</template>");
+        String original = BuildManifest.computeSourceHash(projectDir);
+
+        write("src/App.vue", "<template>world</template>");
+        assertNotEquals(original, BuildManifest.computeSourceHash(projectDir));
+
+        Files.delete(projectDir.resolve("src/App.vue"));
+        write("src/Main.vue", "<template>hello</template>");
+        assertNotEquals(original, BuildManifest.computeSourceHash(projectDir));
+    }
+
+    @Test
+    @DisplayName("记录后可读回哈希，作废后视为未构建")
+    void shouldRoundTripAndInvalidate() {
+        BuildManifest.record(projectDir, "abc");
+        assertEquals("abc", BuildManifest.readRecordedHash(projectDir));
+
+        BuildManifest.invalidate(projectDir);
+        assertNull(BuildManifest.readRecordedHash(projectDir));
+    }
+
+    @Test
+    @DisplayName("作废清单后仍保留最近一次成功构建时间")
+    void shouldKeepLastBuiltAtAfterInvalidate() {
+        assertEquals(0L, BuildManifest.readLastBuiltAt(projectDir));
+        long before = System.currentTimeMillis();
+        BuildManifest.record(projectDir, "abc");
+
+        BuildManifest.invalidate(projectDir);
+
+        assertTrue(BuildManifest.readLastBuiltAt(projectDir) >= before);
+    }
+
+    private void write(String relativePath, String content) throws Exception {
+        Path file = projectDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,128 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodeapp.infrastructure.config.ProjectBuildProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectBuildSchedulerTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectBuildScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ProjectBuildProperties properties = new ProjectBuildProperties();
+        properties.setMaxConcurrentBuilds(1);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ProjectBuildScheduler(properties, meterRegistry);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+    }
+
+    @Test
+    @DisplayName("构建进行中到达的同项目请求合并为一次后续构建")
+    void shouldCoalesceRequestsBehindRunningBuild() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+
+        CompletableFuture<VueProjectBuilder.BuildResult> first = scheduler.submit("/tmp/code/vue_project_1", () -> {
+            builds.incrementAndGet();
+            firstStarted.countDown();
+            awaitGate();
+            return VueProjectBuilder.BuildResult.success();
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        Supplier<VueProjectBuilder.BuildResult> followUp = () -> {
+            builds.incrementAndGet();
+            return VueProjectBuilder.BuildResult.reusedDist();
+        };
+        CompletableFuture<VueProjectBuilder.BuildResult> second = scheduler.submit("/tmp/code/vue_project_1", followUp);
+        CompletableFuture<VueProjectBuilder.BuildResult> third = scheduler.submit("/tmp/code/./vue_project_1", followUp);
+
+        assertSame(second, third);
+        assertFalse(second.isDone());
+        assertEquals(1.0, meterRegistry.get("codegen_build_coalesced_total").counter().count());
+
+        gate.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(5, TimeUnit.SECONDS).isReused());
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    @DisplayName("超出全局并发上限的构建排队，前一个结束后再执行")
+    void shouldBoundConcurrentBuilds() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CompletableFuture<VueProjectBuilder.BuildResult> first = scheduler.submit("/tmp/code/vue_project_1", () -> {
+            started.add("p1");
+            firstStarted.countDown();
+            awaitGate();
+            return VueProjectBuilder.BuildResult.success();
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<VueProjectBuilder.BuildResult> second = scheduler.submit("/tmp/code/vue_project_2", () -> {
+            started.add("p2");
+            return VueProjectBuilder.BuildResult.success();
+        });
+
+        assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+        assertEquals(List.of("p1"), started);
+        assertEquals(1.0, meterRegistry.get("codegen_build_queue_depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("codegen_build_running").gauge().value());
+
+        gate.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("p1", "p2"), started);
+        assertEquals(2, meterRegistry.get("codegen_build_wait_seconds").timer().count());
+    }
+
+    @Test
+    @DisplayName("构建抛出异常时 future 异常结束，且不影响同项目后续构建")
+    void shouldCompleteExceptionallyAndReleaseProject() throws Exception {
+        CompletableFuture<VueProjectBuilder.BuildResult> failed = scheduler.submit("/tmp/code/vue_project_1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertEquals("boom", error.getCause().getMessage());
+
+        CompletableFuture<VueProjectBuilder.BuildResult> next = scheduler.submit("/tmp/code/vue_project_1",
+                VueProjectBuilder.BuildResult::success);
+        assertTrue(next.get(5, TimeUnit.SECONDS).isSuccess());
+    }
+
+    private void awaitGate() {
+        try {
+            gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
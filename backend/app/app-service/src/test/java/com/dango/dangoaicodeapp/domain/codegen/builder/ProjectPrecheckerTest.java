@@ -0,0 +1,71 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
+import com.dango.dangoaicodeapp.infrastructure.config.ProjectBuildProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectPrecheckerTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    @DisplayName("只收集 src 下上次构建后改动的源码文件")
+    void shouldCollectChangedSourceFiles() throws IOException {
+        write("src/App.vue", 2_000);
+        write("src/components/Header.jsx", 3_000);
+        write("src/data/problem.ts", 500);
+        write("src/index.css", 3_000);
+        write("src/node_modules/lib/index.js", 3_000);
+        write("vite.config.js", 3_000);
+
+        List<String> files = ProjectPrechecker.collectChangedFiles(projectDir, 1_000);
+
+        assertEquals(List.of("src/App.vue", "src/components/Header.jsx"), files);
+    }
+
+    @Test
+    @DisplayName("没有构建记录时检查全部源码，超出上限时保留最近改动的文件")
+    void shouldKeepMostRecentFilesOverLimit() throws IOException {
+        for (int i = 0; i < ProjectPrechecker.MAX_CHECKED_FILES + 5; i++) {
+            write("src/views/View" + i + ".js", 10_000 + i);
+        }
+
+        List<String> files = ProjectPrechecker.collectChangedFiles(projectDir, 0);
+
+        assertEquals(ProjectPrechecker.MAX_CHECKED_FILES, files.size());
+        assertFalse(files.contains("src/views/View0.js"));
+        assertTrue(files.contains("src/views/View" + (ProjectPrechecker.MAX_CHECKED_FILES + 4) + ".js"));
+    }
+
+    @Test
+    @DisplayName("未安装依赖时跳过预检查")
+    void shouldSkipWithoutNodeModules() throws IOException {
+        write("src/App.vue", 2_000);
+        ProjectPrechecker prechecker = new ProjectPrechecker(new ProjectBuildProperties(), null);
+
+        ProjectPrecheckResult result = prechecker.precheck(projectDir.toString());
+
+        assertFalse(result.checked());
+        assertTrue(result.passed());
+    }
+
+    private void write(String relativePath, long lastModifiedMillis) throws IOException {
+        Path file = projectDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "export default {}\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModifiedMillis));
+    }
+}
@@ -0,0 +1,271 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import cn.hutool.json.JSONObject;
+import com.dango.dangoaicodeapp.infrastructure.config.ProjectBuildProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 用模拟构建进程验证常驻进程池的协议处理：按项目目录名决定正常返回、返回错误任务 ID、不返回或直接退出。
+ */
+class ViteBuildWorkerPoolTest {
+
+    private static final String FAKE_WORKER = """
+            import fs from 'node:fs'
+            import path from 'node:path'
+            import readline from 'node:readline'
+
+            readline.createInterface({ input: process.stdin }).on('line', (line) => {
+              const job = JSON.parse(line)
+              const mode = path.basename(job.projectDir)
+              fs.appendFileSync(path.join(job.projectDir, 'worker.pid'), process.pid + '\\n')
+              console.log(`building ${mode} in ${process.pid}`)
+              const reply = (result) => process.stdout.write('@@BUILD_RESULT@@ ' + JSON.stringify(result) + '\\n')
+              if (job.type === 'check') {
+                reply({ id: job.id, success: true, kind: 'check', errors: [] })
+              } else if (mode === 'ok') {
+                reply({ id: job.id, success: true, kind: 'build' })
+              } else if (mode === 'mismatch') {
+                reply({ id: 'another-job', success: true, kind: 'build' })
+              } else if (mode === 'crash') {
+                process.exit(1)
+              }
+            })
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private ProjectBuildProperties properties;
+    private ViteBuildWorkerPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(nodeAvailable(), "需要 node 与 nice 命令");
+        Path script = tempDir.resolve("fake-worker.mjs");
+        Files.writeString(script, FAKE_WORKER);
+        properties = new ProjectBuildProperties();
+        properties.setWorkerPoolSize(1);
+        properties.setWorkerAcquireTimeout(Duration.ofSeconds(5));
+        properties.setWorkerRetryBackoff(Duration.ofMinutes(1));
+        pool = new ViteBuildWorkerPool(properties);
+        pool.setWorkerScript(script);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("构建成功时返回进程输出，进程留在池中复用")
+    void shouldReuseWorkerAfterSuccess() throws IOException {
+        File project = project("ok");
+
+        VueProjectBuilder.BuildResult first = pool.build(project, 10, null);
+        VueProjectBuilder.BuildResult second = pool.build(project, 10, null);
+
+        assertTrue(first.isSuccess());
+        assertTrue(first.getStdout().contains("building ok"));
+        assertTrue(second.isSuccess());
+        List<Long> pids = pids(project);
+        assertEquals(2, pids.size());
+        assertEquals(pids.get(0), pids.get(1));
+    }
+
+    @Test
+    @DisplayName("返回的任务 ID 不匹配时回退 npm run build 并销毁该进程")
+    void shouldFallBackAndDiscardOnMismatchedId() throws Exception {
+        File mismatch = project("mismatch");
+        File ok = project("ok");
+
+        assertNull(pool.build(mismatch, 10, null));
+        long discarded = pids(mismatch).get(0);
+        awaitExit(discarded);
+
+        assertTrue(pool.build(ok, 10, null).isSuccess());
+        assertNotEquals(discarded, pids(ok).get(0));
+    }
+
+    @Test
+    @DisplayName("构建超时时返回失败并杀掉进程，后续构建使用新进程")
+    void shouldKillWorkerOnTimeout() throws Exception {
+        File hang = project("hang");
+        File ok = project("ok");
+
+        VueProjectBuilder.BuildResult timedOut = pool.build(hang, 1, null);
+
+        assertNotNull(timedOut);
+        assertFalse(timedOut.isSuccess());
+        assertTrue(timedOut.getErrorSummary().contains("超时"));
+        long killed = pids(hang).get(0);
+        awaitExit(killed);
+
+        assertTrue(pool.build(ok, 10, null).isSuccess());
+        assertNotEquals(killed, pids(ok).get(0));
+    }
+
+    @Test
+    @DisplayName("新进程首次构建即退出时回退，并在退避期内不再启动进程")
+    void shouldBackOffAfterWorkerCrash() throws IOException {
+        File crash = project("crash");
+        File ok = project("ok");
+
+        assertNull(pool.build(crash, 10, null));
+        assertEquals(1, pids(crash).size());
+
+        assertNull(pool.build(ok, 10, null));
+        assertTrue(pids(ok).isEmpty());
+    }
+
+    @Test
+    @DisplayName("预检查不计入进程的构建次数，达到构建上限后才回收")
+    void shouldNotCountPrecheckTowardMaxBuilds() throws IOException {
+        properties.setWorkerMaxBuilds(1);
+        File ok = project("ok");
+
+        assertEquals(List.of(), pool.precheck(ok, List.of("src/App.js"), Duration.ofSeconds(10)));
+        assertTrue(pool.build(ok, 10, null).isSuccess());
+        assertTrue(pool.build(ok, 10, null).isSuccess());
+
+        List<Long> pids = pids(ok);
+        assertEquals(3, pids.size());
+        assertEquals(pids.get(0), pids.get(1));
+        assertNotEquals(pids.get(1), pids.get(2));
+    }
+
+    @Test
+    @DisplayName("预检查只检查真实的导入语句，字符串与模板字面量中的示例导入不报错")
+    void shouldIgnoreImportLikeStringLiteralsInPrecheck() throws IOException {
+        Path projectDir = project("precheck").toPath();
+        Files.createDirectories(projectDir.resolve("src"));
+        Files.writeString(projectDir.resolve("src/Header.js"), "export default 'header'\n");
+        Files.writeString(projectDir.resolve("src/Demo.js"), """
+                import Header from './Header.js'
+                const snippet = `import Missing from './Missing.js'`
+                export default [Header, snippet, "import('./AlsoMissing.js')"]
+                """);
+        Files.writeString(projectDir.resolve("src/Broken.js"), "import Gone from './Gone.js'\nexport default Gone\n");
+        installStubVite(projectDir, """
+                [
+                  {"marker": "snippet", "ast": {"type": "Program", "body": [
+                    {"type": "ImportDeclaration", "source": {"type": "Literal", "value": "./Header.js"}},
+                    {"type": "VariableDeclaration", "declarations": [{"type": "VariableDeclarator",
+                      "init": {"type": "TemplateLiteral", "quasis": [{"type": "TemplateElement",
+                        "value": {"raw": "import Missing from './Missing.js'"}}]}}]},
+                    {"type": "ExportDefaultDeclaration", "declaration": {"type": "ArrayExpression", "elements": [
+                      {"type": "Literal", "value": "import('./AlsoMissing.js')"}]}}]}},
+                  {"marker": "Gone", "ast": {"type": "Program", "body": [
+                    {"type": "ImportDeclaration", "source": {"type": "Literal", "value": "./Gone.js"}}]}}
+                ]
+                """);
+        ViteBuildWorkerPool realWorkerPool = new ViteBuildWorkerPool(properties);
+        try {
+            List<String> errors = realWorkerPool.precheck(projectDir.toFile(),
+                    List.of("src/Demo.js", "src/Broken.js"), Duration.ofSeconds(10));
+
+            assertNotNull(errors);
+            assertEquals(1, errors.size());
+            assertTrue(errors.get(0).startsWith("src/Broken.js "));
+            assertTrue(errors.get(0).contains("./Gone.js"));
+        } finally {
+            realWorkerPool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("预检查错误格式化为 文件:行:列 信息，源码片段另起一行")
+    void shouldFormatCheckErrorWithLocationAndFrame() {
+        String formatted = ViteBuildWorkerPool.formatCheckError(new JSONObject()
+                .set("file", "src/App.vue")
+                .set("line", 12)
+                .set("column", 5)
+                .set("message", "Unexpected token")
+                .set("frame", "  const a = ;\n"));
+
+        assertEquals("src/App.vue:12:5 Unexpected token\n  const a = ;", formatted);
+    }
+
+    @Test
+    @DisplayName("没有位置信息的预检查错误只输出文件与信息")
+    void shouldFormatCheckErrorWithoutLocation() {
+        String formatted = ViteBuildWorkerPool.formatCheckError(new JSONObject()
+                .set("file", "src/main.js")
+                .set("message", "无法解析导入 \"./Gone.js\"：文件不存在"));
+
+        assertEquals("src/main.js 无法解析导入 \"./Gone.js\"：文件不存在", formatted);
+    }
+
+    private File project(String name) throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(dir.resolve("package.json"), "{\"scripts\":{\"build\":\"vite build\"}}");
+        return dir.toFile();
+    }
+
+    /**
+     * 安装模拟的 vite 包：转译原样返回，语法树按源码中的标记取预置结果
+     */
+    private static void installStubVite(Path projectDir, String asts) throws IOException {
+        Path viteDir = Files.createDirectories(projectDir.resolve("node_modules/vite/dist/node"));
+        Files.writeString(projectDir.resolve("node_modules/vite/package.json"),
+                "{\"name\":\"vite\",\"type\":\"module\"}");
+        Files.writeString(viteDir.resolve("asts.json"), asts);
+        Files.writeString(viteDir.resolve("index.js"), """
+                import { readFileSync } from 'node:fs'
+                const asts = JSON.parse(readFileSync(new URL('./asts.json', import.meta.url), 'utf8'))
+                export async function transformWithEsbuild(code) {
+                  return { code }
+                }
+                export function parseAst(code) {
+                  return asts.find(entry => code.includes(entry.marker)).ast
+                }
+                """);
+    }
+
+    private static List<Long> pids(File project) throws IOException {
+        Path file = project.toPath().resolve("worker.pid");
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        return Files.readAllLines(file).stream().filter(line -> !line.isBlank()).map(Long::parseLong).toList();
+    }
+
+    private static void awaitExit(long pid) throws Exception {
+        var handle = ProcessHandle.of(pid);
+        if (handle.isPresent()) {
+            handle.get().onExit().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            return new ProcessBuilder("nice", "-n", "10", "node", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodeapp.infrastructure.config.ProjectBuildProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViteCacheDirectoriesTest {
+
+    @TempDir
+    Path cacheRoot;
+
+    @Test
+    @DisplayName("每个应用分配独立的缓存目录")
+    void shouldAllocatePerProjectDirectory() {
+        ViteCacheDirectories directories = newDirectories(DataSize.ofMegabytes(10));
+
+        Path first = directories.acquire(new File("/code_output/vue_project_1"));
+        Path second = directories.acquire(new File("/code_output/vue_project_2"));
+
+        assertEquals(cacheRoot.resolve("vue_project_1").toAbsolutePath(), first);
+        assertTrue(Files.isDirectory(second));
+    }
+
+    @Test
+    @DisplayName("超出磁盘预算时淘汰最久未使用的缓存，使用中的缓存不淘汰")
+    void shouldEvictLeastRecentlyUsedOutsideBudget() throws Exception {
+        ViteCacheDirectories directories = newDirectories(DataSize.ofBytes(1500));
+        Path oldest = directories.acquire(new File("vue_project_1"));
+        Path inUse = directories.acquire(new File("vue_project_2"));
+        Path newest = directories.acquire(new File("vue_project_3"));
+        writeCache(oldest, 1000, 1_000);
+        writeCache(inUse, 1000, 2_000);
+        writeCache(newest, 1000, 3_000);
+        directories.release(oldest);
+        directories.release(newest);
+
+        directories.evictOverBudget();
+
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(inUse));
+        assertFalse(Files.exists(newest));
+    }
+
+    @Test
+    @DisplayName("与淘汰并发时，取得的缓存目录在释放前始终存在")
+    void shouldNotEvictDirectoryAcquiredDuringEviction() throws Exception {
+        ViteCacheDirectories directories = newDirectories(DataSize.ofBytes(0));
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread evictor = Thread.ofVirtual().start(() -> {
+            while (!stop.get()) {
+                directories.evictOverBudget();
+            }
+        });
+        try {
+            for (int i = 0; i < 300; i++) {
+                Path cacheDir = directories.acquire(new File("vue_project_1"));
+                Files.write(cacheDir.resolve("deps.bin"), new byte[16]);
+                assertTrue(Files.exists(cacheDir.resolve("deps.bin")));
+                assertTrue(Files.exists(cacheDir.resolve(".last-used")));
+                directories.release(cacheDir);
+            }
+        } finally {
+            stop.set(true);
+            evictor.join();
+        }
+    }
+
+    @Test
+    @DisplayName("清理上次淘汰未删完的目录，且不计入占用")
+    void shouldDeleteLeftoverTombstones() throws Exception {
+        ViteCacheDirectories directories = newDirectories(DataSize.ofMegabytes(10));
+        Path tombstone = Files.createDirectories(cacheRoot.resolve(".evicting-vue_project_1-stale"));
+        Files.write(tombstone.resolve("deps.bin"), new byte[1000]);
+        Path kept = directories.acquire(new File("vue_project_2"));
+        directories.release(kept);
+
+        directories.evictOverBudget();
+
+        assertFalse(Files.exists(tombstone));
+        assertTrue(Files.exists(kept));
+    }
+
+    @Test
+    @DisplayName("未启用时不分配缓存目录")
+    void shouldSkipWhenDisabled() {
+        ProjectBuildProperties properties = new ProjectBuildProperties();
+        properties.setCacheRoot(cacheRoot.toString());
+        properties.setCacheEnabled(false);
+
+        assertNull(new ViteCacheDirectories(properties).acquire(new File("vue_project_1")));
+        assertFalse(Files.exists(cacheRoot.resolve("vue_project_1")));
+    }
+
+    private void writeCache(Path cacheDir, int bytes, long lastUsedMillis) throws Exception {
+        Files.write(cacheDir.resolve("deps.bin"), new byte[bytes]);
+        Files.setLastModifiedTime(cacheDir.resolve(".last-used"), FileTime.fromMillis(lastUsedMillis));
+    }
+
+    private ViteCacheDirectories newDirectories(DataSize budget) {
+        ProjectBuildProperties properties = new ProjectBuildProperties();
+        properties.setCacheRoot(cacheRoot.toString());
+        properties.setCacheDiskBudget(budget);
+        return new ViteCacheDirectories(properties);
+    }
+}
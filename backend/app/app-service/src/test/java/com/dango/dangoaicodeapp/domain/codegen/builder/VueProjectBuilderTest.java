@@ -0,0 +1,58 @@
+package com.dango.dangoaicodeapp.domain.codegen.builder;
+
+import com.dango.dangoaicodeapp.infrastructure.config.ProjectBuildProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VueProjectBuilderTest {
+
+    @Mock
+    private ProjectBuildScheduler projectBuildScheduler;
+
+    @Spy
+    private ProjectBuildProperties projectBuildSettings = new ProjectBuildProperties();
+
+    @InjectMocks
+    private VueProjectBuilder vueProjectBuilder;
+
+    @Test
+    @DisplayName("等待构建结果超过上限时返回失败，不无限期阻塞")
+    void shouldFailWhenBuildExceedsMaxWait() {
+        projectBuildSettings.setMaxWait(Duration.ofMillis(100));
+        CompletableFuture<VueProjectBuilder.BuildResult> neverFinishes = new CompletableFuture<>();
+        when(projectBuildScheduler.submit(eq("/tmp/code/vue_project_1"), any())).thenReturn(neverFinishes);
+
+        VueProjectBuilder.BuildResult result = vueProjectBuilder.buildProjectWithResult("/tmp/code/vue_project_1");
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorSummary().contains("超时"));
+        assertFalse(neverFinishes.isCancelled());
+    }
+
+    @Test
+    @DisplayName("构建异常结束时返回失败结果")
+    void shouldReturnFailureWhenBuildThrows() {
+        when(projectBuildScheduler.submit(eq("/tmp/code/vue_project_1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        VueProjectBuilder.BuildResult result = vueProjectBuilder.buildProjectWithResult("/tmp/code/vue_project_1");
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorSummary().contains("boom"));
+    }
+}
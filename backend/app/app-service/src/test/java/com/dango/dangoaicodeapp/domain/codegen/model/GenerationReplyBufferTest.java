@@ -0,0 +1,70 @@
+package com.dango.dangoaicodeapp.domain.codegen.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationReplyBufferTest {
+
+    @Test
+    void checkpointShouldBecomeDueWhenCharThresholdReached() {
+        GenerationReplyBuffer buffer = new GenerationReplyBuffer(4, Duration.ofMinutes(1));
+
+        buffer.append("ab");
+        assertFalse(buffer.isCheckpointDue());
+
+        buffer.append("cd");
+        assertTrue(buffer.isCheckpointDue());
+        assertEquals("abcd", buffer.pendingContent());
+    }
+
+    @Test
+    void checkpointedShouldKeepOnlyNewContentInWindow() {
+        GenerationReplyBuffer buffer = new GenerationReplyBuffer(4, Duration.ofMinutes(1));
+        buffer.append("abcd");
+
+        buffer.checkpointed();
+        buffer.append("e");
+
+        assertEquals("e", buffer.pendingContent());
+        assertFalse(buffer.isCheckpointDue());
+        assertTrue(buffer.hasContent());
+    }
+
+    @Test
+    void checkpointShouldBecomeDueWhenIntervalElapsed() throws InterruptedException {
+        GenerationReplyBuffer buffer = new GenerationReplyBuffer(Integer.MAX_VALUE, Duration.ofMillis(10));
+        buffer.append("a");
+
+        Thread.sleep(20);
+
+        assertTrue(buffer.isCheckpointDue());
+    }
+
+    @Test
+    void unboundedBufferShouldNeverBeDueAndReportBlankAsNoContent() {
+        GenerationReplyBuffer buffer = GenerationReplyBuffer.unbounded();
+        buffer.append("  ");
+
+        assertFalse(buffer.isCheckpointDue());
+        assertFalse(buffer.hasContent());
+    }
+
+    @Test
+    void hasContentShouldTrackTextAcrossAppendsAndCheckpoints() {
+        GenerationReplyBuffer buffer = new GenerationReplyBuffer(100, null);
+        buffer.append("\n ");
+        assertFalse(buffer.hasContent());
+
+        buffer.append("ok");
+        assertTrue(buffer.hasContent());
+
+        buffer.checkpointed();
+        buffer.append("  ");
+        assertTrue(buffer.hasContent());
+    }
+}
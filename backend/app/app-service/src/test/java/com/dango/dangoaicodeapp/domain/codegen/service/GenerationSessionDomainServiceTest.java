@@ -110,10 +110,35 @@ class GenerationSessionDomainServiceTest {
 
         domainService.completeSession(session, "done");
 
-        verify(generationTaskPort).markCompleted(1L, 2L);
+        InOrder inOrder = inOrder(generationStreamPort, generationTaskPort);
+        inOrder.verify(generationStreamPort).flush("gen:stream:1:2");
+        inOrder.verify(generationTaskPort).markCompleted(1L, 2L);
         verify(generationChatHistoryPort).markAiMessageCompleted(3L, "done");
     }
 
+    @Test
+    void checkpointReplyShouldAppendSegmentToChatHistory() {
+        GenerationSession session = new GenerationSession(1L, 2L, 3L, "gen:stream:1:2");
+
+        domainService.checkpointReply(session, "segment");
+
+        verify(generationChatHistoryPort).appendAiMessageContent(3L, "segment");
+        verify(generationTaskPort, never()).markCompleted(1L, 2L);
+    }
+
+    @Test
+    void failSessionShouldStillMarkErrorWhenFlushFails() {
+        GenerationSession session = new GenerationSession(1L, 2L, 3L, "gen:stream:1:2");
+        org.mockito.Mockito.doThrow(new RuntimeException("redis unavailable"))
+                .when(generationStreamPort)
+                .flush("gen:stream:1:2");
+
+        domainService.failSession(session, "partial");
+
+        verify(generationTaskPort).markError(1L, 2L);
+        verify(generationChatHistoryPort).markAiMessageError(3L, "partial");
+    }
+
     @Test
     void getTaskSnapshotShouldDelegateToPort() {
         GenerationTaskSnapshot snapshot = new GenerationTaskSnapshot(GenerationTaskSnapshot.STATUS_GENERATING, 11L);
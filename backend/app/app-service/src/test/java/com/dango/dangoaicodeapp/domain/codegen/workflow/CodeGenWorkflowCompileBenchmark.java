@@ -0,0 +1,88 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import org.bsc.langgraph4j.GraphStateException;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作流图编译开销微基准
+ *
+ * <p>compilePerRequest 对应原先每次生成都调用 createWorkflow 重新构建并编译整张图（含全部子图）；
+ * cachedPerRequest 对应 CodeGenWorkflow 复用进程内已编译图后每次运行取图的开销。
+ * 节点用 Mockito 桩替代，只衡量图构建与编译本身。
+ *
+ * <p>运行方式：在 IDE 中直接运行 main，或
+ * {@code mvn -pl app/app-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.dango.dangoaicodeapp.domain.codegen.workflow.CodeGenWorkflowCompileBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodeGenWorkflowCompileBenchmark {
+
+    private ExecutorService parallelExecutor;
+    private CodeGenWorkflowFactory workflowFactory;
+    private CodeGenWorkflow workflow;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        parallelExecutor = Executors.newSingleThreadExecutor();
+        workflowFactory = stubFactory();
+        workflow = new CodeGenWorkflow(parallelExecutor, workflowFactory);
+        workflow.warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelExecutor.shutdownNow();
+    }
+
+    /**
+     * 优化前：每次请求重新构建并编译工作流图。
+     */
+    @Benchmark
+    public Object compilePerRequest() throws GraphStateException {
+        return workflowFactory.createWorkflow();
+    }
+
+    /**
+     * 优化后：每次请求复用已编译的工作流图。
+     */
+    @Benchmark
+    public Object cachedPerRequest() {
+        return workflow.compiledWorkflow();
+    }
+
+    /**
+     * 以节点桩构造工厂，节点 action() 返回桩实现，足以完成图的构建与编译。
+     */
+    private static CodeGenWorkflowFactory stubFactory() throws Exception {
+        Constructor<?> constructor = CodeGenWorkflowFactory.class.getDeclaredConstructors()[0];
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] nodes = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            nodes[i] = Mockito.mock(parameterTypes[i], Answers.RETURNS_MOCKS);
+        }
+        return (CodeGenWorkflowFactory) constructor.newInstance(nodes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CodeGenWorkflowCompileBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
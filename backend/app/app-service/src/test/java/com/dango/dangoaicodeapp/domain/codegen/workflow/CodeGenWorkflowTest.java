@@ -0,0 +1,56 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CodeGenWorkflowTest {
+
+    @Mock
+    private CodeGenWorkflowFactory workflowFactory;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("工作流图只编译一次，后续运行复用同一实例")
+    @SuppressWarnings("unchecked")
+    void shouldCompileWorkflowOnce() throws Exception {
+        CompiledGraph<MessagesState<String>> compiled = mock(CompiledGraph.class);
+        when(workflowFactory.createWorkflow()).thenReturn(compiled);
+        CodeGenWorkflow workflow = new CodeGenWorkflow(executor, workflowFactory);
+
+        workflow.warmUp();
+        List<Future<CompiledGraph<MessagesState<String>>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(workflow::compiledWorkflow));
+        }
+
+        for (Future<CompiledGraph<MessagesState<String>>> future : futures) {
+            assertSame(compiled, future.get());
+        }
+        verify(workflowFactory, times(1)).createWorkflow();
+    }
+}
@@ -0,0 +1,76 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.port.ProjectScaffoldPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ScaffoldPrefetcherTest {
+
+    private static final String EXECUTION_ID = "1_100";
+    private static final Long APP_ID = 1L;
+
+    @Mock
+    private ProjectScaffoldPort projectScaffoldPort;
+
+    @InjectMocks
+    private ScaffoldPrefetcher scaffoldPrefetcher;
+
+    @Test
+    @DisplayName("代码生成前应等待提前开始的脚手架完成，而不是再准备一次")
+    void shouldJoinPrefetchedScaffold() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            finished.set(true);
+            return null;
+        }).when(projectScaffoldPort).scaffold(APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+
+        scaffoldPrefetcher.start(EXECUTION_ID, APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+        scaffoldPrefetcher.start(EXECUTION_ID, APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+        release.countDown();
+        scaffoldPrefetcher.awaitReady(EXECUTION_ID, APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+
+        assertTrue(finished.get());
+        verify(projectScaffoldPort, times(1)).scaffold(APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+    }
+
+    @Test
+    @DisplayName("没有匹配的预备任务时应同步准备脚手架")
+    void shouldScaffoldSynchronouslyWithoutPrefetch() {
+        scaffoldPrefetcher.awaitReady(EXECUTION_ID, APP_ID, CodeGenTypeEnum.LEETCODE_PROJECT);
+
+        verify(projectScaffoldPort).scaffold(APP_ID, CodeGenTypeEnum.LEETCODE_PROJECT);
+    }
+
+    @Test
+    @DisplayName("预备失败时等待方应收到原异常")
+    void shouldPropagatePrefetchFailure() {
+        doThrow(new IllegalStateException("复制模板失败"))
+                .when(projectScaffoldPort).scaffold(APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+
+        scaffoldPrefetcher.start(EXECUTION_ID, APP_ID, CodeGenTypeEnum.VUE_PROJECT);
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> scaffoldPrefetcher.awaitReady(EXECUTION_ID, APP_ID, CodeGenTypeEnum.VUE_PROJECT));
+
+        assertEquals("复制模板失败", error.getMessage());
+    }
+}
@@ -0,0 +1,129 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.aicodegenerate.model.ImageResource;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowCheckpointPort;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowCheckpointerTest {
+
+    private static final String KEY = "1:2";
+
+    @Mock
+    private WorkflowCheckpointPort workflowCheckpointPort;
+
+    @Mock
+    private WorkflowMessagePort workflowMessagePort;
+
+    @InjectMocks
+    private WorkflowCheckpointer workflowCheckpointer;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("节点完成后应记录访问并保存检查点")
+    void shouldSaveCheckpointAfterNode() throws Exception {
+        WorkflowContext context = WorkflowContext.builder().appId(1L).checkpointKey(KEY).build();
+        AsyncNodeAction<MessagesState<String>> action = workflowCheckpointer.checkpointed("build_check", countingAction());
+
+        action.apply(stateOf(context)).get();
+        action.apply(stateOf(context)).get();
+
+        assertEquals(2, executions.get());
+        assertEquals(List.of("build_check#1", "build_check#2"), context.getCompletedNodeVisits());
+        verify(workflowCheckpointPort, times(2)).save(KEY, context);
+    }
+
+    @Test
+    @DisplayName("恢复运行时已完成的节点访问应跳过，之后的访问正常执行")
+    void shouldSkipCompletedVisitsOnResume() throws Exception {
+        WorkflowContext context = WorkflowContext.builder().appId(1L).checkpointKey(KEY).build();
+        context.markNodeVisitCompleted("build_check#1");
+        AsyncNodeAction<MessagesState<String>> action = workflowCheckpointer.checkpointed("build_check", countingAction());
+
+        action.apply(stateOf(context)).get();
+        assertEquals(0, executions.get());
+        verify(workflowCheckpointPort, never()).save(anyString(), any());
+        verify(workflowMessagePort).emitNodeMessage(any(), eq("build_check"), anyString());
+
+        action.apply(stateOf(context)).get();
+        assertEquals(1, executions.get());
+        verify(workflowCheckpointPort).save(KEY, context);
+    }
+
+    @Test
+    @DisplayName("未设置检查点标识时不保存")
+    void shouldPassThroughWithoutCheckpointKey() throws Exception {
+        WorkflowContext context = WorkflowContext.builder().appId(1L).build();
+
+        workflowCheckpointer.checkpointed("qa_node", countingAction()).apply(stateOf(context)).get();
+
+        assertEquals(1, executions.get());
+        verify(workflowCheckpointPort, never()).save(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("并发分支写入上下文时序列化检查点不应出现并发修改异常")
+    void shouldSerializeWhileParallelBranchWrites() throws Exception {
+        WorkflowContext context = WorkflowContext.builder().appId(1L).checkpointKey(KEY).build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread branch = Thread.ofVirtual().start(() -> {
+            // 分支把自己的列表交给上下文后继续修改它
+            List<ImageResource> images = new ArrayList<>();
+            while (running.get()) {
+                images.add(ImageResource.builder().description("image").build());
+                context.setContentImages(images);
+                context.setCurrentStep("内容图片收集");
+                if (images.size() > 100) {
+                    images.clear();
+                }
+            }
+        });
+        try {
+            for (int i = 0; i < 500; i++) {
+                try (ObjectOutputStream output = new ObjectOutputStream(new ByteArrayOutputStream())) {
+                    output.writeObject(context);
+                }
+            }
+        } finally {
+            running.set(false);
+            branch.join();
+        }
+    }
+
+    private AsyncNodeAction<MessagesState<String>> countingAction() {
+        return node_async(state -> {
+            executions.incrementAndGet();
+            return WorkflowContext.saveContext(WorkflowContext.getContext(state));
+        });
+    }
+
+    private static MessagesState<String> stateOf(WorkflowContext context) {
+        return new MessagesState<>(WorkflowContext.saveContext(context));
+    }
+}
@@ -0,0 +1,123 @@
+package com.dango.dangoaicodeapp.domain.codegen.workflow;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowDeadlinesTest {
+
+    private static final String NODE_ID = "code_generator";
+
+    private CodeGenWorkflowProperties properties;
+    private WorkflowDeadlines workflowDeadlines;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeGenWorkflowProperties();
+        properties.setNodeTimeouts(new HashMap<>(Map.of(NODE_ID, Duration.ofMillis(200))));
+        workflowDeadlines = new WorkflowDeadlines(properties);
+    }
+
+    @Test
+    @DisplayName("生成类型覆盖优先于节点配置，未配置的节点使用默认时限")
+    void shouldResolveNodeTimeoutByTypeThenNode() {
+        properties.getTypeNodeTimeouts().put(CodeGenTypeEnum.LEETCODE_PROJECT, Map.of(NODE_ID, Duration.ofMinutes(3)));
+
+        assertEquals(Duration.ofMinutes(3), properties.resolveNodeTimeout(CodeGenTypeEnum.LEETCODE_PROJECT, NODE_ID));
+        assertEquals(Duration.ofMillis(200), properties.resolveNodeTimeout(CodeGenTypeEnum.VUE_PROJECT, NODE_ID));
+        assertEquals(properties.getDefaultNodeTimeout(), properties.resolveNodeTimeout(CodeGenTypeEnum.VUE_PROJECT, "other"));
+    }
+
+    @Test
+    @DisplayName("流在时限内结束时正常返回并下发全部分片")
+    void shouldConsumeStreamWithinBudget() throws InterruptedException {
+        List<String> received = new ArrayList<>();
+
+        workflowDeadlines.awaitStream(context(null), NODE_ID, Flux.just("a", "b"), received::add);
+
+        assertEquals(List.of("a", "b"), received);
+    }
+
+    @Test
+    @DisplayName("超过节点时限时取消订阅并抛出节点超时")
+    void shouldCancelStreamOnNodeTimeout() {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> hanging = Flux.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        WorkflowTimeoutException timeout = assertThrows(WorkflowTimeoutException.class,
+                () -> workflowDeadlines.awaitStream(context(null), NODE_ID, hanging, chunk -> { }));
+
+        assertEquals(WorkflowTimeoutException.Scope.NODE, timeout.getScope());
+        assertEquals(NODE_ID, timeout.getNodeId());
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    @DisplayName("运行剩余时间短于节点时限时按运行超时处理")
+    void shouldUseRunDeadlineWhenSooner() {
+        properties.setNodeTimeouts(new HashMap<>(Map.of(NODE_ID, Duration.ofMinutes(10))));
+        WorkflowContext context = context(Instant.now().plusMillis(100));
+
+        WorkflowTimeoutException timeout = assertThrows(WorkflowTimeoutException.class,
+                () -> workflowDeadlines.awaitStream(context, NODE_ID, Flux.never(), chunk -> { }));
+
+        assertEquals(WorkflowTimeoutException.Scope.RUN, timeout.getScope());
+    }
+
+    @Test
+    @DisplayName("流以错误结束时包装后抛出")
+    void shouldRethrowStreamError() {
+        IllegalStateException error = new IllegalStateException("upstream failed");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> workflowDeadlines.awaitStream(context(null), NODE_ID, Flux.error(error), chunk -> { }));
+
+        assertEquals(error, thrown.getCause());
+    }
+
+    @Test
+    @DisplayName("运行已超时时不再执行节点")
+    void shouldSkipNodeWhenRunDeadlinePassed() {
+        AtomicBoolean executed = new AtomicBoolean(false);
+        MessagesState<String> state = new MessagesState<>(
+                WorkflowContext.saveContext(context(Instant.now().minusSeconds(1))));
+
+        CompletableFuture<Map<String, Object>> result = workflowDeadlines.guarded(NODE_ID, s -> {
+            executed.set(true);
+            return CompletableFuture.completedFuture(Map.of());
+        }).apply(state);
+
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(WorkflowTimeoutException.class, error.getCause());
+        assertFalse(executed.get());
+    }
+
+    private static WorkflowContext context(Instant runDeadline) {
+        return WorkflowContext.builder()
+                .appId(1L)
+                .generationType(CodeGenTypeEnum.VUE_PROJECT)
+                .runDeadline(runDeadline)
+                .build();
+    }
+}
@@ -1,64 +1,90 @@
 package com.dango.dangoaicodeapp.infrastructure.ai.codegen.gateway;
 
-import cn.hutool.json.JSONUtil;
 import com.dango.aicodegenerate.model.message.AiResponseMessage;
 import com.dango.aicodegenerate.model.message.StreamMessage;
 import com.dango.aicodegenerate.model.message.StreamMessageTypeEnum;
+import com.dango.aicodegenerate.streaming.StreamingResponseProcessor;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingHandle;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.tool.ToolExecution;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TokenStreamMessageFluxFactoryTest {
 
     @Test
     @DisplayName("无 partial 文本时，complete 响应文本应回填为 ai_response")
     void shouldEmitCompleteResponseTextWhenNoPartialResponse() {
-        TokenStreamMessageFluxFactory factory = new TokenStreamMessageFluxFactory();
+        TokenStreamMessageFluxFactory factory = new TokenStreamMessageFluxFactory(new StreamingResponseProcessor(null));
         ChatResponse completeResponse = ChatResponse.builder()
                 .aiMessage(AiMessage.from("final message"))
                 .build();
         FakeTokenStream tokenStream = FakeTokenStream.withCompleteOnly(completeResponse);
 
-        List<String> messages = factory.toTextAndToolFlux(tokenStream).collectList().block();
+        List<StreamMessage> messages = factory.toTextAndToolFlux(tokenStream).collectList().block();
 
         assertEquals(1, messages.size());
-        StreamMessage streamMessage = JSONUtil.toBean(messages.get(0), StreamMessage.class);
+        StreamMessage streamMessage = messages.get(0);
         assertEquals(StreamMessageTypeEnum.AI_RESPONSE.getValue(), streamMessage.getType());
-        AiResponseMessage aiResponseMessage = JSONUtil.toBean(messages.get(0), AiResponseMessage.class);
+        AiResponseMessage aiResponseMessage = assertInstanceOf(AiResponseMessage.class, streamMessage);
         assertEquals("final message", aiResponseMessage.getData());
     }
 
     @Test
     @DisplayName("已有 partial 文本时，不应重复回填 complete 文本")
     void shouldNotDuplicateWhenPartialResponseAlreadyExists() {
-        TokenStreamMessageFluxFactory factory = new TokenStreamMessageFluxFactory();
+        TokenStreamMessageFluxFactory factory = new TokenStreamMessageFluxFactory(new StreamingResponseProcessor(null));
         ChatResponse completeResponse = ChatResponse.builder()
                 .aiMessage(AiMessage.from("final message"))
                 .build();
         FakeTokenStream tokenStream = FakeTokenStream.withPartialThenComplete("partial chunk", completeResponse);
 
-        List<String> messages = factory.toTextAndToolFlux(tokenStream).collectList().block();
+        List<StreamMessage> messages = factory.toTextAndToolFlux(tokenStream).collectList().block();
 
         assertEquals(1, messages.size());
-        AiResponseMessage aiResponseMessage = JSONUtil.toBean(messages.get(0), AiResponseMessage.class);
+        AiResponseMessage aiResponseMessage = assertInstanceOf(AiResponseMessage.class, messages.get(0));
         assertEquals("partial chunk", aiResponseMessage.getData());
         assertFalse(aiResponseMessage.getData().contains("final message"));
     }
 
+    @Test
+    @DisplayName("下游取消订阅后应取消底层模型流，不再下发后续分片")
+    void shouldCancelUnderlyingStreamWhenSubscriptionCancelled() {
+        TokenStreamMessageFluxFactory factory = new TokenStreamMessageFluxFactory(new StreamingResponseProcessor(null));
+        FakeTokenStream tokenStream = FakeTokenStream.withPartials("a", "b", "c");
+        List<String> received = new ArrayList<>();
+
+        Flux<String> chunks = factory.toChunkFlux(tokenStream);
+        chunks.take(1).subscribe(received::add);
+        tokenStream.emitRemaining();
+
+        assertEquals(List.of("a"), received);
+        assertTrue(tokenStream.handle.isCancelled());
+    }
+
     private static final class FakeTokenStream implements TokenStream {
+        private final FakeStreamingHandle handle = new FakeStreamingHandle();
+        private final List<String> pendingPartials = new ArrayList<>();
         private Consumer<String> partialResponseConsumer;
+        private BiConsumer<PartialResponse, PartialResponseContext> partialResponseWithContextConsumer;
         private Consumer<ToolExecution> toolExecutedConsumer;
         private Consumer<ChatResponse> completeResponseConsumer;
         private Consumer<Throwable> errorConsumer;
@@ -73,18 +99,52 @@ class TokenStreamMessageFluxFactoryTest {
         static FakeTokenStream withPartialThenComplete(String partial, ChatResponse response) {
             FakeTokenStream stream = new FakeTokenStream();
             stream.startAction = () -> {
-                stream.partialResponseConsumer.accept(partial);
+                stream.emitPartial(partial);
                 stream.completeResponseConsumer.accept(response);
             };
             return stream;
         }
 
+        /**
+         * 启动时只下发首个分片，其余分片由 emitRemaining 在订阅方取消后继续推送，模拟仍在生成的模型流。
+         */
+        static FakeTokenStream withPartials(String first, String... rest) {
+            FakeTokenStream stream = new FakeTokenStream();
+            stream.pendingPartials.addAll(List.of(rest));
+            stream.startAction = () -> stream.emitPartial(first);
+            return stream;
+        }
+
+        void emitRemaining() {
+            for (String partial : pendingPartials) {
+                if (handle.isCancelled()) {
+                    return;
+                }
+                emitPartial(partial);
+            }
+        }
+
+        private void emitPartial(String partial) {
+            if (partialResponseWithContextConsumer != null) {
+                partialResponseWithContextConsumer.accept(new PartialResponse(partial), new PartialResponseContext(handle));
+            } else {
+                partialResponseConsumer.accept(partial);
+            }
+        }
+
         @Override
         public TokenStream onPartialResponse(Consumer<String> partialResponseConsumer) {
             this.partialResponseConsumer = partialResponseConsumer;
             return this;
         }
 
+        @Override
+        public TokenStream onPartialResponseWithContext(
+                BiConsumer<PartialResponse, PartialResponseContext> partialResponseConsumer) {
+            this.partialResponseWithContextConsumer = partialResponseConsumer;
+            return this;
+        }
+
         @Override
         public TokenStream onRetrieved(Consumer<List<Content>> consumer) {
             return this;
@@ -130,4 +190,18 @@ class TokenStreamMessageFluxFactoryTest {
             }
         }
     }
+
+    private static final class FakeStreamingHandle implements StreamingHandle {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
 }
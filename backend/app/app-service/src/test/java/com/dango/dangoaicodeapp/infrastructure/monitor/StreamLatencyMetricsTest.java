@@ -0,0 +1,53 @@
+package com.dango.dangoaicodeapp.infrastructure.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+class StreamLatencyMetricsTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private StreamLatencyMetrics streamLatencyMetrics;
+
+    @Test
+    @DisplayName("首字延迟与内容帧间隔按生成类型与节点 ID 记录")
+    void shouldRecordTimersPerNode() {
+        streamLatencyMetrics.recordFirstToken("vue_project", "code_generator", 5_000_000L);
+        streamLatencyMetrics.recordNodeFirstToken("vue_project", "code_generator", 3_000_000L);
+        streamLatencyMetrics.recordChunkGap("vue_project", "code_generator", 1_000_000L);
+        streamLatencyMetrics.recordChunkGap("vue_project", "code_generator", 1_000_000L);
+
+        assertEquals(1, timer("codegen_stream_first_token_seconds", "code_generator").count());
+        assertEquals(3, timer("codegen_stream_node_first_token_seconds", "code_generator").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2, timer("codegen_stream_chunk_gap_seconds", "code_generator").count());
+    }
+
+    @Test
+    @DisplayName("推送延迟为负时按零记录")
+    void shouldClampNegativeDeliveryDelay() {
+        streamLatencyMetrics.recordDeliveryDelay("vue_project", Duration.ofMillis(-5));
+
+        Timer timer = meterRegistry.get("codegen_stream_delivery_delay_seconds").tag("code_gen_type", "vue_project").timer();
+        assertEquals(1, timer.count());
+        assertEquals(0, timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    private Timer timer(String name, String node) {
+        return meterRegistry.get(name).tag("code_gen_type", "vue_project").tag("node", node).timer();
+    }
+}
@@ -0,0 +1,138 @@
+package com.dango.dangoaicodeapp.infrastructure.monitor;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.WorkflowTimeline;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowProfilerTest {
+
+    private static final String EXECUTION_ID = "1_100";
+
+    private SimpleMeterRegistry meterRegistry;
+    private CodeGenWorkflowProperties properties;
+    private WorkflowProfiler workflowProfiler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new CodeGenWorkflowProperties();
+        workflowProfiler = new WorkflowProfiler(meterRegistry, properties, new StreamLatencyMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("时间线记录排队、节点、首个内容帧与工具调用，并导出节点与工具耗时")
+    void shouldRecordTimelineAndMetrics() {
+        workflowProfiler.startRun(EXECUTION_ID, 1L, "vue_project");
+        workflowProfiler.runAdmitted(EXECUTION_ID);
+        workflowProfiler.nodeStarted(EXECUTION_ID, "code_generator");
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+        workflowProfiler.toolRequested(EXECUTION_ID, "call-1", "writeFile");
+        workflowProfiler.toolRequested(EXECUTION_ID, "call-1", "writeFile");
+        workflowProfiler.toolExecuted(EXECUTION_ID, "call-1", "writeFile");
+        workflowProfiler.nodeFinished(EXECUTION_ID, "code_generator", true);
+        workflowProfiler.nodeStarted(EXECUTION_ID, "build_check");
+        workflowProfiler.nodeFinished(EXECUTION_ID, "build_check", false);
+        workflowProfiler.finishRun(EXECUTION_ID, WorkflowProfiler.STATUS_COMPLETED);
+
+        WorkflowTimeline timeline = workflowProfiler.recentTimelines(1L).get(0);
+        assertEquals(WorkflowProfiler.STATUS_COMPLETED, timeline.status());
+        assertNotNull(timeline.queueWaitMillis());
+        assertEquals(1, timeline.toolCalls());
+        List<String> kinds = timeline.entries().stream().map(WorkflowTimeline.Entry::kind).toList();
+        assertEquals(1, kinds.stream().filter(WorkflowTimeline.KIND_FIRST_TOKEN::equals).count());
+        assertEquals(1, kinds.stream().filter(WorkflowTimeline.KIND_TOOL::equals).count());
+        assertEquals(2, kinds.stream().filter(WorkflowTimeline.KIND_NODE::equals).count());
+
+        assertEquals(1, meterRegistry.get("codegen_workflow_node_seconds")
+                .tag("node", "code_generator").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("codegen_workflow_node_seconds")
+                .tag("node", "build_check").tag("outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("codegen_workflow_tool_seconds").tag("tool", "writeFile").timer().count());
+        assertEquals(1, meterRegistry.get("codegen_workflow_run_seconds").tag("status", "completed").timer().count());
+    }
+
+    @Test
+    @DisplayName("首字延迟与内容帧间隔按节点 ID 记录，新节点重新计首字，运行级首字只记录一次")
+    void shouldFeedStreamLatencyMetricsPerNodeId() {
+        workflowProfiler.startRun(EXECUTION_ID, 1L, "vue_project");
+        workflowProfiler.runAdmitted(EXECUTION_ID);
+        workflowProfiler.nodeStarted(EXECUTION_ID, "code_generator");
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+        workflowProfiler.nodeFinished(EXECUTION_ID, "code_generator", true);
+        workflowProfiler.nodeStarted(EXECUTION_ID, "code_fixer");
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+
+        assertEquals(1, streamTimer("codegen_stream_first_token_seconds", "code_generator").count());
+        assertEquals(1, streamTimer("codegen_stream_node_first_token_seconds", "code_generator").count());
+        assertEquals(2, streamTimer("codegen_stream_chunk_gap_seconds", "code_generator").count());
+        assertEquals(1, streamTimer("codegen_stream_node_first_token_seconds", "code_fixer").count());
+        assertNull(meterRegistry.find("codegen_stream_first_token_seconds").tag("node", "code_fixer").timer());
+        assertNull(meterRegistry.find("codegen_stream_chunk_gap_seconds").tag("node", "code_fixer").timer());
+    }
+
+    @Test
+    @DisplayName("执行结束后的内容帧不再计入")
+    void shouldIgnoreContentAfterRunFinished() {
+        workflowProfiler.startRun(EXECUTION_ID, 1L, "vue_project");
+        workflowProfiler.finishRun(EXECUTION_ID, WorkflowProfiler.STATUS_COMPLETED);
+        workflowProfiler.contentEmitted(EXECUTION_ID);
+
+        assertNull(meterRegistry.find("codegen_stream_first_token_seconds").timer());
+    }
+
+    @Test
+    @DisplayName("执行中的时间线可查询，未结束的节点没有耗时")
+    void shouldExposeRunningTimeline() {
+        workflowProfiler.startRun(EXECUTION_ID, 1L, "vue_project");
+        workflowProfiler.runAdmitted(EXECUTION_ID);
+        workflowProfiler.nodeStarted(EXECUTION_ID, "code_generator");
+
+        WorkflowTimeline timeline = workflowProfiler.recentTimelines(null).get(0);
+
+        assertEquals(WorkflowProfiler.STATUS_RUNNING, timeline.status());
+        assertNull(timeline.entries().get(0).durationMillis());
+        assertTrue(workflowProfiler.recentTimelines(2L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("排队阶段被拒绝的执行没有排队结束时间，不计入执行耗时指标")
+    void shouldRecordRejectedRunWithoutRunTimer() {
+        workflowProfiler.startRun(EXECUTION_ID, 1L, "vue_project");
+        workflowProfiler.finishRun(EXECUTION_ID, WorkflowProfiler.STATUS_REJECTED);
+
+        WorkflowTimeline timeline = workflowProfiler.recentTimelines(1L).get(0);
+        assertNull(timeline.queueWaitMillis());
+        assertNull(meterRegistry.find("codegen_workflow_run_seconds").timer());
+    }
+
+    @Test
+    @DisplayName("只保留配置数量的最近结束时间线")
+    void shouldRetainLimitedFinishedRuns() {
+        properties.setProfilerRetainedRuns(2);
+        for (int i = 0; i < 3; i++) {
+            workflowProfiler.startRun("run_" + i, 1L, "vue_project");
+            workflowProfiler.finishRun("run_" + i, WorkflowProfiler.STATUS_COMPLETED);
+        }
+
+        List<WorkflowTimeline> timelines = workflowProfiler.recentTimelines(1L);
+        assertEquals(List.of("run_2", "run_1"), timelines.stream().map(WorkflowTimeline::executionId).toList());
+    }
+
+    private Timer streamTimer(String name, String node) {
+        return meterRegistry.get(name).tag("code_gen_type", "vue_project").tag("node", node).timer();
+    }
+}
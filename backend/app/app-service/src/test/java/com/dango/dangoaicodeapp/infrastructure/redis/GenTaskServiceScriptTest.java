@@ -0,0 +1,165 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 在本地 Redis 上执行 GenTaskService 的 Lua 脚本，覆盖拒绝、替换已结束任务、替换僵死任务与终态 TTL 分支。
+ * 本地没有可连接的 Redis（localhost:6379）时跳过。
+ */
+@ExtendWith(MockitoExtension.class)
+class GenTaskServiceScriptTest {
+
+    private static JedisConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @Spy
+    private StringRedisTemplate stringRedisTemplate = redisTemplate;
+
+    @Spy
+    private CodeGenWorkflowProperties codeGenWorkflowProperties = new CodeGenWorkflowProperties();
+
+    @InjectMocks
+    private GenTaskService genTaskService;
+
+    private final long appId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final long userId = 1L;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void requireRedis() {
+        boolean reachable;
+        try {
+            reachable = "PONG".equals(redisTemplate.execute(connection -> connection.ping(), true));
+        } catch (Exception e) {
+            reachable = false;
+        }
+        assumeTrue(reachable, "需要本地 Redis");
+    }
+
+    @AfterEach
+    void cleanup() {
+        redisTemplate.delete(allKeys());
+    }
+
+    @Test
+    @DisplayName("没有任务时新建，已有运行中的任务时拒绝且不改动其状态")
+    void shouldRejectWhileTaskRunning() {
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+        String startTime = (String) redisTemplate.opsForHash().get(taskKey(), "startTime");
+
+        assertFalse(genTaskService.tryReserveTask(appId, userId));
+        assertEquals("generating", genTaskService.getStatus(appId, userId));
+        assertEquals(startTime, redisTemplate.opsForHash().get(taskKey(), "startTime"));
+    }
+
+    @Test
+    @DisplayName("替换已结束的任务时删除旧的流与压缩流")
+    void shouldReplaceFinishedTask() {
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+        writeStreams();
+        genTaskService.markCompleted(appId, userId);
+
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+
+        assertEquals("generating", genTaskService.getStatus(appId, userId));
+        assertFalse(redisTemplate.hasKey(streamKey()));
+        assertFalse(redisTemplate.hasKey(compactKey()));
+        assertEquals(-1L, redisTemplate.getExpire(taskKey()).longValue());
+    }
+
+    @Test
+    @DisplayName("运行时间超过僵死阈值的任务被替换")
+    void shouldReplaceZombieTask() {
+        long startedAt = System.currentTimeMillis() - genTaskService.zombieTimeoutMillis() - 1_000;
+        redisTemplate.opsForHash().put(taskKey(), "status", "generating");
+        redisTemplate.opsForHash().put(taskKey(), "startTime", String.valueOf(startedAt));
+        writeStreams();
+
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+
+        assertFalse(redisTemplate.hasKey(streamKey()));
+        assertFalse(redisTemplate.hasKey(compactKey()));
+        assertTrue(Long.parseLong((String) redisTemplate.opsForHash().get(taskKey(), "startTime")) > startedAt);
+    }
+
+    @Test
+    @DisplayName("终态写入时 task、流与压缩流都设置 TTL")
+    void shouldExpireAllKeysWhenFinished() {
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+        writeStreams();
+
+        genTaskService.markError(appId, userId);
+
+        assertEquals("error", genTaskService.getStatus(appId, userId));
+        for (String key : allKeys()) {
+            long ttl = redisTemplate.getExpire(key);
+            assertTrue(ttl > 0 && ttl <= 600, key + " ttl=" + ttl);
+        }
+    }
+
+    @Test
+    @DisplayName("清理任务删除 task、流与压缩流")
+    void shouldCleanupAllKeys() {
+        assertTrue(genTaskService.tryReserveTask(appId, userId));
+        writeStreams();
+
+        genTaskService.cleanupTask(appId, userId);
+
+        assertEquals(0L, redisTemplate.countExistingKeys(allKeys()).longValue());
+    }
+
+    private void writeStreams() {
+        redisTemplate.opsForStream().add(streamKey(), Map.of("d", "hello"));
+        redisTemplate.opsForStream().add(compactKey(), Map.of("d", "hello"));
+    }
+
+    private String taskKey() {
+        return genTaskService.getTaskKey(appId, userId);
+    }
+
+    private String streamKey() {
+        return genTaskService.getStreamKey(appId, userId);
+    }
+
+    private String compactKey() {
+        return GenerationStreamCompactor.compactKeyOf(streamKey());
+    }
+
+    private List<String> allKeys() {
+        return List.of(taskKey(), streamKey(), compactKey());
+    }
+}
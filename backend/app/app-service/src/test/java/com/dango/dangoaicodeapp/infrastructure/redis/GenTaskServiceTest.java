@@ -0,0 +1,87 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenTaskServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Spy
+    private CodeGenWorkflowProperties codeGenWorkflowProperties = new CodeGenWorkflowProperties();
+
+    @InjectMocks
+    private GenTaskService genTaskService;
+
+    @Test
+    @DisplayName("僵死阈值应大于健康任务的最长占用时间（排队 + 运行时限）")
+    void zombieTimeoutShouldExceedLongestHealthyRun() {
+        assertExceedsHealthyRun();
+
+        codeGenWorkflowProperties.setRunTimeout(Duration.ofMinutes(45));
+        codeGenWorkflowProperties.setAdmissionMaxWait(Duration.ofMinutes(10));
+        assertExceedsHealthyRun();
+    }
+
+    @Test
+    @DisplayName("任何节点时限都不应超出僵死阈值")
+    void zombieTimeoutShouldExceedEveryNodeTimeout() {
+        long zombieTimeout = genTaskService.zombieTimeoutMillis();
+
+        assertTrue(codeGenWorkflowProperties.getDefaultNodeTimeout().toMillis() < zombieTimeout);
+        codeGenWorkflowProperties.getNodeTimeouts().values()
+                .forEach(timeout -> assertTrue(timeout.toMillis() < zombieTimeout));
+    }
+
+    @Test
+    @DisplayName("预占脚本返回 0 时拒绝，新建或替换已结束/僵死任务时预占成功")
+    void shouldMapReserveScriptResults() {
+        List<String> keys = List.of("gen:task:{1:2}", "gen:stream:{1:2}", "gen:stream:{1:2}:compact");
+        String threshold = String.valueOf(genTaskService.zombieTimeoutMillis());
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys), anyString(), eq(threshold)))
+                .thenReturn(0L, 1L, 2L, 3L);
+
+        assertFalse(genTaskService.tryReserveTask(1L, 2L));
+        assertTrue(genTaskService.tryReserveTask(1L, 2L));
+        assertTrue(genTaskService.tryReserveTask(1L, 2L));
+        assertTrue(genTaskService.tryReserveTask(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("清理任务时一次多 key DEL 删除 task、流与压缩流")
+    void shouldCleanupWithSingleDelete() {
+        genTaskService.cleanupTask(1L, 2L);
+
+        verify(stringRedisTemplate).delete(List.of("gen:task:{1:2}", "gen:stream:{1:2}", "gen:stream:{1:2}:compact"));
+        verifyNoMoreInteractions(stringRedisTemplate);
+    }
+
+    private void assertExceedsHealthyRun() {
+        long longestHealthyRun = codeGenWorkflowProperties.getAdmissionMaxWait()
+                .plus(codeGenWorkflowProperties.getRunTimeout())
+                .toMillis();
+        assertTrue(genTaskService.zombieTimeoutMillis() > longestHealthyRun);
+    }
+}
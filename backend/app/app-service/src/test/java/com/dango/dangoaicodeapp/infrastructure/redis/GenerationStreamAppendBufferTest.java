@@ -0,0 +1,153 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import com.dango.dangoaicodeapp.infrastructure.monitor.StreamLatencyMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenerationStreamAppendBufferTest {
+
+    private static final String STREAM_KEY = "gen:stream:1:2";
+
+    @Mock
+    private RedisStreamService redisStreamService;
+
+    @Mock
+    private GenerationStreamNotifier generationStreamNotifier;
+
+    @Mock
+    private GenerationStreamCompactor generationStreamCompactor;
+
+    @Mock
+    private StreamLatencyMetrics streamLatencyMetrics;
+
+    @Spy
+    private CodeGenStreamProperties codeGenStreamProperties = new CodeGenStreamProperties();
+
+    @InjectMocks
+    private GenerationStreamAppendBuffer appendBuffer;
+
+    @AfterEach
+    void tearDown() {
+        appendBuffer.shutdown();
+    }
+
+    @Test
+    @DisplayName("同类型 token 应合并为一条记录，并在显式刷出时写入")
+    void shouldCoalesceTokensUntilFlush() {
+        codeGenStreamProperties.setAppendFlushInterval(Duration.ofSeconds(10));
+
+        appendBuffer.append(STREAM_KEY, "hel", null);
+        appendBuffer.append(STREAM_KEY, "lo", null);
+        verify(redisStreamService, never()).addToStream(eq(STREAM_KEY), anyMap());
+
+        appendBuffer.flush(STREAM_KEY);
+
+        verify(redisStreamService).addToStream(STREAM_KEY, Map.of("d", "hello"));
+        verify(generationStreamNotifier).signal(STREAM_KEY);
+    }
+
+    @Test
+    @DisplayName("日志帧应先刷出已缓冲内容再单独写入，保持顺序")
+    void shouldFlushBeforeLogFrame() {
+        codeGenStreamProperties.setAppendFlushInterval(Duration.ofSeconds(10));
+
+        appendBuffer.append(STREAM_KEY, "code", null);
+        appendBuffer.append(STREAM_KEY, "[节点] 执行完成\n", "log");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(redisStreamService, times(2)).addToStream(eq(STREAM_KEY), captor.capture());
+        List<Map<String, String>> written = captor.getAllValues();
+        assertEquals(Map.of("d", "code"), written.get(0));
+        assertEquals(Map.of("d", "[节点] 执行完成\n", "msgType", "log"), written.get(1));
+    }
+
+    @Test
+    @DisplayName("达到字符阈值时应立即写入")
+    void shouldWriteWhenSizeThresholdReached() {
+        codeGenStreamProperties.setAppendFlushInterval(Duration.ofSeconds(10));
+        codeGenStreamProperties.setAppendBufferMaxChars(4);
+
+        appendBuffer.append(STREAM_KEY, "ab", null);
+        appendBuffer.append(STREAM_KEY, "cd", null);
+
+        verify(redisStreamService).addToStream(STREAM_KEY, Map.of("d", "abcd"));
+    }
+
+    @Test
+    @DisplayName("时间窗口到期后应由后台线程刷出")
+    void shouldFlushAfterWindowElapsed() {
+        codeGenStreamProperties.setAppendFlushInterval(Duration.ofMillis(20));
+
+        appendBuffer.append(STREAM_KEY, "tail", null);
+
+        verify(redisStreamService, timeout(1000)).addToStream(STREAM_KEY, Map.of("d", "tail"));
+        verify(redisStreamService, after(100).times(1)).addToStream(eq(STREAM_KEY), anyMap());
+    }
+
+    @Test
+    @DisplayName("定时刷出失败时保留内容，下一次追加抛出该失败，收口时补写保留的内容")
+    void shouldKeepContentAndSurfaceScheduledFlushFailure() {
+        codeGenStreamProperties.setAppendFlushInterval(Duration.ofMillis(20));
+        RedisConnectionFailureException failure = new RedisConnectionFailureException("down");
+        when(redisStreamService.addToStream(STREAM_KEY, Map.of("d", "hel")))
+                .thenThrow(failure)
+                .thenReturn(RecordId.autoGenerate());
+
+        appendBuffer.append(STREAM_KEY, "hel", null);
+        verify(redisStreamService, timeout(1000)).addToStream(STREAM_KEY, Map.of("d", "hel"));
+
+        assertSame(failure, assertThrows(RedisConnectionFailureException.class,
+                () -> appendBuffer.append(STREAM_KEY, "lo", null)));
+        appendBuffer.flush(STREAM_KEY);
+
+        verify(redisStreamService, times(2)).addToStream(STREAM_KEY, Map.of("d", "hel"));
+        verify(generationStreamNotifier, times(1)).signal(STREAM_KEY);
+    }
+
+    @Test
+    @DisplayName("累计写入达到阈值时应触发压缩，收口时无论条数都压缩一次")
+    void shouldCompactWhenRecordThresholdReached() {
+        codeGenStreamProperties.setAppendBufferEnabled(false);
+        codeGenStreamProperties.setCompactEveryRecords(3);
+        codeGenStreamProperties.setCompactBoundaryRecords(3);
+
+        appendBuffer.append(STREAM_KEY, "a", null);
+        appendBuffer.append(STREAM_KEY, "b", null);
+        verify(generationStreamCompactor, never()).compact(STREAM_KEY);
+
+        appendBuffer.append(STREAM_KEY, "c", null);
+        verify(generationStreamCompactor, times(1)).compact(STREAM_KEY);
+
+        appendBuffer.append(STREAM_KEY, "d", null);
+        appendBuffer.flush(STREAM_KEY);
+        verify(generationStreamCompactor, times(2)).compact(STREAM_KEY);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GenerationStreamCompactorTest {
+
+    @Test
+    @DisplayName("游标落在合并区间中间时只返回游标之后的内容")
+    void shouldReturnSuffixWhenCursorInsideMergedRun() {
+        // 原始记录 100-0 "你好"、100-1 "，世界"、101-0 "!" 被合并为一条压缩记录
+        List<String> quads = List.of(
+                "101-0", "你好，世界!", "", "100-0:6,100-1:9,101-0:1",
+                "102-0", "next", "log", "");
+
+        List<String> triples = GenerationStreamCompactor.toTriples(quads, "100-0");
+
+        assertEquals(List.of("101-0", "，世界!", "", "102-0", "next", "log"), triples);
+    }
+
+    @Test
+    @DisplayName("游标在合并区间最后一条之前时只返回最后一条")
+    void shouldReturnLastRecordWhenCursorAtSecondToLast() {
+        List<String> quads = List.of("101-0", "你好，世界!", "", "100-0:6,100-1:9,101-0:1");
+
+        assertEquals(List.of("101-0", "!", ""), GenerationStreamCompactor.toTriples(quads, "100-1"));
+    }
+
+    @Test
+    @DisplayName("不带 offsets 的记录原样返回")
+    void shouldKeepRecordsWithoutOffsets() {
+        List<String> quads = List.of(
+                "101-0", "merged", "", "",
+                "102-0", "raw", "log", "");
+
+        assertEquals(List.of("101-0", "merged", "", "102-0", "raw", "log"),
+                GenerationStreamCompactor.toTriples(quads, "0"));
+    }
+}
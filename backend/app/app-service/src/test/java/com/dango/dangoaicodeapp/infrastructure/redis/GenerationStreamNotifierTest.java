@@ -0,0 +1,89 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationStreamNotifierTest {
+
+    private static final String STREAM_KEY = "gen:stream:1:2";
+
+    @Test
+    @DisplayName("等待前到达的信号不应丢失")
+    void shouldNotLoseSignalFiredBeforeAwait() throws Exception {
+        GenerationStreamNotifier notifier = new GenerationStreamNotifier();
+
+        try (GenerationStreamPort.Watcher watcher = notifier.watch(STREAM_KEY)) {
+            notifier.signal(STREAM_KEY);
+
+            assertTrue(watcher.await(Duration.ofMillis(10)));
+            assertFalse(watcher.await(Duration.ofMillis(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("等待中的订阅者应被追加信号立即唤醒")
+    void shouldWakeBlockedWatcher() throws Exception {
+        GenerationStreamNotifier notifier = new GenerationStreamNotifier();
+
+        try (GenerationStreamPort.Watcher watcher = notifier.watch(STREAM_KEY)) {
+            CompletableFuture<Boolean> awaited = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return watcher.await(Duration.ofSeconds(10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            });
+            Thread.sleep(50);
+            notifier.signal(STREAM_KEY);
+
+            assertTrue(awaited.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("最后一个订阅者关闭后应释放流 key，无订阅时写入方不创建条目")
+    void shouldReleaseKeyWhenLastWatcherClosed() {
+        GenerationStreamNotifier notifier = new GenerationStreamNotifier();
+        GenerationStreamPort.Watcher first = notifier.watch(STREAM_KEY);
+        GenerationStreamPort.Watcher second = notifier.watch(STREAM_KEY);
+
+        first.close();
+        first.close();
+        assertEquals(1, notifier.activeKeyCount());
+
+        second.close();
+        assertEquals(0, notifier.activeKeyCount());
+
+        notifier.signal(STREAM_KEY);
+        assertEquals(0, notifier.activeKeyCount());
+    }
+
+    @Test
+    @DisplayName("写入方唤醒时同时广播给其他节点，收到广播只唤醒本节点")
+    void shouldPublishToOtherNodesOnlyForLocalWrites() throws Exception {
+        GenerationStreamNotifier notifier = new GenerationStreamNotifier();
+        List<String> published = new CopyOnWriteArrayList<>();
+        notifier.setRemotePublisher(published::add);
+
+        try (GenerationStreamPort.Watcher watcher = notifier.watch(STREAM_KEY)) {
+            notifier.signal(STREAM_KEY);
+            assertTrue(watcher.await(Duration.ofMillis(10)));
+
+            notifier.signalLocal(STREAM_KEY);
+            assertTrue(watcher.await(Duration.ofMillis(10)));
+        }
+        assertEquals(List.of(STREAM_KEY), published);
+    }
+}
@@ -0,0 +1,41 @@
+package com.dango.dangoaicodeapp.infrastructure.redis;
+
+import com.dango.dangoaicodeapp.domain.codegen.port.GenerationStreamPort;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenStreamProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationStreamNudgeBridgeTest {
+
+    private static final String STREAM_KEY = "gen:stream:1:2";
+
+    private final GenerationStreamNotifier notifier = new GenerationStreamNotifier();
+    private final GenerationStreamNudgeBridge bridge = new GenerationStreamNudgeBridge(
+            notifier, null, null, new CodeGenStreamProperties());
+
+    @Test
+    @DisplayName("其他节点的广播唤醒本节点订阅者")
+    void shouldWakeLocalWatcherOnRemoteNudge() throws Exception {
+        try (GenerationStreamPort.Watcher watcher = notifier.watch(STREAM_KEY)) {
+            bridge.onMessage("other-node|" + STREAM_KEY);
+
+            assertTrue(watcher.await(Duration.ofMillis(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("忽略本节点自己发出的广播与格式错误的消息")
+    void shouldIgnoreOwnAndMalformedNudges() throws Exception {
+        try (GenerationStreamPort.Watcher watcher = notifier.watch(STREAM_KEY)) {
+            bridge.onMessage(bridge.nodeId() + "|" + STREAM_KEY);
+            bridge.onMessage(STREAM_KEY);
+
+            assertFalse(watcher.await(Duration.ofMillis(10)));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.dangoaicodeapp.domain.app.valueobject.CodeGenTypeEnum;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileWorkflowCheckpointStoreTest {
+
+    private static final String KEY = "1:2";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("保存后应能读回完整上下文，包括已完成的节点访问")
+    void shouldRoundTripContext() {
+        FileWorkflowCheckpointStore store = newStore(Duration.ofHours(1));
+        WorkflowContext context = WorkflowContext.builder()
+                .appId(1L)
+                .originalPrompt("做一个待办应用")
+                .generationType(CodeGenTypeEnum.VUE_PROJECT)
+                .enhancedPrompt("增强后的提示词")
+                .checkpointKey(KEY)
+                .build();
+        context.markNodeVisitCompleted(context.nextNodeVisit("mode_router"));
+        context.markNodeVisitCompleted(context.nextNodeVisit("image_plan"));
+
+        store.save(KEY, context);
+        WorkflowContext loaded = store.load(KEY).orElseThrow();
+
+        assertEquals("增强后的提示词", loaded.getEnhancedPrompt());
+        assertEquals(CodeGenTypeEnum.VUE_PROJECT, loaded.getGenerationType());
+        assertEquals(List.of("mode_router#1", "image_plan#1"), loaded.getCompletedNodeVisits());
+    }
+
+    @Test
+    @DisplayName("删除或过期后的检查点应视为不存在")
+    void shouldTreatDeletedOrExpiredCheckpointAsMissing() throws Exception {
+        FileWorkflowCheckpointStore store = newStore(Duration.ofMinutes(5));
+        store.save(KEY, WorkflowContext.builder().appId(1L).build());
+        store.delete(KEY);
+        assertTrue(store.load(KEY).isEmpty());
+
+        store.save(KEY, WorkflowContext.builder().appId(1L).build());
+        try (var files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(10))));
+        }
+        assertTrue(store.load(KEY).isEmpty());
+        try (var files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    private FileWorkflowCheckpointStore newStore(Duration ttl) {
+        CodeGenWorkflowProperties properties = new CodeGenWorkflowProperties();
+        properties.setCheckpointDir(directory.toString());
+        properties.setCheckpointTtl(ttl);
+        return new FileWorkflowCheckpointStore(properties);
+    }
+}
@@ -0,0 +1,106 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.aicodegenerate.model.ImageResource;
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageTaskFanoutTest {
+
+    private ImageTaskFanout fanout;
+
+    @AfterEach
+    void tearDown() {
+        if (fanout != null) {
+            fanout.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("并发执行的结果按任务顺序合并，失败任务被跳过")
+    void shouldMergeResultsInTaskOrderAndSkipFailures() {
+        fanout = newFanout(Duration.ofSeconds(5), 4);
+
+        List<ImageResource> images = fanout.collect("pexels", List.of("a", "b", "c", "d"), task -> {
+            if (task.equals("c")) {
+                throw new IllegalStateException("搜索失败");
+            }
+            if (task.equals("a")) {
+                sleep(100);
+            }
+            return List.of(image(task));
+        });
+
+        assertEquals(List.of("a", "b", "d"), images.stream().map(ImageResource::getDescription).toList());
+    }
+
+    @Test
+    @DisplayName("同一提供方同时执行的任务数不超过上限")
+    void shouldRespectProviderConcurrencyCap() {
+        fanout = newFanout(Duration.ofSeconds(5), 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<ImageResource> images = fanout.collect("pexels", List.of("1", "2", "3", "4", "5", "6"), task -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(50);
+            running.decrementAndGet();
+            return List.of(image(task));
+        });
+
+        assertEquals(6, images.size());
+        assertTrue(maxRunning.get() <= 2, "并发数超过上限: " + maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("超过截止时间时只返回已完成的结果")
+    void shouldReturnCompletedResultsAtDeadline() {
+        fanout = newFanout(Duration.ofMillis(300), 4);
+        CountDownLatch never = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        List<ImageResource> images = fanout.collect("pexels", List.of("fast", "slow"), task -> {
+            if (task.equals("slow")) {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(image(task));
+        });
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(List.of("fast"), images.stream().map(ImageResource::getDescription).toList());
+        assertTrue(elapsedMillis < 3000, "未按截止时间返回: " + elapsedMillis + "ms");
+    }
+
+    private ImageTaskFanout newFanout(Duration deadline, int concurrency) {
+        CodeGenWorkflowProperties properties = new CodeGenWorkflowProperties();
+        properties.setImageCollectDeadline(deadline);
+        properties.setImageProviderConcurrency(Map.of("pexels", concurrency));
+        return new ImageTaskFanout(properties);
+    }
+
+    private static ImageResource image(String description) {
+        return ImageResource.builder().description(description).url("https://example.com/" + description).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
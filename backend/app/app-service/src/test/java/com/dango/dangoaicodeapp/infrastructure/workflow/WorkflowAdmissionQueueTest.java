@@ -0,0 +1,191 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.dangoaicodeapp.infrastructure.config.CodeGenWorkflowProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowAdmissionQueueTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    private CodeGenWorkflowProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private WorkflowAdmissionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeGenWorkflowProperties();
+        properties.setMaxConcurrentRuns(1);
+        properties.setMaxConcurrentRunsPerUser(1);
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new WorkflowAdmissionQueue(properties, meterRegistry);
+        queue.initMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    @DisplayName("槽位已满时排队并推送位置，释放后按用户轮转调度")
+    void shouldQueueAndRoundRobinAcrossUsers() throws InterruptedException {
+        RecordingListener a1 = new RecordingListener();
+        RecordingListener a2 = new RecordingListener();
+        RecordingListener a3 = new RecordingListener();
+        RecordingListener b1 = new RecordingListener();
+        CountDownLatch allStarted = new CountDownLatch(4);
+
+        queue.submit("a", blockingTask("a-running", allStarted), a1);
+        queue.submit("a", recordingTask("a2", allStarted), a2);
+        queue.submit("a", recordingTask("a3", allStarted), a3);
+        queue.submit("b", recordingTask("b1", allStarted), b1);
+
+        // 轮转顺序：a2、b1、a3
+        assertEquals(List.of(1), a2.positions);
+        assertEquals(2, b1.lastPosition());
+        assertEquals(3, a3.lastPosition());
+        assertEquals(3.0, meterRegistry.get("codegen_admission_queue_depth").gauge().value());
+
+        gate.countDown();
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a-running", "a2", "b1", "a3"), started);
+        assertTrue(a1.positions.isEmpty());
+    }
+
+    @Test
+    @DisplayName("队列已满时直接拒绝")
+    void shouldRejectWhenQueueFull() {
+        properties.setAdmissionQueueCapacity(1);
+        RecordingListener rejected = new RecordingListener();
+
+        queue.submit("a", blockingTask("a-running", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("b", recordingTask("b1", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("c", recordingTask("c1", new CountDownLatch(1)), rejected);
+
+        assertEquals(1, rejected.rejections.size());
+        assertEquals(1.0, meterRegistry.get("codegen_admission_rejected_total").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    @DisplayName("排队数达到容量后拒绝需要排队的请求，可立即执行的请求不占容量")
+    void shouldOnlyCountWaitingTicketsAgainstCapacity() throws InterruptedException {
+        properties.setMaxConcurrentRuns(2);
+        properties.setAdmissionQueueCapacity(1);
+        RecordingListener a3 = new RecordingListener();
+        CountDownLatch bStarted = new CountDownLatch(1);
+
+        queue.submit("a", blockingTask("a-running", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("a", recordingTask("a2", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("b", blockingTask("b-running", bStarted), new RecordingListener());
+        queue.submit("a", recordingTask("a3", new CountDownLatch(1)), a3);
+        queue.submit("c", recordingTask("c1", new CountDownLatch(1)), new RecordingListener());
+
+        assertTrue(bStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, a3.rejections.size());
+        assertEquals(2.0, meterRegistry.get("codegen_admission_rejected_total").tag("reason", "queue_full").counter().count());
+        assertEquals(1.0, meterRegistry.get("codegen_admission_queue_depth").gauge().value());
+    }
+
+    @Test
+    @DisplayName("请求出队执行或取消后撤销其排队超时任务")
+    void shouldCancelExpiryWhenTicketLeavesQueue() throws InterruptedException {
+        CountDownLatch b1Started = new CountDownLatch(1);
+
+        queue.submit("a", blockingTask("a-running", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("b", recordingTask("b1", b1Started), new RecordingListener());
+        WorkflowAdmissionQueue.Ticket cancelled = queue.submit("c", recordingTask("c1", new CountDownLatch(1)), new RecordingListener());
+        assertEquals(2, queue.pendingExpiryCount());
+
+        assertTrue(cancelled.cancel());
+        assertEquals(1, queue.pendingExpiryCount());
+
+        gate.countDown();
+        assertTrue(b1Started.await(5, TimeUnit.SECONDS));
+        assertEquals(0, queue.pendingExpiryCount());
+    }
+
+    @Test
+    @DisplayName("排队超时的请求被拒绝且不会执行，取消排队后让出位置")
+    void shouldExpireAndCancelWaitingTickets() throws InterruptedException {
+        properties.setAdmissionMaxWait(Duration.ofMillis(100));
+        RecordingListener expiring = new RecordingListener();
+        RecordingListener behind = new RecordingListener();
+
+        queue.submit("a", blockingTask("a-running", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("b", recordingTask("b1", new CountDownLatch(1)), expiring);
+        properties.setAdmissionMaxWait(Duration.ofMinutes(1));
+        WorkflowAdmissionQueue.Ticket cancelled = queue.submit("c", recordingTask("c1", new CountDownLatch(1)), new RecordingListener());
+        queue.submit("d", recordingTask("d1", new CountDownLatch(1)), behind);
+        assertEquals(3, behind.lastPosition());
+
+        assertTrue(cancelled.cancel());
+        assertEquals(2, behind.lastPosition());
+
+        assertTrue(expiring.awaitRejection());
+        assertEquals(1, behind.lastPosition());
+        gate.countDown();
+        Thread.sleep(200);
+        assertFalse(started.contains("b1"));
+        assertFalse(started.contains("c1"));
+    }
+
+    private Runnable blockingTask(String name, CountDownLatch startedLatch) {
+        return () -> {
+            started.add(name);
+            startedLatch.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private Runnable recordingTask(String name, CountDownLatch startedLatch) {
+        return () -> {
+            started.add(name);
+            startedLatch.countDown();
+        };
+    }
+
+    private static final class RecordingListener implements WorkflowAdmissionQueue.Listener {
+        private final List<Integer> positions = new CopyOnWriteArrayList<>();
+        private final List<String> rejections = new CopyOnWriteArrayList<>();
+        private final CountDownLatch rejected = new CountDownLatch(1);
+
+        @Override
+        public void onQueued(int position) {
+            positions.add(position);
+        }
+
+        @Override
+        public void onRejected(String reason) {
+            rejections.add(reason);
+            rejected.countDown();
+        }
+
+        int lastPosition() {
+            return positions.get(positions.size() - 1);
+        }
+
+        boolean awaitRejection() throws InterruptedException {
+            return rejected.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
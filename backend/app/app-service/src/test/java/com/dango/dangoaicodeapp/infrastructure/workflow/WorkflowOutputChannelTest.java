@@ -0,0 +1,174 @@
+package com.dango.dangoaicodeapp.infrastructure.workflow;
+
+import com.dango.aicodegenerate.model.message.AiResponseMessage;
+import com.dango.aicodegenerate.model.message.StreamMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowOutputChannelTest {
+
+    private MeterRegistry meterRegistry;
+    private WorkflowOutputChannel.Meters meters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meters = new WorkflowOutputChannel.Meters(
+                new AtomicInteger(),
+                meterRegistry.summary("depth"),
+                meterRegistry.counter("coalesced"),
+                meterRegistry.counter("dropped"),
+                meterRegistry.timer("blocked"));
+    }
+
+    @Test
+    @DisplayName("队列满时内容帧应阻塞写入方，下游请求后继续")
+    void shouldBlockContentWhenFull() throws Exception {
+        ManualSubscriber subscriber = new ManualSubscriber();
+        WorkflowOutputChannel channel = open(2, subscriber);
+
+        channel.emit(content("a"));
+        channel.emit(content("b"));
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> channel.emit(content("c")));
+
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        assertEquals(2, meters.depth().get());
+
+        subscriber.request(3);
+        blocked.get(1, TimeUnit.SECONDS);
+        channel.complete();
+
+        awaitCompleted(subscriber);
+        assertEquals(List.of("a", "b", "c"), subscriber.texts());
+        assertEquals(0, meters.depth().get());
+    }
+
+    @Test
+    @DisplayName("队列满时日志帧应并入队尾日志帧，无法合并则丢弃")
+    void shouldCoalesceOrDropLogFramesWhenFull() {
+        ManualSubscriber subscriber = new ManualSubscriber();
+        WorkflowOutputChannel channel = open(2, subscriber);
+
+        channel.emit(content("a"));
+        channel.emit(log("[节点A] 开始\n"));
+        channel.emit(log("[节点A] 完成\n"));
+        channel.complete();
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(List.of("a", "[节点A] 开始\n[节点A] 完成\n"), subscriber.texts());
+        assertEquals(1.0, meterRegistry.counter("coalesced").count());
+
+        ManualSubscriber second = new ManualSubscriber();
+        WorkflowOutputChannel full = open(1, second);
+        full.emit(content("a"));
+        full.emit(log("dropped"));
+
+        assertEquals(1.0, meterRegistry.counter("dropped").count());
+    }
+
+    @Test
+    @DisplayName("结束信号应在排队内容全部下发后才传递")
+    void shouldDeliverQueuedMessagesBeforeError() {
+        ManualSubscriber subscriber = new ManualSubscriber();
+        WorkflowOutputChannel channel = open(4, subscriber);
+
+        channel.emit(content("tail"));
+        channel.error(new IllegalStateException("boom"));
+        assertNull(subscriber.error.get());
+
+        subscriber.request(1);
+
+        assertEquals(List.of("tail"), subscriber.texts());
+        assertEquals("boom", subscriber.error.get().getMessage());
+    }
+
+    @Test
+    @DisplayName("下游取消后应释放阻塞的写入方并清空队列")
+    void shouldReleaseBlockedProducerOnCancel() throws Exception {
+        ManualSubscriber subscriber = new ManualSubscriber();
+        WorkflowOutputChannel channel = open(1, subscriber);
+
+        channel.emit(content("a"));
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> channel.emit(content("b")));
+        Thread.sleep(50);
+
+        subscriber.cancel();
+        blocked.get(1, TimeUnit.SECONDS);
+
+        assertEquals(0, meters.depth().get());
+    }
+
+    private static void awaitCompleted(ManualSubscriber subscriber) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!subscriber.completed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(subscriber.completed);
+    }
+
+    private WorkflowOutputChannel open(int capacity, ManualSubscriber subscriber) {
+        AtomicReference<WorkflowOutputChannel> ref = new AtomicReference<>();
+        Flux.<StreamMessage>create(sink -> ref.set(new WorkflowOutputChannel(sink, capacity, meters)))
+                .subscribe(subscriber);
+        return ref.get();
+    }
+
+    private static AiResponseMessage content(String text) {
+        return new AiResponseMessage(text);
+    }
+
+    private static AiResponseMessage log(String text) {
+        AiResponseMessage message = new AiResponseMessage(text);
+        message.setMsgType("log");
+        return message;
+    }
+
+    private static final class ManualSubscriber extends BaseSubscriber<StreamMessage> {
+        private final List<StreamMessage> received = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean completed;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // 不预先请求，由测试控制下游需求
+        }
+
+        @Override
+        protected void hookOnNext(StreamMessage value) {
+            received.add(value);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error.set(throwable);
+        }
+
+        List<String> texts() {
+            return received.stream().map(message -> ((AiResponseMessage) message).getData()).toList();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.dango.dangoaicodeapp.workflow.node;
+
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectBuildResult;
+import com.dango.dangoaicodeapp.domain.codegen.model.ProjectPrecheckResult;
+import com.dango.dangoaicodeapp.domain.codegen.node.BuildCheckNode;
+import com.dango.dangoaicodeapp.domain.codegen.port.ProjectBuildPort;
+import com.dango.dangoaicodeapp.domain.codegen.port.WorkflowMessagePort;
+import com.dango.dangoaicodeapp.domain.codegen.workflow.state.WorkflowContext;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * BuildCheckNode 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BuildCheckNodeTest {
+
+    private static final String CODE_DIR = "/tmp/code/vue_project_1";
+
+    @Mock
+    private WorkflowMessagePort workflowMessagePort;
+
+    @Mock
+    private ProjectBuildPort projectBuildPort;
+
+    @InjectMocks
+    private BuildCheckNode buildCheckNode;
+
+    @Test
+    @DisplayName("预检查发现错误时跳过完整构建，结构化错误逐条交给修复节点")
+    void shouldSkipFullBuildWhenPrecheckFails() {
+        List<String> errors = List.of("src/App.vue:3:1 Unexpected token", "src/main.js 无法解析导入 \"./Gone.js\"：文件不存在");
+        when(projectBuildPort.precheckProject(CODE_DIR)).thenReturn(new ProjectPrecheckResult(true, 2, errors));
+        WorkflowContext context = context();
+
+        buildCheckNode.action().apply(new MessagesState<>(WorkflowContext.saveContext(context))).join();
+
+        verify(projectBuildPort, never()).buildProject(CODE_DIR);
+        assertFalse(context.getQualityResult().getIsValid());
+        assertEquals(errors, context.getQualityResult().getErrors());
+        assertEquals(1, context.latestBuildErrorOccurrences());
+        verify(workflowMessagePort).emitNodeMessage(eq("exec-1"), eq("构建检查"),
+                argThat(message -> message.contains("预检查发现 2 个错误，跳过完整构建")));
+    }
+
+    @Test
+    @DisplayName("预检查通过后执行完整构建")
+    void shouldRunFullBuildWhenPrecheckPasses() {
+        when(projectBuildPort.precheckProject(CODE_DIR)).thenReturn(new ProjectPrecheckResult(true, 2, List.of()));
+        when(projectBuildPort.buildProject(CODE_DIR)).thenReturn(new ProjectBuildResult(true, null, null, false));
+        WorkflowContext context = context();
+
+        buildCheckNode.action().apply(new MessagesState<>(WorkflowContext.saveContext(context))).join();
+
+        verify(projectBuildPort).buildProject(CODE_DIR);
+        assertTrue(context.getQualityResult().getIsValid());
+    }
+
+    private static WorkflowContext context() {
+        return WorkflowContext.builder()
+                .workflowExecutionId("exec-1")
+                .generatedCodeDir(CODE_DIR)
+                .build();
+    }
+}
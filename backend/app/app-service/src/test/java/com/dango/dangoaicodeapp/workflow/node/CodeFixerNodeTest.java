@@ -219,6 +219,36 @@ class CodeFixerNodeTest {
         assertTrue(CodeFixerNode.shouldContinueFix(context));
     }
 
+    @Test
+    @DisplayName("构建修复请求 - 同一错误再次出现时要求换一种修复方式")
+    void testBuildFixRequestWithRepeatedError() {
+        WorkflowContext context = WorkflowContext.builder()
+                .qualityResult(QualityResult.builder().isValid(false).errors(List.of("存在错误")).build())
+                .generationType(CodeGenTypeEnum.VUE_PROJECT)
+                .build();
+        context.recordBuildErrorFingerprint("fp-a");
+        assertFalse(CodeFixerNode.buildFixRequest(context).contains("上一次修复没有解决该错误"));
+
+        context.recordBuildErrorFingerprint("fp-a");
+        assertTrue(CodeFixerNode.buildFixRequest(context).contains("上一次修复没有解决该错误"));
+    }
+
+    @Test
+    @DisplayName("检查是否应该继续修复 - 同一错误反复出现时停止")
+    void testShouldContinueFixWhenSameErrorRepeats() {
+        WorkflowContext context = WorkflowContext.builder()
+                .qualityResult(QualityResult.builder().isValid(false).errors(List.of("存在错误")).build())
+                .fixRetryCount(1)
+                .build();
+        for (int i = 0; i < WorkflowContext.MAX_SAME_BUILD_ERROR_COUNT; i++) {
+            context.recordBuildErrorFingerprint("fp-a");
+        }
+        assertTrue(CodeFixerNode.shouldContinueFix(context));
+
+        context.recordBuildErrorFingerprint("fp-a");
+        assertFalse(CodeFixerNode.shouldContinueFix(context));
+    }
+
     @Test
     @DisplayName("检查是否达到最大重试次数 - 未达到")
     void testHasReachedMaxRetryWhenNotReached() {
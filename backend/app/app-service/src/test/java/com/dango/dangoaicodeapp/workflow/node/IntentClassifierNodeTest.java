@@ -0,0 +1,41 @@
+package com.dango.dangoaicodeapp.workflow.node;
+
+import com.dango.dangoaicodeapp.domain.codegen.node.IntentClassifierNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IntentClassifierNode 单元测试
+ *
+ * @author dango
+ */
+class IntentClassifierNodeTest {
+
+    @Test
+    @DisplayName("项目结构较短时原样用于意图识别")
+    void testCompactStructureKeepsShortStructure() {
+        String structure = "项目目录结构:\n- package.json\n- src/App.vue\n";
+
+        assertEquals(structure, IntentClassifierNode.compactStructure(structure));
+        assertNull(IntentClassifierNode.compactStructure(null));
+    }
+
+    @Test
+    @DisplayName("项目结构较长时只保留前若干行并给出省略数量")
+    void testCompactStructureTruncatesLongStructure() {
+        StringBuilder structure = new StringBuilder("项目目录结构:\n");
+        for (int i = 0; i < 100; i++) {
+            structure.append("- src/components/Component").append(i).append(".vue\n");
+        }
+
+        String compact = IntentClassifierNode.compactStructure(structure.toString());
+
+        assertTrue(compact.startsWith("项目目录结构:\n- src/components/Component0.vue\n"));
+        assertTrue(compact.endsWith("- ...（其余 41 个文件省略）\n"));
+        assertEquals(61, compact.split("\n").length);
+    }
+}
@@ -0,0 +1,39 @@
+package com.dango.dangoaicodeapp.workflow.node;
+
+import com.dango.dangoaicodeapp.domain.codegen.node.IntentPrefilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * IntentPrefilter 单元测试
+ *
+ * @author dango
+ */
+class IntentPrefilterTest {
+
+    @Test
+    @DisplayName("只含提问特征的输入预判为 QA")
+    void testQuestionClassifiedAsQa() {
+        List.of("为什么页面刷新后数据丢失了", "这个动画的原理是什么？", "Why does the list flicker?", "explain the router setup")
+                .forEach(message -> assertEquals(IntentPrefilter.INTENT_QA, IntentPrefilter.classify(message), message));
+    }
+
+    @Test
+    @DisplayName("只含修改指令的输入预判为 MODIFY")
+    void testInstructionClassifiedAsModify() {
+        List.of("把标题颜色改成红色", "在首页添加一个轮播图", "删除底部的版权信息。", "change the button color to blue")
+                .forEach(message -> assertEquals(IntentPrefilter.INTENT_MODIFY, IntentPrefilter.classify(message), message));
+    }
+
+    @Test
+    @DisplayName("特征冲突、以问句形式提出修改或无明显特征时交给模型")
+    void testAmbiguousLeftToModel() {
+        List.of("为什么要把按钮改成圆角", "可以把标题调大一点吗？", "看看首页", "  ")
+                .forEach(message -> assertNull(IntentPrefilter.classify(message), message));
+    }
+}